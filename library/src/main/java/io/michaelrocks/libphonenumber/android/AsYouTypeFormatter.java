@@ -18,6 +18,7 @@
 package io.michaelrocks.libphonenumber.android;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -36,6 +37,10 @@ import io.michaelrocks.libphonenumber.android.internal.RegexCache;
  * returned each time a digit is added. {@link #clear} can be invoked before formatting a new
  * number.
  *
+ * <p>Characters entered earlier can be changed with {@link #replace}, {@link #insert} and
+ * {@link #delete}. The formatter keeps the state it had after each of the first characters, so an
+ * edit only enters again the characters following it.
+ *
  * <p>See the unittests for more details on how the formatter is to be used.
  *
  * @author Shaopeng Jia
@@ -68,20 +73,6 @@ public class AsYouTypeFormatter {
   private PhoneMetadata defaultMetadata;
   private PhoneMetadata currentMetadata;
 
-  // A pattern that is used to determine if a numberFormat under availableFormats is eligible to be
-  // used by the AYTF. It is eligible when the format element under numberFormat contains groups of
-  // the dollar sign followed by a single digit, separated by valid phone number punctuation. This
-  // prevents invalid punctuation (such as the star sign in Israeli star numbers) getting into the
-  // output of the AYTF. We require that the first group is present in the output pattern to ensure
-  // no data is lost while formatting; when we format as you type, this should always be the case.
-  private static final Pattern ELIGIBLE_FORMAT_PATTERN =
-      Pattern.compile("[" + PhoneNumberUtil.VALID_PUNCTUATION + "]*"
-          + "\\$1" + "[" + PhoneNumberUtil.VALID_PUNCTUATION + "]*(\\$\\d"
-          + "[" + PhoneNumberUtil.VALID_PUNCTUATION + "]*)*");
-  // A set of characters that, if found in a national prefix formatting rules, are an indicator to
-  // us that we should separate the national prefix from the number when formatting.
-  private static final Pattern NATIONAL_PREFIX_SEPARATORS_PATTERN = Pattern.compile("[- ]");
-
   // This is the minimum length of national number accrued that is required to trigger the
   // formatter. The first element of the leadingDigitsPattern of each numberFormat contains a
   // regular expression that matches up to this number of digits.
@@ -89,8 +80,8 @@ public class AsYouTypeFormatter {
 
   // The digits that have not been entered yet will be represented by a \u2008, the punctuation
   // space.
-  private static final String DIGIT_PLACEHOLDER = "\u2008";
-  private static final Pattern DIGIT_PATTERN = Pattern.compile(DIGIT_PLACEHOLDER);
+  private static final String DIGIT_PLACEHOLDER =
+      Character.toString(FormattingTemplate.DIGIT_PLACEHOLDER);
   private int lastMatchPosition = 0;
   // The position of a digit upon which inputDigitAndRememberPosition is most recently invoked, as
   // found in the original sequence of characters the user entered.
@@ -109,8 +100,16 @@ public class AsYouTypeFormatter {
   private StringBuilder nationalNumber = new StringBuilder();
   private List<NumberFormat> possibleFormats = new ArrayList<NumberFormat>();
 
-  // A cache for frequently used country-specific regular expressions.
-  private RegexCache regexCache = new RegexCache(64);
+  // Checkpoints are only kept for this many first characters, which covers any phone number with
+  // formatting. Edits further into the input enter the characters again from the last checkpoint.
+  private static final int MAX_CHECKPOINT_COUNT = 32;
+  // The state of the formatter after each of the first characters entered, the first character
+  // having the checkpoint at index 0.
+  private final List<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+
+  // A cache for frequently used country-specific regular expressions, shared with the phone number
+  // util so that new formatters don't compile the same patterns again.
+  private final RegexCache regexCache;
 
   /**
    * Constructs an as-you-type formatter. Should be obtained from {@link
@@ -121,6 +120,7 @@ public class AsYouTypeFormatter {
    */
   AsYouTypeFormatter(PhoneNumberUtil phoneUtil, String regionCode) {
     this.phoneUtil = phoneUtil;
+    regexCache = phoneUtil.getRegexCache();
     defaultCountry = regionCode;
     currentMetadata = getMetadataForRegion(defaultCountry);
     defaultMetadata = currentMetadata;
@@ -151,11 +151,10 @@ public class AsYouTypeFormatter {
       if (currentFormattingPattern.equals(pattern)) {
         return false;
       }
-      if (createFormattingTemplate(numberFormat)) {
+      FormattingTemplate template = phoneUtil.getFormattingTemplate(currentMetadata, numberFormat);
+      if (createFormattingTemplate(template)) {
         currentFormattingPattern = pattern;
-        shouldAddSpaceAfterNationalPrefix =
-            NATIONAL_PREFIX_SEPARATORS_PATTERN.matcher(
-                numberFormat.getNationalPrefixFormattingRule()).find();
+        shouldAddSpaceAfterNationalPrefix = template.shouldAddSpaceAfterNationalPrefix();
         // With a new formatting template, the matched position using the old template needs to be
         // reset.
         lastMatchPosition = 0;
@@ -197,7 +196,7 @@ public class AsYouTypeFormatter {
         // so we discard it.
         continue;
       }
-      if (ELIGIBLE_FORMAT_PATTERN.matcher(format.getFormat()).matches()) {
+      if (phoneUtil.getFormattingTemplate(currentMetadata, format).isEligible()) {
         possibleFormats.add(format);
       }
     }
@@ -224,10 +223,9 @@ public class AsYouTypeFormatter {
     }
   }
 
-  private boolean createFormattingTemplate(NumberFormat format) {
-    String numberPattern = format.getPattern();
+  private boolean createFormattingTemplate(FormattingTemplate template) {
     formattingTemplate.setLength(0);
-    String tempTemplate = getFormattingTemplate(numberPattern, format.getFormat());
+    String tempTemplate = template.getTemplate(nationalNumber.length(), regexCache);
     if (tempTemplate.length() > 0) {
       formattingTemplate.append(tempTemplate);
       return true;
@@ -235,27 +233,6 @@ public class AsYouTypeFormatter {
     return false;
   }
 
-  // Gets a formatting template which can be used to efficiently format a partial number where
-  // digits are added one by one.
-  private String getFormattingTemplate(String numberPattern, String numberFormat) {
-    // Creates a phone number consisting only of the digit 9 that matches the
-    // numberPattern by applying the pattern to the longestPhoneNumber string.
-    String longestPhoneNumber = "999999999999999";
-    Matcher m = regexCache.getPatternForRegex(numberPattern).matcher(longestPhoneNumber);
-    m.find();  // this will always succeed
-    String aPhoneNumber = m.group();
-    // No formatting template can be created if the number of digits entered so far is longer than
-    // the maximum the current formatting rule can accommodate.
-    if (aPhoneNumber.length() < nationalNumber.length()) {
-      return "";
-    }
-    // Formats the number according to numberFormat
-    String template = aPhoneNumber.replaceAll(numberPattern, numberFormat);
-    // Replaces each digit with character DIGIT_PLACEHOLDER
-    template = template.replaceAll("9", DIGIT_PLACEHOLDER);
-    return template;
-  }
-
   /**
    * Clears the internal state of the formatter, so it can be reused.
    */
@@ -277,6 +254,7 @@ public class AsYouTypeFormatter {
     isExpectingCountryCallingCode = false;
     possibleFormats.clear();
     shouldAddSpaceAfterNationalPrefix = false;
+    checkpoints.clear();
     if (!currentMetadata.equals(defaultMetadata)) {
       currentMetadata = getMetadataForRegion(defaultCountry);
     }
@@ -293,6 +271,7 @@ public class AsYouTypeFormatter {
    */
   public String inputDigit(char nextChar) {
     currentOutput = inputDigitWithOptionToRememberPosition(nextChar, false);
+    maybeSaveCheckpoint();
     return currentOutput;
   }
 
@@ -304,9 +283,83 @@ public class AsYouTypeFormatter {
    */
   public String inputDigitAndRememberPosition(char nextChar) {
     currentOutput = inputDigitWithOptionToRememberPosition(nextChar, true);
+    maybeSaveCheckpoint();
+    return currentOutput;
+  }
+
+  /**
+   * Replaces the characters entered from {@code start} to {@code end} with {@code text}, and
+   * returns the partially formatted phone number, the same as entering the edited characters one by
+   * one after {@link #clear} would. The indices count the characters passed to {@link #inputDigit}
+   * and the other methods since the number was cleared, and the characters of {@code text} are
+   * accepted the same way as by {@link #inputDigit}.
+   *
+   * <p>The formatter goes back to the state it had before {@code start} and enters only the
+   * characters following it again. The position after the edit is remembered, so
+   * {@link #getRememberedPosition} returns where the cursor should be put in the returned number.
+   *
+   * @param start  the index of the first character to replace
+   * @param end  the index after the last character to replace
+   * @param text  the characters to enter in place of the replaced ones
+   * @return  the partially formatted phone number.
+   * @throws IndexOutOfBoundsException if {@code start} is negative, greater than {@code end}, or
+   *     {@code end} is greater than the number of characters entered
+   */
+  public String replace(int start, int end, CharSequence text) {
+    int length = accruedInput.length();
+    if (start < 0 || start > end || end > length) {
+      throw new IndexOutOfBoundsException(
+          "start " + start + ", end " + end + ", length " + length);
+    }
+    String input = new StringBuilder(length - (end - start) + text.length())
+        .append(accruedInput, 0, start).append(text).append(accruedInput, end, length).toString();
+    // The character before the cursor is entered again to remember its position.
+    int cursor = start + text.length();
+    int position = Math.min(Math.max(Math.min(start, cursor - 1), 0), checkpoints.size());
+    restoreCheckpoint(position);
+    for (int i = position; i < input.length(); i++) {
+      if (i == cursor - 1) {
+        inputDigitAndRememberPosition(input.charAt(i));
+      } else {
+        inputDigit(input.charAt(i));
+      }
+    }
     return currentOutput;
   }
 
+  /**
+   * Inserts {@code text} before the character entered at {@code index}. This is the same as
+   * {@code replace(index, index, text)}, which is used e.g. to type or paste at the cursor.
+   */
+  public String insert(int index, CharSequence text) {
+    return replace(index, index, text);
+  }
+
+  /**
+   * Deletes the characters entered from {@code start} to {@code end}. This is the same as
+   * {@code replace(start, end, "")}, which is used e.g. to handle the backspace key.
+   */
+  public String delete(int start, int end) {
+    return replace(start, end, "");
+  }
+
+  private void maybeSaveCheckpoint() {
+    int count = accruedInput.length();
+    if (count <= MAX_CHECKPOINT_COUNT && count == checkpoints.size() + 1) {
+      checkpoints.add(new Checkpoint(this));
+    }
+  }
+
+  // Puts the formatter into the state it had after the given number of first characters.
+  private void restoreCheckpoint(int position) {
+    if (position == 0) {
+      clear();
+      return;
+    }
+    checkpoints.subList(position, checkpoints.size()).clear();
+    checkpoints.get(position - 1).restore(this);
+  }
+
   @SuppressWarnings("fallthrough")
   private String inputDigitWithOptionToRememberPosition(char nextChar, boolean rememberPosition) {
     accruedInput.append(nextChar);
@@ -429,8 +482,8 @@ public class AsYouTypeFormatter {
       Matcher m = regexCache.getPatternForRegex(numberFormat.getPattern()).matcher(nationalNumber);
       if (m.matches()) {
         shouldAddSpaceAfterNationalPrefix =
-            NATIONAL_PREFIX_SEPARATORS_PATTERN.matcher(
-                numberFormat.getNationalPrefixFormattingRule()).find();
+            phoneUtil.getFormattingTemplate(currentMetadata, numberFormat)
+                .shouldAddSpaceAfterNationalPrefix();
         String formattedNumber = m.replaceAll(numberFormat.getFormat());
         // Check that we did not remove nor add any extra digits when we matched
         // this formatting pattern. This usually happens after we entered the last
@@ -653,11 +706,11 @@ public class AsYouTypeFormatter {
   private String inputDigitHelper(char nextChar) {
     // Note that formattingTemplate is not guaranteed to have a value, it could be empty, e.g.
     // when the next digit is entered after extracting an IDD or NDD.
-    Matcher digitMatcher = DIGIT_PATTERN.matcher(formattingTemplate);
-    if (digitMatcher.find(lastMatchPosition)) {
-      String tempTemplate = digitMatcher.replaceFirst(Character.toString(nextChar));
-      formattingTemplate.replace(0, tempTemplate.length(), tempTemplate);
-      lastMatchPosition = digitMatcher.start();
+    // The placeholders are filled in order, so the first one left follows the last match.
+    int digitPosition = formattingTemplate.indexOf(DIGIT_PLACEHOLDER, lastMatchPosition);
+    if (digitPosition >= 0) {
+      formattingTemplate.setCharAt(digitPosition, nextChar);
+      lastMatchPosition = digitPosition;
       return formattingTemplate.substring(0, lastMatchPosition + 1);
     } else {
       if (possibleFormats.size() == 1) {
@@ -669,4 +722,76 @@ public class AsYouTypeFormatter {
       return accruedInput.toString();
     }
   }
+
+  /**
+   * The state of a formatter after some characters have been entered. The characters entered and
+   * their digits only grow until the formatter is cleared, so only their lengths are kept.
+   */
+  private static final class Checkpoint {
+    private final String currentOutput;
+    private final String formattingTemplate;
+    private final String currentFormattingPattern;
+    private final int accruedInputLength;
+    private final int accruedInputWithoutFormattingLength;
+    private final boolean ableToFormat;
+    private final boolean inputHasFormatting;
+    private final boolean isCompleteNumber;
+    private final boolean isExpectingCountryCallingCode;
+    private final PhoneMetadata currentMetadata;
+    private final int lastMatchPosition;
+    private final int originalPosition;
+    private final int positionToRemember;
+    private final String prefixBeforeNationalNumber;
+    private final boolean shouldAddSpaceAfterNationalPrefix;
+    private final String extractedNationalPrefix;
+    private final String nationalNumber;
+    private final NumberFormat[] possibleFormats;
+
+    Checkpoint(AsYouTypeFormatter formatter) {
+      currentOutput = formatter.currentOutput;
+      formattingTemplate = formatter.formattingTemplate.toString();
+      currentFormattingPattern = formatter.currentFormattingPattern;
+      accruedInputLength = formatter.accruedInput.length();
+      accruedInputWithoutFormattingLength = formatter.accruedInputWithoutFormatting.length();
+      ableToFormat = formatter.ableToFormat;
+      inputHasFormatting = formatter.inputHasFormatting;
+      isCompleteNumber = formatter.isCompleteNumber;
+      isExpectingCountryCallingCode = formatter.isExpectingCountryCallingCode;
+      currentMetadata = formatter.currentMetadata;
+      lastMatchPosition = formatter.lastMatchPosition;
+      originalPosition = formatter.originalPosition;
+      positionToRemember = formatter.positionToRemember;
+      prefixBeforeNationalNumber = formatter.prefixBeforeNationalNumber.toString();
+      shouldAddSpaceAfterNationalPrefix = formatter.shouldAddSpaceAfterNationalPrefix;
+      extractedNationalPrefix = formatter.extractedNationalPrefix;
+      nationalNumber = formatter.nationalNumber.toString();
+      possibleFormats =
+          formatter.possibleFormats.toArray(new NumberFormat[formatter.possibleFormats.size()]);
+    }
+
+    void restore(AsYouTypeFormatter formatter) {
+      formatter.currentOutput = currentOutput;
+      formatter.formattingTemplate.setLength(0);
+      formatter.formattingTemplate.append(formattingTemplate);
+      formatter.currentFormattingPattern = currentFormattingPattern;
+      formatter.accruedInput.setLength(accruedInputLength);
+      formatter.accruedInputWithoutFormatting.setLength(accruedInputWithoutFormattingLength);
+      formatter.ableToFormat = ableToFormat;
+      formatter.inputHasFormatting = inputHasFormatting;
+      formatter.isCompleteNumber = isCompleteNumber;
+      formatter.isExpectingCountryCallingCode = isExpectingCountryCallingCode;
+      formatter.currentMetadata = currentMetadata;
+      formatter.lastMatchPosition = lastMatchPosition;
+      formatter.originalPosition = originalPosition;
+      formatter.positionToRemember = positionToRemember;
+      formatter.prefixBeforeNationalNumber.setLength(0);
+      formatter.prefixBeforeNationalNumber.append(prefixBeforeNationalNumber);
+      formatter.shouldAddSpaceAfterNationalPrefix = shouldAddSpaceAfterNationalPrefix;
+      formatter.extractedNationalPrefix = extractedNationalPrefix;
+      formatter.nationalNumber.setLength(0);
+      formatter.nationalNumber.append(nationalNumber);
+      formatter.possibleFormats.clear();
+      Collections.addAll(formatter.possibleFormats, possibleFormats);
+    }
+  }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+/**
+ * Single-pass scanners doing the work of the regular expressions used before parsing a number, for
+ * numbers consisting of ASCII characters only. Every method gives the same result as the patterns
+ * of {@link PhoneNumberUtil} would, and reports the cases it can't decide on, such as non-ASCII
+ * input, so the caller can fall back to the patterns.
+ *
+ * <p>This class is thread-safe.
+ */
+final class AsciiNumberScanner {
+  /** The number matches {@code VALID_PHONE_NUMBER_PATTERN}. */
+  static final int VIABLE = 0;
+  /** The number doesn't match {@code VALID_PHONE_NUMBER_PATTERN}. */
+  static final int NOT_VIABLE = 1;
+  /** The scanner can't tell whether the number matches, and the pattern has to be used instead. */
+  static final int UNDECIDED = 2;
+
+  private static final int ASCII_LIMIT = 0x80;
+
+  // Classes of the ASCII characters with respect to VALID_PHONE_NUMBER_PATTERN. Characters of no
+  // class can't appear anywhere in a viable number except for the leading plus signs.
+  private static final byte DIGIT = 1;
+  // Letters which end the leading run of digits and punctuation, i.e. all of them but x.
+  private static final byte LETTER = 2;
+  // Valid punctuation, the star sign and x, which is treated as punctuation.
+  private static final byte PUNCTUATION = 3;
+  // Characters which are only allowed in an extension.
+  private static final byte EXTENSION = 4;
+
+  private static final byte[] CHAR_CLASSES = createCharClasses();
+
+  private AsciiNumberScanner() {
+  }
+
+  /**
+   * Does the same as {@link PhoneNumberUtil#extractPossibleNumber}, or returns {@code null} if the
+   * number contains non-ASCII characters.
+   */
+  static CharSequence extractPossibleNumber(CharSequence number) {
+    int length = number.length();
+    int start = -1;
+    // End of the number without the trailing characters which are neither letters, digits nor #.
+    int end = -1;
+    // Start of the second number, which is a slash followed by spaces and x.
+    int secondNumberStart = -1;
+    int slashIndex = -1;
+    for (int i = 0; i < length; i++) {
+      char c = number.charAt(i);
+      if (c >= ASCII_LIMIT) {
+        return null;
+      }
+      if (start < 0) {
+        if (c != PhoneNumberUtil.PLUS_SIGN && CHAR_CLASSES[c] != DIGIT) {
+          continue;
+        }
+        start = i;
+      }
+      if (CHAR_CLASSES[c] == DIGIT || isLetter(c) || c == '#') {
+        end = i + 1;
+      }
+      if (secondNumberStart < 0) {
+        if (c == '/' || c == '\\') {
+          slashIndex = i;
+        } else if (c == 'x' && slashIndex >= 0) {
+          secondNumberStart = slashIndex;
+        } else if (c != ' ') {
+          slashIndex = -1;
+        }
+      }
+    }
+    if (start < 0) {
+      return "";
+    }
+    // The x after the slash isn't a trailing character, so the second number always starts before
+    // the end.
+    if (secondNumberStart >= 0) {
+      end = secondNumberStart;
+    }
+    return number.subSequence(start, Math.max(start, end));
+  }
+
+  /**
+   * Checks whether the number matches {@code VALID_PHONE_NUMBER_PATTERN} and returns one of
+   * {@link #VIABLE}, {@link #NOT_VIABLE} or {@link #UNDECIDED}. The latter is returned for numbers
+   * with non-ASCII characters and for the ones which can only match with an extension.
+   */
+  static int checkViability(CharSequence number) {
+    int length = number.length();
+    int index = 0;
+    while (index < length && number.charAt(index) == PhoneNumberUtil.PLUS_SIGN) {
+      index++;
+    }
+    int digitCount = 0;
+    int leadingDigitCount = 0;
+    boolean seenLetter = false;
+    boolean seenExtensionChar = false;
+    for (; index < length; index++) {
+      char c = number.charAt(index);
+      if (c >= ASCII_LIMIT) {
+        return UNDECIDED;
+      }
+      switch (CHAR_CLASSES[c]) {
+        case DIGIT:
+          digitCount++;
+          if (!seenLetter) {
+            leadingDigitCount++;
+          }
+          break;
+        case LETTER:
+          seenLetter = true;
+          break;
+        case PUNCTUATION:
+          break;
+        case EXTENSION:
+          seenExtensionChar = true;
+          break;
+        default:
+          return NOT_VIABLE;
+      }
+    }
+    // A viable number has either exactly two digits, or at least three before any letter followed
+    // by digits, letters and punctuation only. An extension adds at least one more digit.
+    if (digitCount < 2) {
+      return NOT_VIABLE;
+    }
+    if (digitCount == 2) {
+      return length == 2 ? VIABLE : NOT_VIABLE;
+    }
+    if (leadingDigitCount >= 3 && !seenExtensionChar) {
+      return VIABLE;
+    }
+    return UNDECIDED;
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static byte[] createCharClasses() {
+    byte[] charClasses = new byte[ASCII_LIMIT];
+    for (char c = 0; c < ASCII_LIMIT; c++) {
+      if (c >= '0' && c <= '9') {
+        charClasses[c] = DIGIT;
+      } else if (isLetter(c)) {
+        charClasses[c] = LETTER;
+      }
+    }
+    // ASCII characters of VALID_PUNCTUATION, which is matched case-insensitively.
+    for (char c : "-xX ().[]/~*".toCharArray()) {
+      charClasses[c] = PUNCTUATION;
+    }
+    // ASCII characters of EXTN_PATTERNS_FOR_PARSING which aren't letters, digits or punctuation.
+    for (char c : "\t,:#;=".toCharArray()) {
+      charClasses[c] = EXTENSION;
+    }
+    return charClasses;
+  }
+}
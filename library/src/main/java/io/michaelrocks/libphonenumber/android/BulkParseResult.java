@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.ParseStatus;
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.PhoneNumberType;
+import io.michaelrocks.libphonenumber.android.internal.NationalNumberDigits;
+
+/**
+ * The results of {@link PhoneNumberUtil#parseAndValidateAll} for a list of inputs, stored in
+ * columns of primitive arrays rather than as a {@link Phonenumber.PhoneNumber} per input. For
+ * every input, it holds the {@link ParseStatus}, the digits of the E.164 form of the number packed
+ * into a {@code long} and, for parsed numbers, the {@link PhoneNumberType} and whether the number
+ * is valid.
+ *
+ * <p>Results are written by {@link PhoneNumberUtil} only; once returned, this class is immutable.
+ */
+public final class BulkParseResult {
+
+  /**
+   * Returned by {@link #getE164} for inputs which couldn't be parsed, or whose E.164 form has more
+   * digits than fit into a {@code long}.
+   */
+  public static final long NO_E164 = -1;
+
+  // The numbers of digits which always fit into a long.
+  private static final int MAX_PACKED_DIGITS = 18;
+
+  private static final ParseStatus[] PARSE_STATUSES = ParseStatus.values();
+  private static final PhoneNumberType[] NUMBER_TYPES = PhoneNumberType.values();
+
+  private final int size;
+  private final long[] e164Numbers;
+  private final byte[] parseStatuses;
+  private final byte[] numberTypes;
+  // One bit per input. Inputs are processed in chunks which are multiples of 64, so that a word is
+  // only ever written by a single thread.
+  private final long[] validBits;
+
+  BulkParseResult(int size) {
+    this.size = size;
+    e164Numbers = new long[size];
+    parseStatuses = new byte[size];
+    numberTypes = new byte[size];
+    validBits = new long[(size + Long.SIZE - 1) / Long.SIZE];
+  }
+
+  /** Returns the number of inputs. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns whether the input at the given index was parsed. */
+  public boolean isParsed(int index) {
+    return getParseStatus(index) == ParseStatus.SUCCESS;
+  }
+
+  /** Returns the outcome of parsing the input at the given index. */
+  public ParseStatus getParseStatus(int index) {
+    return PARSE_STATUSES[parseStatuses[checkIndex(index)]];
+  }
+
+  /**
+   * Returns the digits of the E.164 form of the number at the given index, i.e. its country calling
+   * code followed by its national significant number, as a {@code long}, or {@link #NO_E164}. As a
+   * country calling code never starts with a zero, {@code "+" + getE164(index)} is the E.164 form
+   * of the number. Extensions are not a part of it.
+   */
+  public long getE164(int index) {
+    return e164Numbers[checkIndex(index)];
+  }
+
+  /**
+   * Returns the type of the number at the given index, or {@link PhoneNumberType#UNKNOWN} if it is
+   * invalid or the input couldn't be parsed.
+   */
+  public PhoneNumberType getNumberType(int index) {
+    return NUMBER_TYPES[numberTypes[checkIndex(index)]];
+  }
+
+  /**
+   * Returns whether the number at the given index is valid, as by {@link
+   * PhoneNumberUtil#isValidNumber}. Inputs which couldn't be parsed are never valid.
+   */
+  public boolean isValid(int index) {
+    checkIndex(index);
+    return (validBits[index / Long.SIZE] & (1L << index)) != 0;
+  }
+
+  void setFailed(int index, ParseStatus parseStatus) {
+    parseStatuses[index] = (byte) parseStatus.ordinal();
+    e164Numbers[index] = NO_E164;
+    numberTypes[index] = (byte) PhoneNumberType.UNKNOWN.ordinal();
+  }
+
+  void setParsed(int index, int countryCode, long nationalNumber, int leadingZeros,
+      PhoneNumberType numberType) {
+    parseStatuses[index] = (byte) ParseStatus.SUCCESS.ordinal();
+    e164Numbers[index] = packE164(countryCode, nationalNumber, leadingZeros);
+    numberTypes[index] = (byte) numberType.ordinal();
+    if (numberType != PhoneNumberType.UNKNOWN) {
+      validBits[index / Long.SIZE] |= 1L << index;
+    }
+  }
+
+  static long packE164(int countryCode, long nationalNumber, int leadingZeros) {
+    int countryCodeDigits = countryCode < 10 ? 1 : countryCode < 100 ? 2 : 3;
+    int nationalDigits = NationalNumberDigits.getLength(nationalNumber, leadingZeros);
+    if (countryCode <= 0 || countryCodeDigits + nationalDigits > MAX_PACKED_DIGITS) {
+      return NO_E164;
+    }
+    long packed = countryCode;
+    for (int i = 0; i < nationalDigits; i++) {
+      packed *= 10;
+    }
+    return packed + nationalNumber;
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import io.michaelrocks.libphonenumber.android.internal.ClockCache;
+
+/**
+ * A snapshot of the statistics of one of the optional caches of {@link PhoneNumberUtil}, such as
+ * the one enabled by {@link PhoneNumberUtil#setFormattingCacheCapacity}. A disabled cache has a
+ * capacity of 0 and no lookups.
+ *
+ * <p>This class is immutable.
+ */
+public final class CacheStats {
+  static final CacheStats DISABLED = new CacheStats(0, 0, 0, 0, 0);
+
+  private final int capacity;
+  private final int size;
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+
+  private CacheStats(int capacity, int size, long hitCount, long missCount, long evictionCount) {
+    this.capacity = capacity;
+    this.size = size;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+  }
+
+  static CacheStats of(ClockCache<?, ?> cache) {
+    return cache == null ? DISABLED : new CacheStats(cache.getCapacity(), cache.size(),
+        cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount());
+  }
+
+  /** Returns the maximum number of entries the cache holds, or 0 if the cache is disabled. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Returns the number of entries held by the cache. */
+  public int getSize() {
+    return size;
+  }
+
+  /** Returns the number of lookups that found an entry in the cache. */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /** Returns the number of lookups that didn't find an entry in the cache. */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /** Returns the number of entries evicted from the cache to make room for other ones. */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** Returns the ratio of the lookups that found an entry in the cache, or 0 if there were none. */
+  public double getHitRate() {
+    long lookupCount = hitCount + missCount;
+    return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStats{capacity=" + capacity + ", size=" + size + ", hitCount=" + hitCount
+        + ", missCount=" + missCount + ", evictionCount=" + evictionCount + "}";
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.NumberFormat;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+
+/**
+ * The structures {@link PhoneNumberUtil} derives from the metadata of a single region or
+ * non-geographical entity to speed up parsing, validation and formatting. They are all built at
+ * once, when the metadata is first used or preloaded, and never change afterwards.
+ *
+ * <p>This class is thread-safe.
+ */
+final class DerivedMetadata {
+  private final List<NumberFormat> numberFormats;
+  private final List<NumberFormat> intlNumberFormats;
+
+  private final NumberTypeClassifier numberTypeClassifier;
+  private final PrefixStripper prefixStripper;
+  private final PossibleLengths possibleLengths;
+  private final FormatIndex numberFormatIndex;
+  private final FormatIndex intlNumberFormatIndex;
+  // Number formats are keyed by identity like the metadata they belong to. The map isn't changed
+  // after it has been filled in by the constructor.
+  private final Map<NumberFormat, FormattingTemplate> formattingTemplates =
+      new IdentityHashMap<>();
+
+  private DerivedMetadata(PhoneMetadata metadata) {
+    numberFormats = metadata.getNumberFormatList();
+    intlNumberFormats = metadata.getIntlNumberFormatList();
+
+    numberTypeClassifier = NumberTypeClassifier.create(metadata);
+    prefixStripper = PrefixStripper.create(metadata);
+    possibleLengths = PossibleLengths.create(metadata);
+    numberFormatIndex = FormatIndex.create(numberFormats);
+    intlNumberFormatIndex = FormatIndex.create(intlNumberFormats);
+    addFormattingTemplates(numberFormats);
+    addFormattingTemplates(intlNumberFormats);
+  }
+
+  static DerivedMetadata create(PhoneMetadata metadata) {
+    return new DerivedMetadata(metadata);
+  }
+
+  private void addFormattingTemplates(List<NumberFormat> formats) {
+    for (NumberFormat format : formats) {
+      formattingTemplates.put(format, FormattingTemplate.create(format));
+    }
+  }
+
+  NumberTypeClassifier getNumberTypeClassifier() {
+    return numberTypeClassifier;
+  }
+
+  PrefixStripper getPrefixStripper() {
+    return prefixStripper;
+  }
+
+  PossibleLengths getPossibleLengths() {
+    return possibleLengths;
+  }
+
+  /**
+   * Returns the index of the national or international number formats of the metadata, or null if
+   * the given list is neither of them.
+   */
+  FormatIndex getFormatIndex(List<NumberFormat> formats) {
+    if (formats == numberFormats) {
+      return numberFormatIndex;
+    } else if (formats == intlNumberFormats) {
+      return intlNumberFormatIndex;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the formatting template of one of the number formats of the metadata, or null if the
+   * format doesn't belong to the metadata.
+   */
+  FormattingTemplate getFormattingTemplate(NumberFormat format) {
+    return formattingTemplates.get(format);
+  }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+/**
+ * Finds extensions the way the patterns built by {@code PhoneNumberUtil.createExtnPattern()} do,
+ * without running the long regular expression. Every alternative of the pattern is a run of
+ * separators, an extension label, some punctuation and the digits of the extension, optionally
+ * followed by a hash sign. As neither the labels nor the punctuation contain digits, the digits of
+ * an extension are always the last run of digits, so the scanner only has to check the characters
+ * preceding them against a trie of the labels. Numbers without an extension are usually rejected
+ * after looking at a couple of characters.
+ *
+ * <p>Letters are compared the way the case-insensitive patterns compare them.
+ *
+ * <p>This class is thread-safe.
+ */
+final class ExtensionScanner {
+  /** Does the work of {@code EXTN_PATTERNS_FOR_PARSING}. */
+  static final ExtensionScanner FOR_PARSING = new ExtensionScanner(true);
+  /** Does the work of {@code EXTN_PATTERNS_FOR_MATCHING}. */
+  static final ExtensionScanner FOR_MATCHING = new ExtensionScanner(false);
+
+  private static final char HASH_SIGN = '#';
+
+  // Separators allowed before a label, the second ones are used when a comma is a label itself.
+  private static final String SEPARATORS = " \u00A0\t,";
+  private static final String SEPARATORS_WITHOUT_COMMA = " \u00A0\t";
+  // Characters allowed between a label and the digits, one of the first ones followed by any of
+  // the second ones.
+  private static final String CHARS_AFTER_LABEL = ":.\uFF0E";
+  private static final String PUNCTUATION_AFTER_LABEL = " \u00A0\t,-";
+  // Characters separating the number from an American-style extension followed by a hash sign.
+  private static final String AMBIGUOUS_SEPARATORS = "- ";
+
+  private static final LabelTrie RFC_LABELS = new LabelTrie(";ext=");
+  private static final LabelTrie EXPLICIT_LABELS = new LabelTrie(createExplicitLabels());
+  private static final LabelTrie AMBIGUOUS_LABELS = new LabelTrie(
+      "x", "\uFF58", "#", "\uFF03", "~", "\uFF5E", "int", "\uFF49\uFF4E\uFF54");
+  private static final LabelTrie AUTO_DIALLING_LABELS = new LabelTrie(",,", ";");
+
+  // All characters which may precede the digits of an extension, folded.
+  private static final String PREFIX_CHARS = createPrefixChars();
+
+  private final Alternative[] alternatives;
+
+  private ExtensionScanner(boolean forParsing) {
+    if (forParsing) {
+      alternatives = Alternative.values();
+    } else {
+      alternatives = new Alternative[] {
+          Alternative.RFC, Alternative.EXPLICIT, Alternative.AMBIGUOUS, Alternative.AMERICAN
+      };
+    }
+  }
+
+  /**
+   * Returns the index the number's extension starts at, which is where the pattern anchored at the
+   * end of the number would be found, or -1 if the number doesn't end with an extension.
+   */
+  int findAtEnd(CharSequence number) {
+    int end = number.length() - getFinalLineTerminatorLength(number);
+    boolean hasHashSign = end > 0 && number.charAt(end - 1) == HASH_SIGN;
+    int digitsStart = hasHashSign ? end - 1 : end;
+    int digitCount = 0;
+    while (digitsStart > 0) {
+      int codePoint = Character.codePointBefore(number, digitsStart);
+      if (!Character.isDigit(codePoint)) {
+        break;
+      }
+      digitsStart -= Character.charCount(codePoint);
+      digitCount++;
+    }
+    if (digitCount == 0) {
+      return -1;
+    }
+    int start = digitsStart;
+    while (start > 0 && isPrefixChar(number.charAt(start - 1))) {
+      start--;
+    }
+    // The leftmost match is the one the pattern finds.
+    for (; start < digitsStart; start++) {
+      for (Alternative alternative : alternatives) {
+        if (digitCount <= alternative.digitLimit
+            && alternative.acceptsHashSign(hasHashSign)
+            && matchesPrefix(alternative, number, start, digitsStart)) {
+          return start;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the end of the extension which starts at the given index of the text, as the optional
+   * pattern would match it, or the index itself if there's no extension.
+   */
+  int skipExtension(CharSequence text, int index) {
+    int length = text.length();
+    int digitsStart = index;
+    while (digitsStart < length && isPrefixChar(text.charAt(digitsStart))) {
+      digitsStart++;
+    }
+    if (digitsStart == index || digitsStart == length
+        || !Character.isDigit(Character.codePointAt(text, digitsStart))) {
+      return index;
+    }
+    for (Alternative alternative : alternatives) {
+      if (!matchesPrefix(alternative, text, index, digitsStart)) {
+        continue;
+      }
+      int digitsEnd = skipDigits(text, digitsStart, alternative.digitLimit);
+      boolean hasHashSign = digitsEnd < length && text.charAt(digitsEnd) == HASH_SIGN;
+      if (alternative.acceptsHashSign(hasHashSign)) {
+        return hasHashSign ? digitsEnd + 1 : digitsEnd;
+      }
+      if (alternative.acceptsHashSign(false)) {
+        return digitsEnd;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Returns the digits of the extension which starts at the given index, as returned by {@link
+   * #findAtEnd}.
+   */
+  static String getExtensionDigits(CharSequence number, int extensionStart) {
+    int digitsStart = extensionStart;
+    while (!Character.isDigit(Character.codePointAt(number, digitsStart))) {
+      digitsStart++;
+    }
+    int digitsEnd = skipDigits(number, digitsStart, Integer.MAX_VALUE);
+    return number.subSequence(digitsStart, digitsEnd).toString();
+  }
+
+  // Checks whether the characters between from and to are what the alternative expects before the
+  // digits of an extension. Labels never start with a separator, so skipping all the separators
+  // never misses a match.
+  private static boolean matchesPrefix(Alternative alternative, CharSequence text, int from,
+      int to) {
+    switch (alternative) {
+      case RFC:
+        return matchesLabel(RFC_LABELS, text, from, to, false);
+      case EXPLICIT:
+        return matchesLabel(EXPLICIT_LABELS, text, skip(text, from, to, SEPARATORS), to, true);
+      case AMBIGUOUS:
+        return matchesLabel(AMBIGUOUS_LABELS, text, skip(text, from, to, SEPARATORS), to, true);
+      case AMERICAN:
+        return from < to && skip(text, from, to, AMBIGUOUS_SEPARATORS) == to;
+      case AUTO_DIALLING:
+        return matchesLabel(AUTO_DIALLING_LABELS, text,
+            skip(text, from, to, SEPARATORS_WITHOUT_COMMA), to, true);
+      case ONLY_COMMAS:
+        // Any number of commas is a label.
+        for (int i = skip(text, from, to, SEPARATORS_WITHOUT_COMMA);
+            i < to && text.charAt(i) == ','; i++) {
+          if (matchesCharsAfterLabel(text, i + 1, to)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        throw new AssertionError(alternative);
+    }
+  }
+
+  private static boolean matchesLabel(LabelTrie labels, CharSequence text, int from, int to,
+      boolean allowCharsAfterLabel) {
+    LabelTrie node = labels;
+    for (int i = from; i < to; i++) {
+      node = node.getChild(fold(text.charAt(i)));
+      if (node == null) {
+        return false;
+      }
+      if (node.isLabelEnd()) {
+        boolean matches =
+            allowCharsAfterLabel ? matchesCharsAfterLabel(text, i + 1, to) : i + 1 == to;
+        if (matches) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean matchesCharsAfterLabel(CharSequence text, int from, int to) {
+    if (from < to && CHARS_AFTER_LABEL.indexOf(text.charAt(from)) >= 0) {
+      from++;
+    }
+    return skip(text, from, to, PUNCTUATION_AFTER_LABEL) == to;
+  }
+
+  private static int skip(CharSequence text, int from, int to, String chars) {
+    while (from < to && chars.indexOf(text.charAt(from)) >= 0) {
+      from++;
+    }
+    return from;
+  }
+
+  private static int skipDigits(CharSequence text, int from, int limit) {
+    int length = text.length();
+    for (int count = 0; count < limit && from < length; count++) {
+      int codePoint = Character.codePointAt(text, from);
+      if (!Character.isDigit(codePoint)) {
+        break;
+      }
+      from += Character.charCount(codePoint);
+    }
+    return from;
+  }
+
+  private static boolean isPrefixChar(char c) {
+    return PREFIX_CHARS.indexOf(fold(c)) >= 0;
+  }
+
+  // Returns the length of the line terminator the end of the input can be matched before by $.
+  private static int getFinalLineTerminatorLength(CharSequence number) {
+    int length = number.length();
+    if (length == 0) {
+      return 0;
+    }
+    char last = number.charAt(length - 1);
+    if (last == '\n') {
+      return length > 1 && number.charAt(length - 2) == '\r' ? 2 : 1;
+    }
+    return last == '\r' || last == '\u0085' || last == '\u2028' || last == '\u2029' ? 1 : 0;
+  }
+
+  // Folds the case of a character the same way case-insensitive Unicode patterns do.
+  private static char fold(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  private static String[] createExplicitLabels() {
+    // The expansion of "e?xt(?:ensi(?:o\u0301?|\u00F3))?n?".
+    String[] endings = { "", "ensio", "ensio\u0301", "ensi\u00F3" };
+    String[] labels = new String[2 * endings.length * 2 + 6];
+    int count = 0;
+    for (String prefix : new String[] { "", "e" }) {
+      for (String ending : endings) {
+        labels[count++] = prefix + "xt" + ending;
+        labels[count++] = prefix + "xt" + ending + "n";
+      }
+    }
+    // The expansion of "\uFF45?\uFF58\uFF54\uFF4E?".
+    labels[count++] = "\uFF58\uFF54";
+    labels[count++] = "\uFF58\uFF54\uFF4E";
+    labels[count++] = "\uFF45\uFF58\uFF54";
+    labels[count++] = "\uFF45\uFF58\uFF54\uFF4E";
+    labels[count++] = "\u0434\u043E\u0431";
+    labels[count] = "anexo";
+    return labels;
+  }
+
+  private static String createPrefixChars() {
+    StringBuilder prefixChars = new StringBuilder(SEPARATORS)
+        .append(CHARS_AFTER_LABEL)
+        .append(PUNCTUATION_AFTER_LABEL)
+        .append(AMBIGUOUS_SEPARATORS);
+    RFC_LABELS.appendChars(prefixChars);
+    EXPLICIT_LABELS.appendChars(prefixChars);
+    AMBIGUOUS_LABELS.appendChars(prefixChars);
+    AUTO_DIALLING_LABELS.appendChars(prefixChars);
+    return prefixChars.toString();
+  }
+
+  /** An alternative of the extension pattern, in the order they are tried by the pattern. */
+  private enum Alternative {
+    // ";ext=" as in RFC 3966.
+    RFC(20, false, false),
+    // Explicit labels like "ext.".
+    EXPLICIT(20, true, false),
+    // Single-character or ambiguous labels.
+    AMBIGUOUS(9, true, false),
+    // American-style extensions like "- 503#".
+    AMERICAN(6, true, true),
+    // The labels used for auto dialling, only when parsing.
+    AUTO_DIALLING(15, true, false),
+    // Any number of commas, only when parsing.
+    ONLY_COMMAS(9, true, false);
+
+    final int digitLimit;
+    private final boolean allowsHashSign;
+    private final boolean requiresHashSign;
+
+    Alternative(int digitLimit, boolean allowsHashSign, boolean requiresHashSign) {
+      this.digitLimit = digitLimit;
+      this.allowsHashSign = allowsHashSign;
+      this.requiresHashSign = requiresHashSign;
+    }
+
+    boolean acceptsHashSign(boolean hasHashSign) {
+      return hasHashSign ? allowsHashSign : !requiresHashSign;
+    }
+  }
+
+  /** A trie of extension labels, with the characters folded. */
+  private static final class LabelTrie {
+    private char[] chars = new char[0];
+    private LabelTrie[] children = new LabelTrie[0];
+    private boolean labelEnd;
+
+    LabelTrie(String... labels) {
+      for (String label : labels) {
+        LabelTrie node = this;
+        for (int i = 0; i < label.length(); i++) {
+          char c = fold(label.charAt(i));
+          LabelTrie child = node.getChild(c);
+          if (child == null) {
+            child = new LabelTrie();
+            node.chars = append(node.chars, c);
+            LabelTrie[] children = new LabelTrie[node.children.length + 1];
+            System.arraycopy(node.children, 0, children, 0, node.children.length);
+            children[node.children.length] = child;
+            node.children = children;
+          }
+          node = child;
+        }
+        node.labelEnd = true;
+      }
+    }
+
+    LabelTrie getChild(char c) {
+      for (int i = 0; i < chars.length; i++) {
+        if (chars[i] == c) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    boolean isLabelEnd() {
+      return labelEnd;
+    }
+
+    void appendChars(StringBuilder builder) {
+      builder.append(chars);
+      for (LabelTrie child : children) {
+        child.appendChars(builder);
+      }
+    }
+
+    private static char[] append(char[] chars, char c) {
+      char[] result = new char[chars.length + 1];
+      System.arraycopy(chars, 0, result, 0, chars.length);
+      result[chars.length] = c;
+      return result;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import java.util.List;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.NumberFormat;
+import io.michaelrocks.libphonenumber.android.internal.DigitAutomaton;
+import io.michaelrocks.libphonenumber.android.internal.RegexCache;
+
+/**
+ * Chooses the number format for a national significant number from a list of formats of a single
+ * region. The last leading digits pattern and the pattern of every format are compiled into
+ * {@link DigitAutomaton}s, up to {@link DigitAutomaton#MAX_PATTERNS} formats per automaton, so one
+ * scan over the number finds all the formats matching it instead of two regular expression
+ * matches per format. Patterns which can't be compiled are still matched as regular expressions,
+ * but only for the numbers the rest of the format matches.
+ *
+ * <p>This class is thread-safe.
+ */
+final class FormatIndex {
+  /** Returned by {@link #chooseFormat} for numbers which can't be scanned by the automata. */
+  static final int UNDECIDED = -2;
+
+  private static final int CHUNK_SIZE = DigitAutomaton.MAX_PATTERNS;
+
+  private final List<NumberFormat> formats;
+  private final int formatCount;
+  // For every chunk of formats, the automata of their leading digits and patterns. Both are null
+  // if the patterns of the chunk are too large to be compiled together.
+  private final DigitAutomaton[] leadingDigitsAutomata;
+  private final DigitAutomaton[] patternAutomata;
+  // For every chunk of formats, the bits of the formats whose leading digits or patterns haven't
+  // been compiled, and are matched as regular expressions.
+  private final int[] uncompiledLeadingDigitsMasks;
+  private final int[] uncompiledPatternMasks;
+
+  private FormatIndex(List<NumberFormat> formats) {
+    this.formats = formats;
+    formatCount = formats.size();
+    int chunkCount = (formatCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    leadingDigitsAutomata = new DigitAutomaton[chunkCount];
+    patternAutomata = new DigitAutomaton[chunkCount];
+    uncompiledLeadingDigitsMasks = new int[chunkCount];
+    uncompiledPatternMasks = new int[chunkCount];
+    for (int chunk = 0; chunk < chunkCount; chunk++) {
+      int start = chunk * CHUNK_SIZE;
+      int size = Math.min(CHUNK_SIZE, formatCount - start);
+      String[] leadingDigitsPatterns = new String[size];
+      String[] patterns = new String[size];
+      for (int i = 0; i < size; i++) {
+        NumberFormat format = formats.get(start + i);
+        // A pattern which can't be compiled matches any number, leaving it to the regex.
+        leadingDigitsPatterns[i] = "\\d*";
+        int leadingDigitsPatternCount = format.getLeadingDigitsPatternCount();
+        if (leadingDigitsPatternCount > 0) {
+          // We always use the last leading_digits_pattern, as it is the most detailed. Matching it
+          // at the start of a number is matching the whole number with any digits following it.
+          String pattern =
+              "(?:" + format.getLeadingDigitsPattern(leadingDigitsPatternCount - 1) + ")\\d*";
+          if (DigitAutomaton.compile(pattern) != null) {
+            leadingDigitsPatterns[i] = pattern;
+          } else {
+            uncompiledLeadingDigitsMasks[chunk] |= 1 << i;
+          }
+        }
+        patterns[i] = format.getPattern();
+        if (DigitAutomaton.compile(patterns[i]) == null) {
+          patterns[i] = "\\d*";
+          uncompiledPatternMasks[chunk] |= 1 << i;
+        }
+      }
+      leadingDigitsAutomata[chunk] = DigitAutomaton.compile(leadingDigitsPatterns);
+      patternAutomata[chunk] = DigitAutomaton.compile(patterns);
+      if (leadingDigitsAutomata[chunk] == null || patternAutomata[chunk] == null) {
+        leadingDigitsAutomata[chunk] = null;
+        patternAutomata[chunk] = null;
+        int allFormatsMask = size == CHUNK_SIZE ? ~0 : (1 << size) - 1;
+        uncompiledLeadingDigitsMasks[chunk] = allFormatsMask;
+        uncompiledPatternMasks[chunk] = allFormatsMask;
+      }
+    }
+  }
+
+  /** Creates an index of the given formats. */
+  static FormatIndex create(List<NumberFormat> formats) {
+    return new FormatIndex(formats);
+  }
+
+  /**
+   * Returns the index of the first format whose last leading digits pattern matches the start of
+   * the national significant number and whose pattern matches the whole number, the same as
+   * {@code PhoneNumberUtil.chooseFormattingPatternForNumber} does, or -1 if there is no such
+   * format. Returns {@link #UNDECIDED} if the number has characters other than ASCII digits.
+   */
+  int chooseFormat(CharSequence nationalNumber, RegexCache regexCache) {
+    int length = nationalNumber.length();
+    for (int i = 0; i < length; i++) {
+      char c = nationalNumber.charAt(i);
+      if (c < '0' || c > '9') {
+        return UNDECIDED;
+      }
+    }
+    for (int chunk = 0; chunk < leadingDigitsAutomata.length; chunk++) {
+      int candidates = getCandidates(chunk, nationalNumber);
+      for (int i = 0; candidates != 0; i++, candidates >>>= 1) {
+        if ((candidates & 1) != 0
+            && matchesUncompiledPatterns(chunk, i, nationalNumber, regexCache)) {
+          return chunk * CHUNK_SIZE + i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private int getCandidates(int chunk, CharSequence nationalNumber) {
+    DigitAutomaton leadingDigitsAutomaton = leadingDigitsAutomata[chunk];
+    DigitAutomaton patternAutomaton = patternAutomata[chunk];
+    if (leadingDigitsAutomaton == null) {
+      return uncompiledPatternMasks[chunk];
+    }
+    int leadingDigitsState = leadingDigitsAutomaton.getStartState();
+    int patternState = patternAutomaton.getStartState();
+    int length = nationalNumber.length();
+    for (int i = 0; i < length; i++) {
+      int digit = nationalNumber.charAt(i) - '0';
+      leadingDigitsState = leadingDigitsAutomaton.nextState(leadingDigitsState, digit);
+      patternState = patternAutomaton.nextState(patternState, digit);
+      if (leadingDigitsState == DigitAutomaton.DEAD_STATE
+          || patternState == DigitAutomaton.DEAD_STATE) {
+        return 0;
+      }
+    }
+    return leadingDigitsAutomaton.getAcceptMask(leadingDigitsState)
+        & patternAutomaton.getAcceptMask(patternState);
+  }
+
+  private boolean matchesUncompiledPatterns(int chunk, int index, CharSequence nationalNumber,
+      RegexCache regexCache) {
+    NumberFormat format = formats.get(chunk * CHUNK_SIZE + index);
+    int bit = 1 << index;
+    if ((uncompiledLeadingDigitsMasks[chunk] & bit) != 0) {
+      int size = format.getLeadingDigitsPatternCount();
+      if (size > 0 && !regexCache.getPatternForRegex(format.getLeadingDigitsPattern(size - 1))
+          .matcher(nationalNumber).lookingAt()) {
+        return false;
+      }
+    }
+    return (uncompiledPatternMasks[chunk] & bit) == 0
+        || regexCache.getPatternForRegex(format.getPattern()).matcher(nationalNumber).matches();
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.NumberFormat;
+import io.michaelrocks.libphonenumber.android.internal.RegexCache;
+
+/**
+ * What {@link AsYouTypeFormatter} needs to know about a number format, computed once per format
+ * and shared by all the formatters of a {@link PhoneNumberUtil}: whether the format can be used as
+ * you type, whether a space follows the national prefix, and the template the digits are put in.
+ *
+ * <p>This class is thread-safe.
+ */
+final class FormattingTemplate {
+  /** The character standing for a digit which has not been entered yet, the punctuation space. */
+  static final char DIGIT_PLACEHOLDER = '\u2008';
+
+  // A pattern that is used to determine if a numberFormat under availableFormats is eligible to be
+  // used by the AYTF. It is eligible when the format element under numberFormat contains groups of
+  // the dollar sign followed by a single digit, separated by valid phone number punctuation. This
+  // prevents invalid punctuation (such as the star sign in Israeli star numbers) getting into the
+  // output of the AYTF. We require that the first group is present in the output pattern to ensure
+  // no data is lost while formatting; when we format as you type, this should always be the case.
+  private static final Pattern ELIGIBLE_FORMAT_PATTERN =
+      Pattern.compile("[" + PhoneNumberUtil.VALID_PUNCTUATION + "]*"
+          + "\\$1" + "[" + PhoneNumberUtil.VALID_PUNCTUATION + "]*(\\$\\d"
+          + "[" + PhoneNumberUtil.VALID_PUNCTUATION + "]*)*");
+  // A set of characters that, if found in a national prefix formatting rules, are an indicator to
+  // us that we should separate the national prefix from the number when formatting.
+  private static final Pattern NATIONAL_PREFIX_SEPARATORS_PATTERN = Pattern.compile("[- ]");
+
+  // The longest number the patterns are matched against to create a template.
+  private static final String LONGEST_PHONE_NUMBER = "999999999999999";
+
+  private final String pattern;
+  private final String format;
+  private final boolean eligible;
+  private final boolean spaceAfterNationalPrefix;
+  // The template, or an empty string if none can be created. Created on first use, since it is
+  // only needed for the formats a number is actually typed with.
+  private volatile String template;
+  private volatile int maxDigitCount;
+
+  private FormattingTemplate(NumberFormat numberFormat) {
+    pattern = numberFormat.getPattern();
+    format = numberFormat.getFormat();
+    eligible = ELIGIBLE_FORMAT_PATTERN.matcher(format).matches();
+    spaceAfterNationalPrefix =
+        NATIONAL_PREFIX_SEPARATORS_PATTERN.matcher(numberFormat.getNationalPrefixFormattingRule())
+            .find();
+  }
+
+  static FormattingTemplate create(NumberFormat numberFormat) {
+    return new FormattingTemplate(numberFormat);
+  }
+
+  /** Returns whether the format contains only groups separated by valid punctuation. */
+  boolean isEligible() {
+    return eligible;
+  }
+
+  /** Returns whether the national prefix formatting rule separates the national prefix. */
+  boolean shouldAddSpaceAfterNationalPrefix() {
+    return spaceAfterNationalPrefix;
+  }
+
+  /**
+   * Returns a formatting template which can be used to efficiently format a partial number where
+   * digits are added one by one, with a {@link #DIGIT_PLACEHOLDER} for every digit, or an empty
+   * string if no template can be created for a number of the given length.
+   */
+  String getTemplate(int nationalNumberLength, RegexCache regexCache) {
+    String template = this.template;
+    if (template == null) {
+      template = createTemplate(regexCache);
+    }
+    // No formatting template can be created if the number of digits entered so far is longer than
+    // the maximum the current formatting rule can accommodate.
+    return maxDigitCount < nationalNumberLength ? "" : template;
+  }
+
+  private String createTemplate(RegexCache regexCache) {
+    // Creates a phone number consisting only of the digit 9 that matches the pattern by applying
+    // the pattern to the longest phone number.
+    Matcher m = regexCache.getPatternForRegex(pattern).matcher(LONGEST_PHONE_NUMBER);
+    String template = "";
+    int digitCount = -1;
+    if (m.find()) {
+      String aPhoneNumber = m.group();
+      digitCount = aPhoneNumber.length();
+      // Formats the number according to the format, and replaces each digit with the placeholder.
+      template = m.reset(aPhoneNumber).replaceAll(format).replace('9', DIGIT_PLACEHOLDER);
+    }
+    // Racing threads compute the same values. The digit count is written first, so it is visible
+    // to every thread which sees the template.
+    maxDigitCount = digitCount;
+    this.template = template;
+    return template;
+  }
+}
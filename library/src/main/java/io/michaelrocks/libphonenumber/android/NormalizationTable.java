@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import java.util.Map;
+
+/**
+ * A dense lookup table mapping the characters of a phone number to their normalized form, used in
+ * place of a {@code Map<Character, Character>} so that normalizing doesn't box and hash every
+ * character. The table is split into pages of 256 characters, and all the pages without mapped
+ * characters share a single empty page, so only the few pages covering ASCII, the fullwidth forms
+ * or the blocks of Unicode digits take any memory.
+ *
+ * <p>This class is thread-safe.
+ */
+final class NormalizationTable {
+  /** Returned by {@link #map} for characters which have no mapping. */
+  static final char NO_MAPPING = '\0';
+
+  private static final int PAGE_BITS = 8;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_COUNT = (Character.MAX_VALUE + 1) / PAGE_SIZE;
+  private static final char[] EMPTY_PAGE = new char[PAGE_SIZE];
+
+  private final char[][] pages;
+
+  private NormalizationTable(char[][] pages) {
+    this.pages = pages;
+  }
+
+  /**
+   * Creates a table which maps a character to the value its upper case form has in the given
+   * mappings, in the same way as looking up {@code Character.toUpperCase(c)} in them.
+   */
+  static NormalizationTable forUpperCaseMappings(Map<Character, Character> mappings) {
+    // Only the characters whose upper case form is on a page with a key are looked up, so that
+    // building the table doesn't box every character.
+    boolean[] keyPages = new boolean[PAGE_COUNT];
+    for (char key : mappings.keySet()) {
+      keyPages[key >>> PAGE_BITS] = true;
+    }
+    char[][] pages = new char[PAGE_COUNT][];
+    for (int pageIndex = 0; pageIndex < PAGE_COUNT; pageIndex++) {
+      char[] page = null;
+      for (int offset = 0; offset < PAGE_SIZE; offset++) {
+        char upperCase = Character.toUpperCase((char) (pageIndex << PAGE_BITS | offset));
+        if (!keyPages[upperCase >>> PAGE_BITS]) {
+          continue;
+        }
+        Character mapped = mappings.get(upperCase);
+        if (mapped != null) {
+          page = setMapping(page, offset, mapped);
+        }
+      }
+      pages[pageIndex] = page == null ? EMPTY_PAGE : page;
+    }
+    return new NormalizationTable(pages);
+  }
+
+  /**
+   * Creates a table which maps every decimal digit, i.e. every character with a value for {@code
+   * Character.digit(c, 10)}, to the corresponding ASCII digit.
+   */
+  static NormalizationTable forDecimalDigits() {
+    char[][] pages = new char[PAGE_COUNT][];
+    for (int pageIndex = 0; pageIndex < PAGE_COUNT; pageIndex++) {
+      char[] page = null;
+      for (int offset = 0; offset < PAGE_SIZE; offset++) {
+        int digit = Character.digit((char) (pageIndex << PAGE_BITS | offset), 10);
+        if (digit != -1) {
+          page = setMapping(page, offset, (char) ('0' + digit));
+        }
+      }
+      pages[pageIndex] = page == null ? EMPTY_PAGE : page;
+    }
+    return new NormalizationTable(pages);
+  }
+
+  private static char[] setMapping(char[] page, int offset, char mapped) {
+    if (mapped == NO_MAPPING) {
+      throw new IllegalArgumentException("Characters can't be mapped to '\\0'");
+    }
+    if (page == null) {
+      page = new char[PAGE_SIZE];
+    }
+    page[offset] = mapped;
+    return page;
+  }
+
+  /** Returns the mapping of the character, or {@link #NO_MAPPING} if it has none. */
+  char map(char c) {
+    return pages[c >>> PAGE_BITS][c & (PAGE_SIZE - 1)];
+  }
+
+  /**
+   * Appends the number to the output with every character replaced by its mapping. Characters
+   * without a mapping are skipped if removeNonMatches is true, and kept unchanged otherwise.
+   */
+  void normalize(CharSequence number, boolean removeNonMatches, StringBuilder output) {
+    int length = number.length();
+    output.ensureCapacity(output.length() + length);
+    for (int i = 0; i < length; i++) {
+      char c = number.charAt(i);
+      char mapped = map(c);
+      if (mapped != NO_MAPPING) {
+        output.append(mapped);
+      } else if (!removeNonMatches) {
+        output.append(c);
+      }
+    }
+  }
+
+  /**
+   * Same as {@link #normalize(CharSequence, boolean, StringBuilder)}, but replaces the contents of
+   * the number with the result. Since every character is replaced by at most one, this is done in
+   * place.
+   */
+  void normalizeInPlace(StringBuilder number, boolean removeNonMatches) {
+    int length = number.length();
+    int position = 0;
+    for (int i = 0; i < length; i++) {
+      char c = number.charAt(i);
+      char mapped = map(c);
+      if (mapped != NO_MAPPING) {
+        number.setCharAt(position++, mapped);
+      } else if (!removeNonMatches) {
+        number.setCharAt(position++, c);
+      }
+    }
+    number.setLength(position);
+  }
+
+  /**
+   * Same as {@link #normalize(CharSequence, boolean, StringBuilder)}, but writes the result to the
+   * output array starting at the given offset.
+   *
+   * @return  the number of characters written
+   * @throws IndexOutOfBoundsException if the result doesn't fit into the output array
+   */
+  int normalize(CharSequence number, boolean removeNonMatches, char[] output, int offset) {
+    int length = number.length();
+    int position = offset;
+    for (int i = 0; i < length; i++) {
+      char c = number.charAt(i);
+      char mapped = map(c);
+      if (mapped != NO_MAPPING) {
+        output[position++] = mapped;
+      } else if (!removeNonMatches) {
+        output[position++] = c;
+      }
+    }
+    return position - offset;
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import java.util.List;
+
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.PhoneNumberType;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+import io.michaelrocks.libphonenumber.android.internal.DigitAutomaton;
+import io.michaelrocks.libphonenumber.android.internal.NationalNumberDigits;
+
+/**
+ * Classifies national significant numbers of a single region by matching them against all the
+ * number type descriptions of its metadata at once. The national number patterns are compiled
+ * into a single {@link DigitAutomaton}, so the set of matching descriptions is found in one scan
+ * over the number instead of one regular expression match per number type.
+ *
+ * <p>This class is thread-safe.
+ */
+final class NumberTypeClassifier {
+  /** Returned by {@link #getMatchingDescs} for numbers which can't be classified. */
+  static final int UNDECIDED = -1;
+
+  // Bits of the mask returned by getMatchingDescs().
+  static final int GENERAL_DESC = 1 << 0;
+  static final int PREMIUM_RATE = 1 << 1;
+  static final int TOLL_FREE = 1 << 2;
+  static final int SHARED_COST = 1 << 3;
+  static final int VOIP = 1 << 4;
+  static final int PERSONAL_NUMBER = 1 << 5;
+  static final int PAGER = 1 << 6;
+  static final int UAN = 1 << 7;
+  static final int VOICEMAIL = 1 << 8;
+  static final int FIXED_LINE = 1 << 9;
+  static final int MOBILE = 1 << 10;
+
+  // Possible lengths are kept as bitmasks, so longer numbers are checked without the classifier.
+  private static final int MAX_LENGTH = Integer.SIZE - 1;
+
+  private final DigitAutomaton automaton;
+  // Bits of the descriptions which have a national number pattern.
+  private final int patternMask;
+  // For every description, the bitmask of its possible lengths, or all ones if it has none.
+  private final int[] possibleLengthMasks;
+  private final boolean sameMobileAndFixedLinePattern;
+
+  private NumberTypeClassifier(DigitAutomaton automaton, int patternMask,
+      int[] possibleLengthMasks, boolean sameMobileAndFixedLinePattern) {
+    this.automaton = automaton;
+    this.patternMask = patternMask;
+    this.possibleLengthMasks = possibleLengthMasks;
+    this.sameMobileAndFixedLinePattern = sameMobileAndFixedLinePattern;
+  }
+
+  /**
+   * Creates a classifier for the given metadata. If some of its descriptions are missing or their
+   * patterns can't be compiled into an automaton, the classifier returns {@link #UNDECIDED} for
+   * every number.
+   */
+  static NumberTypeClassifier create(PhoneMetadata metadata) {
+    PhoneNumberDesc[] descs = {
+        metadata.getGeneralDesc(),
+        metadata.getPremiumRate(),
+        metadata.getTollFree(),
+        metadata.getSharedCost(),
+        metadata.getVoip(),
+        metadata.getPersonalNumber(),
+        metadata.getPager(),
+        metadata.getUan(),
+        metadata.getVoicemail(),
+        metadata.getFixedLine(),
+        metadata.getMobile(),
+    };
+    String[] patterns = new String[descs.length];
+    int patternMask = 0;
+    int[] possibleLengthMasks = new int[descs.length];
+    for (int i = 0; i < descs.length; i++) {
+      if (descs[i] == null) {
+        // Incomplete metadata is left to the checks in PhoneNumberUtil.
+        return new NumberTypeClassifier(null, 0, null, false);
+      }
+      patterns[i] = descs[i].getNationalNumberPattern();
+      if (patterns[i].length() > 0) {
+        patternMask |= 1 << i;
+      }
+      possibleLengthMasks[i] = getPossibleLengthMask(descs[i].getPossibleLengthList());
+    }
+    return new NumberTypeClassifier(DigitAutomaton.compile(patterns), patternMask,
+        possibleLengthMasks, metadata.getSameMobileAndFixedLinePattern());
+  }
+
+  private static int getPossibleLengthMask(List<Integer> possibleLengths) {
+    if (possibleLengths.isEmpty()) {
+      return ~0;
+    }
+    int mask = 0;
+    for (int possibleLength : possibleLengths) {
+      if (possibleLength >= 0 && possibleLength <= MAX_LENGTH) {
+        mask |= 1 << possibleLength;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Returns the bitmask of the descriptions the national number is matching, with the same
+   * semantics as {@code PhoneNumberUtil.isNumberMatchingDesc}, or {@link #UNDECIDED} if the number
+   * can't be classified by the automaton.
+   */
+  int getMatchingDescs(CharSequence nationalNumber) {
+    int length = nationalNumber.length();
+    if (automaton == null || length > MAX_LENGTH) {
+      return UNDECIDED;
+    }
+    int state = automaton.getStartState();
+    for (int i = 0; i < length; i++) {
+      int digit = nationalNumber.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return UNDECIDED;
+      }
+      if (state != DigitAutomaton.DEAD_STATE) {
+        state = automaton.nextState(state, digit);
+      }
+    }
+    return getMatchingDescs(state, length);
+  }
+
+  /**
+   * Same as {@link #getMatchingDescs(CharSequence)} for the national significant number with the
+   * given national number and number of leading zeros.
+   */
+  int getMatchingDescs(long nationalNumber, int leadingZeros) {
+    if (automaton == null || nationalNumber < 0) {
+      return UNDECIDED;
+    }
+    int length = NationalNumberDigits.getLength(nationalNumber, leadingZeros);
+    if (length > MAX_LENGTH) {
+      return UNDECIDED;
+    }
+    int state = automaton.getStartState();
+    for (int i = 0; i < leadingZeros && state != DigitAutomaton.DEAD_STATE; i++) {
+      state = automaton.nextState(state, 0);
+    }
+    for (long divisor = NationalNumberDigits.getLeadingDivisor(nationalNumber);
+        divisor > 0 && state != DigitAutomaton.DEAD_STATE; divisor /= 10) {
+      state = automaton.nextState(state, (int) (nationalNumber / divisor % 10));
+    }
+    return getMatchingDescs(state, length);
+  }
+
+  // Returns the descriptions accepted in the final state which allow numbers of the given length.
+  private int getMatchingDescs(int state, int length) {
+    if (state == DigitAutomaton.DEAD_STATE) {
+      return 0;
+    }
+    int matchingDescs = automaton.getAcceptMask(state) & patternMask;
+    for (int i = 0; i < possibleLengthMasks.length; i++) {
+      if ((possibleLengthMasks[i] & (1 << length)) == 0) {
+        matchingDescs &= ~(1 << i);
+      }
+    }
+    return matchingDescs;
+  }
+
+  /**
+   * Returns the number type for the given bitmask of matching descriptions, using the same
+   * precedence as {@code PhoneNumberUtil.getNumberTypeHelper}.
+   */
+  PhoneNumberType getNumberType(int matchingDescs) {
+    if ((matchingDescs & GENERAL_DESC) == 0) {
+      return PhoneNumberType.UNKNOWN;
+    }
+    if ((matchingDescs & PREMIUM_RATE) != 0) {
+      return PhoneNumberType.PREMIUM_RATE;
+    }
+    if ((matchingDescs & TOLL_FREE) != 0) {
+      return PhoneNumberType.TOLL_FREE;
+    }
+    if ((matchingDescs & SHARED_COST) != 0) {
+      return PhoneNumberType.SHARED_COST;
+    }
+    if ((matchingDescs & VOIP) != 0) {
+      return PhoneNumberType.VOIP;
+    }
+    if ((matchingDescs & PERSONAL_NUMBER) != 0) {
+      return PhoneNumberType.PERSONAL_NUMBER;
+    }
+    if ((matchingDescs & PAGER) != 0) {
+      return PhoneNumberType.PAGER;
+    }
+    if ((matchingDescs & UAN) != 0) {
+      return PhoneNumberType.UAN;
+    }
+    if ((matchingDescs & VOICEMAIL) != 0) {
+      return PhoneNumberType.VOICEMAIL;
+    }
+    if ((matchingDescs & FIXED_LINE) != 0) {
+      if (sameMobileAndFixedLinePattern || (matchingDescs & MOBILE) != 0) {
+        return PhoneNumberType.FIXED_LINE_OR_MOBILE;
+      }
+      return PhoneNumberType.FIXED_LINE;
+    }
+    if (!sameMobileAndFixedLinePattern && (matchingDescs & MOBILE) != 0) {
+      return PhoneNumberType.MOBILE;
+    }
+    return PhoneNumberType.UNKNOWN;
+  }
+}
@@ -57,6 +57,7 @@ final class PhoneNumberMatcher implements Iterator<PhoneNumberMatch> {
    *   <li>No whitespace is allowed at the start or end.
    *   <li>No alpha digits (vanity numbers such as 1-800-SIX-FLAGS) are currently supported.
    * </ul>
+   * An optional extension following the number is matched by {@link ExtensionScanner}.
    */
   private static final Pattern PATTERN;
   /**
@@ -170,8 +171,7 @@ final class PhoneNumberMatcher implements Iterator<PhoneNumberMatch> {
     /* Phone number pattern allowing optional punctuation. */
     PATTERN = Pattern.compile(
         "(?:" + leadClass + punctuation + ")" + leadLimit
-        + digitSequence + "(?:" + punctuation + digitSequence + ")" + blockLimit
-        + "(?:" + PhoneNumberUtil.EXTN_PATTERNS_FOR_MATCHING + ")?",
+        + digitSequence + "(?:" + punctuation + digitSequence + ")" + blockLimit,
         PhoneNumberUtil.REGEX_FLAGS);
   }
 
@@ -209,11 +209,9 @@ final class PhoneNumberMatcher implements Iterator<PhoneNumberMatch> {
   /** The next index to start searching at. Undefined in {@link State#DONE}. */
   private int searchIndex = 0;
 
-  // A cache for frequently used country-specific regular expressions. Set to 32 to cover ~2-3
-  // countries being used for the same doc with ~10 patterns for each country. Some pages will have
-  // a lot more countries in use, but typically fewer numbers for each so expanding the cache for
-  // that use-case won't have a lot of benefit.
-  private final RegexCache regexCache = new RegexCache(32);
+  // A cache for frequently used country-specific regular expressions, shared with the phone number
+  // util so that short-lived matchers don't compile the same patterns again.
+  private final RegexCache regexCache;
 
   /**
    * Creates a new instance. See the factory methods in {@link PhoneNumberUtil} on how to obtain a
@@ -240,6 +238,7 @@ final class PhoneNumberMatcher implements Iterator<PhoneNumberMatch> {
       throw new IllegalArgumentException();
     }
     this.phoneUtil = util;
+    this.regexCache = util.getRegexCache();
     this.text = (text != null) ? text : "";
     this.preferredRegion = country;
     this.leniency = leniency;
@@ -257,7 +256,9 @@ final class PhoneNumberMatcher implements Iterator<PhoneNumberMatch> {
     Matcher matcher = PATTERN.matcher(text);
     while ((maxTries > 0) && matcher.find(index)) {
       int start = matcher.start();
-      CharSequence candidate = text.subSequence(start, matcher.end());
+      // An optional extension follows the number.
+      int end = ExtensionScanner.FOR_MATCHING.skipExtension(text, matcher.end());
+      CharSequence candidate = text.subSequence(start, end);
 
       // Check for extra numbers at the end.
       // TODO: This is the place to start when trying to support extraction of multiple phone number
@@ -671,7 +672,8 @@ final class PhoneNumberMatcher implements Iterator<PhoneNumberMatch> {
     // Check if a national prefix should be present when formatting this number.
     String nationalNumber = util.getNationalSignificantNumber(number);
     NumberFormat formatRule =
-        util.chooseFormattingPatternForNumber(metadata.getNumberFormatList(), nationalNumber);
+        util.chooseFormattingPatternForNumber(metadata, metadata.getNumberFormatList(),
+            nationalNumber);
     // To do this, we check that a national prefix formatting rule was present and that it wasn't
     // just the first-group symbol ($1) with punctuation.
     if ((formatRule != null) && formatRule.getNationalPrefixFormattingRule().length() > 0) {
@@ -690,7 +692,7 @@ final class PhoneNumberMatcher implements Iterator<PhoneNumberMatch> {
       StringBuilder rawInput = new StringBuilder(rawInputCopy);
       // Check if we found a national prefix and/or carrier code at the start of the raw input, and
       // return the result.
-      return util.maybeStripNationalPrefixAndCarrierCode(rawInput, metadata, null);
+      return util.stripNationalPrefixAndCarrierCode(rawInput, metadata, null);
     }
     return true;
   }
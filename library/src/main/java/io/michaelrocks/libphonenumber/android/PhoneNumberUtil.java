@@ -21,6 +21,7 @@ import android.content.Context;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,6 +30,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -39,9 +47,14 @@ import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
 import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
 import io.michaelrocks.libphonenumber.android.Phonenumber.PhoneNumber;
 import io.michaelrocks.libphonenumber.android.Phonenumber.PhoneNumber.CountryCodeSource;
+import io.michaelrocks.libphonenumber.android.internal.ClockCache;
+import io.michaelrocks.libphonenumber.android.internal.CountryCallingCodeTable;
+import io.michaelrocks.libphonenumber.android.internal.DfaBasedMatcher;
 import io.michaelrocks.libphonenumber.android.internal.MatcherApi;
-import io.michaelrocks.libphonenumber.android.internal.RegexBasedMatcher;
+import io.michaelrocks.libphonenumber.android.internal.NationalNumberDigits;
 import io.michaelrocks.libphonenumber.android.internal.RegexCache;
+import io.michaelrocks.libphonenumber.android.internal.RegionCodeSet;
+import io.michaelrocks.libphonenumber.android.internal.RegionCodes;
 import io.michaelrocks.libphonenumber.android.metadata.DefaultMetadataDependenciesProvider;
 import io.michaelrocks.libphonenumber.android.metadata.source.AssetsMetadataLoader;
 import io.michaelrocks.libphonenumber.android.metadata.source.MetadataSource;
@@ -74,6 +87,10 @@ public class PhoneNumberUtil {
   // input from overflowing the regular-expression engine.
   private static final int MAX_INPUT_STRING_LENGTH = 250;
 
+  // The number of numbers parsed by a single task of parseAndValidateAll(). This is a multiple of
+  // 64, so that the tasks don't share the words of the validity bits of BulkParseResult.
+  private static final int BULK_CHUNK_SIZE = 1024;
+
   // Region-code for the unknown region.
   private static final String UNKNOWN_REGION = "ZZ";
 
@@ -230,6 +247,17 @@ public class PhoneNumberUtil {
     ALL_PLUS_NUMBER_GROUPING_SYMBOLS = Collections.unmodifiableMap(allPlusNumberGroupings);
   }
 
+  // Lookup tables with the same contents as the maps above, which are used for normalizing without
+  // boxing every character.
+  private static final NormalizationTable DECIMAL_DIGIT_TABLE =
+      NormalizationTable.forDecimalDigits();
+  private static final NormalizationTable ALPHA_PHONE_TABLE =
+      NormalizationTable.forUpperCaseMappings(ALPHA_PHONE_MAPPINGS);
+  private static final NormalizationTable DIALLABLE_CHAR_TABLE =
+      NormalizationTable.forUpperCaseMappings(DIALLABLE_CHAR_MAPPINGS);
+  private static final NormalizationTable ALL_PLUS_NUMBER_GROUPING_TABLE =
+      NormalizationTable.forUpperCaseMappings(ALL_PLUS_NUMBER_GROUPING_SYMBOLS);
+
   // Pattern that makes it easy to distinguish whether a region has a single international dialing
   // prefix or not. If a region has a single international prefix (e.g. 011 in USA), it will be
   // represented as a string that contains a sequence of ASCII digits, and possibly a tilde, which
@@ -257,7 +285,6 @@ public class PhoneNumberUtil {
   static final String PLUS_CHARS = "+\uFF0B";
   static final Pattern PLUS_CHARS_PATTERN = Pattern.compile("[" + PLUS_CHARS + "]+");
   private static final Pattern SEPARATOR_PATTERN = Pattern.compile("[" + VALID_PUNCTUATION + "]+");
-  private static final Pattern CAPTURING_DIGIT_PATTERN = Pattern.compile("(" + DIGITS + ")");
 
   // Regular expression of acceptable characters that may start a phone number for the purposes of
   // parsing. This allows us to strip away meaningless prefixes to phone numbers that may be
@@ -316,7 +343,8 @@ public class PhoneNumberUtil {
   // Regexp of all possible ways to write extensions, for use when parsing. This will be run as a
   // case-insensitive regexp match. Wide character versions are also provided after each ASCII
   // version.
-  private static final String EXTN_PATTERNS_FOR_PARSING = createExtnPattern(true);
+  // Extensions are found with ExtensionScanner, which does the same as these patterns.
+  static final String EXTN_PATTERNS_FOR_PARSING = createExtnPattern(true);
   static final String EXTN_PATTERNS_FOR_MATCHING = createExtnPattern(false);
 
   // Regular expression of valid global-number-digits for the phone-context parameter, following the
@@ -428,11 +456,6 @@ public class PhoneNumberUtil {
     return extensionPattern;
   }
 
-  // Regexp of all known extension prefixes used by different regions followed by 1 or more valid
-  // digits, for use when parsing.
-  private static final Pattern EXTN_PATTERN =
-      Pattern.compile("(?:" + EXTN_PATTERNS_FOR_PARSING + ")$", REGEX_FLAGS);
-
   // We append optionally the extension pattern to the end here, as a valid phone number may
   // have an extension prefix appended, followed by 1 or more digits.
   private static final Pattern VALID_PHONE_NUMBER_PATTERN =
@@ -550,6 +573,40 @@ public class PhoneNumberUtil {
     TOO_LONG,
   }
 
+  /**
+   * Outcomes of {@link PhoneNumberUtil#tryParse} and {@link
+   * PhoneNumberUtil#tryParseAndKeepRawInput}. Apart from {@link #SUCCESS}, they correspond to the
+   * values of {@link NumberParseException.ErrorType}.
+   */
+  public enum ParseStatus {
+    /** The string was parsed into a phone number. */
+    SUCCESS(null),
+    /** See {@link NumberParseException.ErrorType#INVALID_COUNTRY_CODE}. */
+    INVALID_COUNTRY_CODE(NumberParseException.ErrorType.INVALID_COUNTRY_CODE),
+    /** See {@link NumberParseException.ErrorType#NOT_A_NUMBER}. */
+    NOT_A_NUMBER(NumberParseException.ErrorType.NOT_A_NUMBER),
+    /** See {@link NumberParseException.ErrorType#TOO_SHORT_AFTER_IDD}. */
+    TOO_SHORT_AFTER_IDD(NumberParseException.ErrorType.TOO_SHORT_AFTER_IDD),
+    /** See {@link NumberParseException.ErrorType#TOO_SHORT_NSN}. */
+    TOO_SHORT_NSN(NumberParseException.ErrorType.TOO_SHORT_NSN),
+    /** See {@link NumberParseException.ErrorType#TOO_LONG}. */
+    TOO_LONG(NumberParseException.ErrorType.TOO_LONG);
+
+    private final NumberParseException.ErrorType errorType;
+
+    ParseStatus(NumberParseException.ErrorType errorType) {
+      this.errorType = errorType;
+    }
+
+    /**
+     * Returns the error type {@link PhoneNumberUtil#parse} would have thrown for the same input, or
+     * null for {@link #SUCCESS}.
+     */
+    public NumberParseException.ErrorType getErrorType() {
+      return errorType;
+    }
+  }
+
   /**
    * Leniency when {@linkplain PhoneNumberUtil#findNumbers finding} potential phone numbers in text
    * segments. The levels here are ordered in increasing strictness.
@@ -684,25 +741,48 @@ public class PhoneNumberUtil {
   // by that country calling code. In the case of multiple regions sharing a calling code, such as
   // the NANPA regions, the one indicated with "isMainCountryForCode" in the metadata should be
   // first.
-  private final Map<Integer, List<String>> countryCallingCodeToRegionCodeMap;
-
-  // An API for validation checking.
-  private final MatcherApi matcherApi = RegexBasedMatcher.create();
+  private final CountryCallingCodeTable countryCallingCodeToRegionCodes;
+
+  // An API for validation checking. The national number patterns are compiled into digit automata,
+  // which are shared with the ShortNumberInfo instance created by this class.
+  private final MatcherApi matcherApi = DfaBasedMatcher.create();
+
+  // The structures derived from the metadata of every region and non-geographical entity, built on
+  // first use. Metadata instances are never replaced or changed once loaded, so they are used as
+  // keys by identity, and the structures are never rebuilt.
+  private final ConcurrentHashMap<PhoneMetadata, DerivedMetadata> derivedMetadata =
+      new ConcurrentHashMap<>();
+  // Resolvers of the regions sharing a country calling code, indexed by the calling code and built
+  // on first use.
+  private final AtomicReferenceArray<RegionResolver> regionResolvers =
+      new AtomicReferenceArray<>(CountryCallingCodeTable.MAX_COUNTRY_CALLING_CODE + 1);
 
   // The set of regions that share country calling code 1.
-  // There are roughly 26 regions.
-  // We set the initial capacity of the HashSet to 35 to offer a load factor of roughly 0.75.
-  private final Set<String> nanpaRegions = new HashSet<>(35);
+  private final RegionCodeSet nanpaRegions;
+
+  // A cache for frequently used region-specific regular expressions. It is shared with the
+  // PhoneNumberMatcher and AsYouTypeFormatter instances created by this class, so that they don't
+  // compile the same patterns again. The capacity is set to 200 to cover the 100 patterns which
+  // seem to be optimal for this class on Android, based on performance measurements, together with
+  // the formatting patterns of a few regions used by the matchers and formatters.
+  private final RegexCache regexCache = new RegexCache(200);
 
-  // A cache for frequently used region-specific regular expressions.
-  // The initial capacity is set to 100 as this seems to be an optimal value for Android, based on
-  // performance measurements.
-  private final RegexCache regexCache = new RegexCache(100);
+  // The caches of formatted numbers and parsing results, or null if they are disabled, which they
+  // are by default. Guarded by cacheLock for writes.
+  private volatile ClockCache<FormattingKey, String> formattingCache;
+  private volatile ClockCache<ParsingKey, ParsingResult> parsingCache;
+  private final Object cacheLock = new Object();
 
   // The set of regions the library supports.
   // There are roughly 240 of them and we set the initial capacity of the HashSet to 320 to offer a
   // load factor of roughly 0.75.
   private final Set<String> supportedRegions = new HashSet<>(320);
+  // The same regions as a bitset of region code identifiers, used to validate region codes.
+  private final RegionCodeSet supportedRegionIds;
+
+  // Metadata of the supported regions indexed by region code identifier, filled in on first use.
+  private final AtomicReferenceArray<PhoneMetadata> metadataByRegionId =
+      new AtomicReferenceArray<>(RegionCodes.ID_COUNT);
 
   // The set of country calling codes that map to the non-geo entity region ("001"). This set
   // currently contains < 12 elements so the default capacity of 16 (load factor=0.75) is fine.
@@ -715,16 +795,23 @@ public class PhoneNumberUtil {
   PhoneNumberUtil(MetadataSource metadataSource,
       DefaultMetadataDependenciesProvider metadataDependenciesProvider,
       Map<Integer, List<String>> countryCallingCodeToRegionCodeMap) {
+    this(metadataSource, metadataDependenciesProvider,
+        CountryCallingCodeTable.create(countryCallingCodeToRegionCodeMap));
+  }
+
+  private PhoneNumberUtil(MetadataSource metadataSource,
+      DefaultMetadataDependenciesProvider metadataDependenciesProvider,
+      CountryCallingCodeTable countryCallingCodeToRegionCodes) {
     this.metadataSource = metadataSource;
     this.metadataDependenciesProvider = metadataDependenciesProvider;
-    this.countryCallingCodeToRegionCodeMap = countryCallingCodeToRegionCodeMap;
-    for (Map.Entry<Integer, List<String>> entry : countryCallingCodeToRegionCodeMap.entrySet()) {
-      List<String> regionCodes = entry.getValue();
+    this.countryCallingCodeToRegionCodes = countryCallingCodeToRegionCodes;
+    for (int countryCallingCode : countryCallingCodeToRegionCodes.getCountryCallingCodes()) {
+      List<String> regionCodes = countryCallingCodeToRegionCodes.getRegionCodes(countryCallingCode);
       // We can assume that if the country calling code maps to the non-geo entity region code then
       // that's the only region code it maps to.
       if (regionCodes.size() == 1 && REGION_CODE_FOR_NON_GEO_ENTITY.equals(regionCodes.get(0))) {
         // This is the subset of all country codes that map to the non-geo entity region code.
-        countryCodesForNonGeographicalRegion.add(entry.getKey());
+        countryCodesForNonGeographicalRegion.add(countryCallingCode);
       } else {
         // The supported regions set does not include the "001" non-geo entity region code.
         supportedRegions.addAll(regionCodes);
@@ -737,7 +824,9 @@ public class PhoneNumberUtil {
       logger.log(Level.WARNING, "invalid metadata (country calling code was mapped to the non-geo "
           + "entity as well as specific region(s))");
     }
-    nanpaRegions.addAll(countryCallingCodeToRegionCodeMap.get(NANPA_COUNTRY_CODE));
+    supportedRegionIds = new RegionCodeSet(supportedRegions);
+    nanpaRegions =
+        new RegionCodeSet(countryCallingCodeToRegionCodes.getRegionCodes(NANPA_COUNTRY_CODE));
   }
 
   MetadataSource getMetadataSource() {
@@ -748,12 +837,90 @@ public class PhoneNumberUtil {
     return metadataDependenciesProvider;
   }
 
+  /**
+   * Returns the cache of compiled regular expressions shared by this instance and the matchers and
+   * formatters it creates.
+   */
+  RegexCache getRegexCache() {
+    return regexCache;
+  }
+
+  /**
+   * Returns the formatting template of a number format of the metadata, shared by all the
+   * as-you-type formatters created by this instance.
+   */
+  FormattingTemplate getFormattingTemplate(PhoneMetadata metadata, NumberFormat format) {
+    FormattingTemplate template = getDerivedMetadata(metadata).getFormattingTemplate(format);
+    return template != null ? template : FormattingTemplate.create(format);
+  }
+
+  /**
+   * Enables caching the results of {@link #format(PhoneNumber, PhoneNumberFormat)}, so that
+   * formatting a number again costs about as much as a hash lookup. This is useful when the same
+   * numbers are formatted many times, e.g. when they are displayed in lists. The cache holds up to
+   * the given number of formatted numbers, evicting the least recently used ones when it's full,
+   * and is safe for concurrent use. A capacity of 0, which is the default, disables the cache.
+   *
+   * <p>Changing the capacity empties the cache and resets its statistics.
+   *
+   * @param capacity  the maximum number of formatted numbers to cache, or 0 to disable caching
+   * @throws IllegalArgumentException  if the capacity is negative
+   */
+  public void setFormattingCacheCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+    }
+    synchronized (cacheLock) {
+      formattingCache = capacity == 0 ? null : new ClockCache<FormattingKey, String>(capacity);
+    }
+  }
+
+  /**
+   * Returns the statistics of the cache of formatted numbers enabled with
+   * {@link #setFormattingCacheCapacity}.
+   */
+  public CacheStats getFormattingCacheStats() {
+    return CacheStats.of(formattingCache);
+  }
+
+  /**
+   * Enables caching the results of parsing, so that parsing the same input with the same default
+   * region again only copies the cached number. This is useful when the same raw input is parsed
+   * many times, e.g. caller IDs. Inputs which can't be parsed are cached as well, and the same
+   * {@link NumberParseException} error type is reported for them. The cache is used by
+   * {@link #parse}, {@link #parseAndKeepRawInput} and {@link #tryParse} and their variants. The
+   * numbers they return are always new copies, so changing them doesn't affect the cache.
+   *
+   * <p>The cache holds up to the given number of inputs, evicting the least recently used ones when
+   * it's full, and is safe for concurrent use. A capacity of 0, which is the default, disables the
+   * cache. Changing the capacity empties the cache and resets its statistics.
+   *
+   * @param capacity  the maximum number of inputs to cache, or 0 to disable caching
+   * @throws IllegalArgumentException  if the capacity is negative
+   */
+  public void setParsingCacheCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+    }
+    synchronized (cacheLock) {
+      parsingCache = capacity == 0 ? null : new ClockCache<ParsingKey, ParsingResult>(capacity);
+    }
+  }
+
+  /**
+   * Returns the statistics of the cache of parsing results enabled with
+   * {@link #setParsingCacheCapacity}.
+   */
+  public CacheStats getParsingCacheStats() {
+    return CacheStats.of(parsingCache);
+  }
+
   public ShortNumberInfo getShortNumberInfo() {
     if (shortNumberInfo == null) {
       synchronized (this) {
         if (shortNumberInfo == null) {
           shortNumberInfo = new ShortNumberInfo(
-              RegexBasedMatcher.create(),
+              matcherApi,
               metadataDependenciesProvider.getShortNumberMetadataSource());
         }
       }
@@ -777,6 +944,12 @@ public class PhoneNumberUtil {
    *     number
    */
   static CharSequence extractPossibleNumber(CharSequence number) {
+    CharSequence possibleNumber = AsciiNumberScanner.extractPossibleNumber(number);
+    return possibleNumber != null ? possibleNumber : extractPossibleNumberWithPatterns(number);
+  }
+
+  // Does the same as extractPossibleNumber() for numbers of any characters, using the patterns.
+  static CharSequence extractPossibleNumberWithPatterns(CharSequence number) {
     Matcher m = VALID_START_CHAR_PATTERN.matcher(number);
     if (m.find()) {
       number = number.subSequence(m.start(), number.length());
@@ -808,6 +981,21 @@ public class PhoneNumberUtil {
    */
   // @VisibleForTesting
   static boolean isViablePhoneNumber(CharSequence number) {
+    if (number.length() < MIN_LENGTH_FOR_NSN) {
+      return false;
+    }
+    switch (AsciiNumberScanner.checkViability(number)) {
+      case AsciiNumberScanner.VIABLE:
+        return true;
+      case AsciiNumberScanner.NOT_VIABLE:
+        return false;
+      default:
+        return matchesValidPhoneNumberPattern(number);
+    }
+  }
+
+  // Does the same as isViablePhoneNumber() for numbers of any characters, using the pattern.
+  static boolean matchesValidPhoneNumberPattern(CharSequence number) {
     if (number.length() < MIN_LENGTH_FOR_NSN) {
       return false;
     }
@@ -834,9 +1022,9 @@ public class PhoneNumberUtil {
   static StringBuilder normalize(StringBuilder number) {
     Matcher m = VALID_ALPHA_PHONE_PATTERN.matcher(number);
     if (m.matches()) {
-      number.replace(0, number.length(), normalizeHelper(number, ALPHA_PHONE_MAPPINGS, true));
+      ALPHA_PHONE_TABLE.normalizeInPlace(number, true);
     } else {
-      number.replace(0, number.length(), normalizeDigitsOnly(number));
+      DECIMAL_DIGIT_TABLE.normalizeInPlace(number, true);
     }
     return number;
   }
@@ -852,17 +1040,31 @@ public class PhoneNumberUtil {
     return normalizeDigits(number, false /* strip non-digits */).toString();
   }
 
+  /**
+   * Same as {@link #normalizeDigitsOnly(CharSequence)}, but accepts a mutable StringBuilder for the
+   * result as a parameter to decrease object creation when invoked many times. The StringBuilder is
+   * cleared first.
+   */
+  public static void normalizeDigitsOnly(CharSequence number, StringBuilder normalizedNumber) {
+    normalizedNumber.setLength(0);
+    DECIMAL_DIGIT_TABLE.normalize(number, true, normalizedNumber);
+  }
+
+  /**
+   * Same as {@link #normalizeDigitsOnly(CharSequence)}, but writes the result to the given array
+   * starting at the given offset. The result is never longer than the number.
+   *
+   * @return  the length of the normalized number
+   * @throws IndexOutOfBoundsException if the normalized number doesn't fit into the array
+   */
+  public static int normalizeDigitsOnly(CharSequence number, char[] normalizedNumber,
+      int offset) {
+    return DECIMAL_DIGIT_TABLE.normalize(number, true, normalizedNumber, offset);
+  }
+
   static StringBuilder normalizeDigits(CharSequence number, boolean keepNonDigits) {
     StringBuilder normalizedDigits = new StringBuilder(number.length());
-    for (int i = 0; i < number.length(); i++) {
-      char c = number.charAt(i);
-      int digit = Character.digit(c, 10);
-      if (digit != -1) {
-        normalizedDigits.append(digit);
-      } else if (keepNonDigits) {
-        normalizedDigits.append(c);
-      }
-    }
+    DECIMAL_DIGIT_TABLE.normalize(number, !keepNonDigits, normalizedDigits);
     return normalizedDigits;
   }
 
@@ -874,7 +1076,20 @@ public class PhoneNumberUtil {
    * @return  the normalized string version of the phone number
    */
   public static String normalizeDiallableCharsOnly(CharSequence number) {
-    return normalizeHelper(number, DIALLABLE_CHAR_MAPPINGS, true /* remove non matches */);
+    StringBuilder normalizedNumber = new StringBuilder(number.length());
+    normalizeDiallableCharsOnly(number, normalizedNumber);
+    return normalizedNumber.toString();
+  }
+
+  /**
+   * Same as {@link #normalizeDiallableCharsOnly(CharSequence)}, but accepts a mutable StringBuilder
+   * for the result as a parameter to decrease object creation when invoked many times. The
+   * StringBuilder is cleared first.
+   */
+  public static void normalizeDiallableCharsOnly(CharSequence number,
+      StringBuilder normalizedNumber) {
+    normalizedNumber.setLength(0);
+    DIALLABLE_CHAR_TABLE.normalize(number, true /* remove non matches */, normalizedNumber);
   }
 
   /**
@@ -882,7 +1097,20 @@ public class PhoneNumberUtil {
    * existing formatting.
    */
   public static String convertAlphaCharactersInNumber(CharSequence number) {
-    return normalizeHelper(number, ALPHA_PHONE_MAPPINGS, false);
+    StringBuilder convertedNumber = new StringBuilder(number.length());
+    convertAlphaCharactersInNumber(number, convertedNumber);
+    return convertedNumber.toString();
+  }
+
+  /**
+   * Same as {@link #convertAlphaCharactersInNumber(CharSequence)}, but accepts a mutable
+   * StringBuilder for the result as a parameter to decrease object creation when invoked many
+   * times. The StringBuilder is cleared first.
+   */
+  public static void convertAlphaCharactersInNumber(CharSequence number,
+      StringBuilder convertedNumber) {
+    convertedNumber.setLength(0);
+    ALPHA_PHONE_TABLE.normalize(number, false, convertedNumber);
   }
 
   /**
@@ -1049,30 +1277,21 @@ public class PhoneNumberUtil {
 
   /**
    * Normalizes a string of characters representing a phone number by replacing all characters found
-   * in the accompanying map with the values therein, and stripping all other characters if
+   * in the accompanying table with the values therein, and stripping all other characters if
    * removeNonMatches is true.
    *
    * @param number  a string of characters representing a phone number
-   * @param normalizationReplacements  a mapping of characters to what they should be replaced by in
+   * @param normalizationReplacements  a table of characters to what they should be replaced by in
    *     the normalized version of the phone number
    * @param removeNonMatches  indicates whether characters that are not able to be replaced should
    *     be stripped from the number. If this is false, they will be left unchanged in the number.
    * @return  the normalized string version of the phone number
    */
   private static String normalizeHelper(CharSequence number,
-                                        Map<Character, Character> normalizationReplacements,
+                                        NormalizationTable normalizationReplacements,
                                         boolean removeNonMatches) {
     StringBuilder normalizedNumber = new StringBuilder(number.length());
-    for (int i = 0; i < number.length(); i++) {
-      char character = number.charAt(i);
-      Character newDigit = normalizationReplacements.get(Character.toUpperCase(character));
-      if (newDigit != null) {
-        normalizedNumber.append(newDigit);
-      } else if (!removeNonMatches) {
-        normalizedNumber.append(character);
-      }
-      // If neither of the above are true, we remove this character.
-    }
+    normalizationReplacements.normalize(number, removeNonMatches, normalizedNumber);
     return normalizedNumber.toString();
   }
 
@@ -1106,7 +1325,7 @@ public class PhoneNumberUtil {
    *     non-geographical entity the library supports
    */
   public Set<Integer> getSupportedCallingCodes() {
-    return Collections.unmodifiableSet(countryCallingCodeToRegionCodeMap.keySet());
+    return countryCallingCodeToRegionCodes.getCountryCallingCodes();
   }
 
   /**
@@ -1257,7 +1476,7 @@ public class PhoneNumberUtil {
       throw new IllegalArgumentException("metadataDependenciesProvider could not be null.");
     }
     return new PhoneNumberUtil(metadataSource, metadataDependenciesProvider,
-        CountryCodeToRegionCodeMap.getCountryCodeToRegionCodeMap());
+        CountryCallingCodeTable.getDefault());
   }
 
   /**
@@ -1293,14 +1512,14 @@ public class PhoneNumberUtil {
    * Helper function to check region code is not unknown or null.
    */
   private boolean isValidRegionCode(String regionCode) {
-    return regionCode != null && supportedRegions.contains(regionCode);
+    return supportedRegionIds.contains(regionCode);
   }
 
   /**
    * Helper function to check the country calling code is valid.
    */
   private boolean hasValidCountryCallingCode(int countryCallingCode) {
-    return countryCallingCodeToRegionCodeMap.containsKey(countryCallingCode);
+    return countryCallingCodeToRegionCodes.contains(countryCallingCode);
   }
 
   /**
@@ -1327,9 +1546,20 @@ public class PhoneNumberUtil {
         return rawInput;
       }
     }
-    StringBuilder formattedNumber = new StringBuilder(20);
-    format(number, numberFormat, formattedNumber);
-    return formattedNumber.toString();
+    ClockCache<FormattingKey, String> cache = formattingCache;
+    if (cache == null) {
+      StringBuilder formattedNumber = new StringBuilder(20);
+      format(number, numberFormat, formattedNumber);
+      return formattedNumber.toString();
+    }
+    FormattingKey key = new FormattingKey(number, numberFormat);
+    String formattedNumber = cache.get(key);
+    if (formattedNumber == null) {
+      StringBuilder builder = new StringBuilder(20);
+      format(number, numberFormat, builder);
+      formattedNumber = cache.put(key, builder.toString());
+    }
+    return formattedNumber;
   }
 
   /**
@@ -1805,7 +2035,24 @@ public class PhoneNumberUtil {
       return null;
     }
     String nationalNumber = getNationalSignificantNumber(number);
-    return chooseFormattingPatternForNumber(metadata.getNumberFormatList(), nationalNumber);
+    return chooseFormattingPatternForNumber(
+        metadata, metadata.getNumberFormatList(), nationalNumber);
+  }
+
+  /**
+   * Does the work of {@link #chooseFormattingPatternForNumber(List, String)} for the national or
+   * international number formats of the given metadata, using their index.
+   */
+  NumberFormat chooseFormattingPatternForNumber(PhoneMetadata metadata,
+      List<NumberFormat> availableFormats, String nationalNumber) {
+    FormatIndex formatIndex = getDerivedMetadata(metadata).getFormatIndex(availableFormats);
+    if (formatIndex != null) {
+      int index = formatIndex.chooseFormat(nationalNumber, regexCache);
+      if (index != FormatIndex.UNDECIDED) {
+        return index < 0 ? null : availableFormats.get(index);
+      }
+    }
+    return chooseFormattingPatternForNumber(availableFormats, nationalNumber);
   }
 
   NumberFormat chooseFormattingPatternForNumber(List<NumberFormat> availableFormats,
@@ -1864,7 +2111,7 @@ public class PhoneNumberUtil {
     // the number in raw_input with the parsed number.
     // To do this, first we normalize punctuation. We retain number grouping symbols such as " "
     // only.
-    rawInput = normalizeHelper(rawInput, ALL_PLUS_NUMBER_GROUPING_SYMBOLS, true);
+    rawInput = normalizeHelper(rawInput, ALL_PLUS_NUMBER_GROUPING_TABLE, true);
     // Now we trim everything before the first three digits in the parsed number. We choose three
     // because all valid alpha numbers have 3 digits at the start - if it does not, then we don't
     // trim anything at all. Similarly, if the national number was less than three digits, we don't
@@ -1884,8 +2131,8 @@ public class PhoneNumberUtil {
     } else if (metadataForRegionCallingFrom != null
         && countryCode == getCountryCodeForValidRegion(regionCallingFrom)) {
       NumberFormat formattingPattern =
-          chooseFormattingPatternForNumber(metadataForRegionCallingFrom.getNumberFormatList(),
-                                           nationalNumber);
+          chooseFormattingPatternForNumber(metadataForRegionCallingFrom,
+              metadataForRegionCallingFrom.getNumberFormatList(), nationalNumber);
       if (formattingPattern == null) {
         // If no pattern above is matched, we format the original input.
         return rawInput;
@@ -1950,15 +2197,31 @@ public class PhoneNumberUtil {
    * @return  the national significant number of the PhoneNumber object passed in
    */
   public String getNationalSignificantNumber(PhoneNumber number) {
-    // If leading zero(s) have been set, we prefix this now. Note this is not a national prefix.
-    StringBuilder nationalNumber = new StringBuilder();
+    return NationalNumberDigits.toString(number.getNationalNumber(), getLeadingZeros(number));
+  }
+
+  /**
+   * Returns the length of the national significant number of a phone number, without building it.
+   */
+  private static int getNationalSignificantNumberLength(PhoneNumber number) {
+    long nationalNumber = number.getNationalNumber();
+    if (nationalNumber < 0) {
+      return getLeadingZeros(number) + Long.toString(nationalNumber).length();
+    }
+    return NationalNumberDigits.getLength(nationalNumber, getLeadingZeros(number));
+  }
+
+  /**
+   * Returns the number of leading zeros preceding the national number in the national significant
+   * number of a phone number.
+   */
+  private static int getLeadingZeros(PhoneNumber number) {
+    // If leading zero(s) have been set, they are part of the national significant number. Note this
+    // is not a national prefix.
     if (number.isItalianLeadingZero() && number.getNumberOfLeadingZeros() > 0) {
-      char[] zeros = new char[number.getNumberOfLeadingZeros()];
-      Arrays.fill(zeros, '0');
-      nationalNumber.append(new String(zeros));
+      return number.getNumberOfLeadingZeros();
     }
-    nationalNumber.append(number.getNationalNumber());
-    return nationalNumber.toString();
+    return 0;
   }
 
   /**
@@ -2004,7 +2267,8 @@ public class PhoneNumberUtil {
         (intlNumberFormats.size() == 0 || numberFormat == PhoneNumberFormat.NATIONAL)
         ? metadata.getNumberFormatList()
         : metadata.getIntlNumberFormatList();
-    NumberFormat formattingPattern = chooseFormattingPatternForNumber(availableFormats, number);
+    NumberFormat formattingPattern =
+        chooseFormattingPatternForNumber(metadata, availableFormats, number);
     return (formattingPattern == null)
         ? number
         : formatNsnUsingPattern(number, formattingPattern, numberFormat, carrierCode);
@@ -2282,45 +2546,54 @@ public class PhoneNumberUtil {
     if (metadata == null) {
       return PhoneNumberType.UNKNOWN;
     }
-    String nationalSignificantNumber = getNationalSignificantNumber(number);
-    return getNumberTypeHelper(nationalSignificantNumber, metadata);
+    return getNumberTypeHelper(number.getNationalNumber(), getLeadingZeros(number), metadata);
   }
 
-  private PhoneNumberType getNumberTypeHelper(String nationalNumber, PhoneMetadata metadata) {
-    if (!isNumberMatchingDesc(nationalNumber, metadata.getGeneralDesc())) {
+  // The national significant number is passed as the national number and the number of leading
+  // zeros, so that it doesn't need to be built as a string.
+  private PhoneNumberType getNumberTypeHelper(long nationalNumber, int leadingZeros,
+      PhoneMetadata metadata) {
+    NumberTypeClassifier classifier = getDerivedMetadata(metadata).getNumberTypeClassifier();
+    int matchingDescs = classifier.getMatchingDescs(nationalNumber, leadingZeros);
+    if (matchingDescs != NumberTypeClassifier.UNDECIDED) {
+      return classifier.getNumberType(matchingDescs);
+    }
+
+    if (!isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getGeneralDesc())) {
       return PhoneNumberType.UNKNOWN;
     }
 
-    if (isNumberMatchingDesc(nationalNumber, metadata.getPremiumRate())) {
+    if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getPremiumRate())) {
       return PhoneNumberType.PREMIUM_RATE;
     }
-    if (isNumberMatchingDesc(nationalNumber, metadata.getTollFree())) {
+    if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getTollFree())) {
       return PhoneNumberType.TOLL_FREE;
     }
-    if (isNumberMatchingDesc(nationalNumber, metadata.getSharedCost())) {
+    if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getSharedCost())) {
       return PhoneNumberType.SHARED_COST;
     }
-    if (isNumberMatchingDesc(nationalNumber, metadata.getVoip())) {
+    if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getVoip())) {
       return PhoneNumberType.VOIP;
     }
-    if (isNumberMatchingDesc(nationalNumber, metadata.getPersonalNumber())) {
+    if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getPersonalNumber())) {
       return PhoneNumberType.PERSONAL_NUMBER;
     }
-    if (isNumberMatchingDesc(nationalNumber, metadata.getPager())) {
+    if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getPager())) {
       return PhoneNumberType.PAGER;
     }
-    if (isNumberMatchingDesc(nationalNumber, metadata.getUan())) {
+    if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getUan())) {
       return PhoneNumberType.UAN;
     }
-    if (isNumberMatchingDesc(nationalNumber, metadata.getVoicemail())) {
+    if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getVoicemail())) {
       return PhoneNumberType.VOICEMAIL;
     }
 
-    boolean isFixedLine = isNumberMatchingDesc(nationalNumber, metadata.getFixedLine());
+    boolean isFixedLine =
+        isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getFixedLine());
     if (isFixedLine) {
       if (metadata.getSameMobileAndFixedLinePattern()) {
         return PhoneNumberType.FIXED_LINE_OR_MOBILE;
-      } else if (isNumberMatchingDesc(nationalNumber, metadata.getMobile())) {
+      } else if (isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getMobile())) {
         return PhoneNumberType.FIXED_LINE_OR_MOBILE;
       }
       return PhoneNumberType.FIXED_LINE;
@@ -2328,12 +2601,199 @@ public class PhoneNumberUtil {
     // Otherwise, test to see if the number is mobile. Only do this if certain that the patterns for
     // mobile and fixed line aren't the same.
     if (!metadata.getSameMobileAndFixedLinePattern()
-        && isNumberMatchingDesc(nationalNumber, metadata.getMobile())) {
+        && isNumberMatchingDesc(nationalNumber, leadingZeros, metadata.getMobile())) {
       return PhoneNumberType.MOBILE;
     }
     return PhoneNumberType.UNKNOWN;
   }
 
+  private DerivedMetadata getDerivedMetadata(PhoneMetadata metadata) {
+    DerivedMetadata derived = derivedMetadata.get(metadata);
+    if (derived == null) {
+      derived = DerivedMetadata.create(metadata);
+      DerivedMetadata existingDerived = derivedMetadata.putIfAbsent(metadata, derived);
+      if (existingDerived != null) {
+        derived = existingDerived;
+      }
+    }
+    return derived;
+  }
+
+  /**
+   * Loads the metadata for the given region on the executor, so that the calls for numbers from
+   * this region made after the returned future is done don't block on reading and parsing the
+   * metadata. This is useful on the threads which shouldn't perform I/O, such as the UI thread on
+   * Android. Nothing is loaded for invalid or unknown region codes.
+   *
+   * <p>The metadata file is read by a task of the metadata source, and another task builds the
+   * structures derived from the metadata. Loads are shared with the blocking calls, so a metadata
+   * file is read only once even if the region is used before the future is done.
+   *
+   * @param regionCode  the region that we want to load the metadata for
+   * @param executor  the executor to load and parse the metadata on
+   * @return  a future which is done when the metadata is loaded, and fails with the exception the
+   *     blocking calls would throw if the metadata can't be loaded
+   */
+  public Future<?> loadMetadataForRegionAsync(String regionCode, Executor executor) {
+    return loadMetadataAsync(regionCode, 0, false, executor);
+  }
+
+  /**
+   * Loads the metadata for the given regions and country calling codes in parallel on the
+   * executor, and waits until all of it is loaded. This avoids paying for reading and parsing the
+   * metadata on the first use of every region, for example when called at the start of a server or
+   * with the regions of the SIM card and the locale of a device. On the JVM, a {@code ForkJoinPool}
+   * is a good choice for the executor.
+   *
+   * <p>All the regions sharing a country calling code are loaded for it, as well as the
+   * non-geographical entity using it. Invalid or unknown region codes and country calling codes are
+   * ignored. Finding the region of a number with a calling code shared by several regions is only
+   * sped up once the metadata of all of them is loaded, which this does for the given codes.
+   *
+   * @param regionCodes  the regions to load the metadata for
+   * @param countryCallingCodes  the country calling codes to load the metadata for
+   * @param compilePatterns  whether to also compile the formatting and parsing patterns of the
+   *     loaded regions. Only as many patterns as fit into the cache of this instance are kept, so
+   *     this is mostly useful for a few regions
+   * @param executor  the executor to load and parse the metadata on
+   * @throws InterruptedException if the current thread is interrupted while waiting for the
+   *     metadata to load
+   * @throws MissingMetadataException if the metadata for one of the regions cannot be found
+   */
+  public void preloadMetadata(Collection<String> regionCodes,
+      Collection<Integer> countryCallingCodes, boolean compilePatterns, Executor executor)
+      throws InterruptedException {
+    List<Future<?>> loads = new ArrayList<Future<?>>();
+    for (String regionCode : regionCodes) {
+      loads.add(loadMetadataAsync(regionCode, 0, compilePatterns, executor));
+    }
+    for (int countryCallingCode : countryCallingCodes) {
+      if (countryCodesForNonGeographicalRegion.contains(countryCallingCode)) {
+        loads.add(loadMetadataAsync(
+            REGION_CODE_FOR_NON_GEO_ENTITY, countryCallingCode, compilePatterns, executor));
+      }
+      List<String> regionCodesForCallingCode =
+          countryCallingCodeToRegionCodes.getRegionCodes(countryCallingCode);
+      if (regionCodesForCallingCode == null) {
+        continue;
+      }
+      for (String regionCode : regionCodesForCallingCode) {
+        if (!REGION_CODE_FOR_NON_GEO_ENTITY.equals(regionCode)) {
+          loads.add(loadMetadataAsync(regionCode, 0, compilePatterns, executor));
+        }
+      }
+    }
+    awaitAll(loads);
+    for (int countryCallingCode : countryCallingCodes) {
+      List<String> regionCodesForCallingCode =
+          countryCallingCodeToRegionCodes.getRegionCodes(countryCallingCode);
+      if (regionCodesForCallingCode != null && regionCodesForCallingCode.size() > 1
+          && regionCodesForCallingCode.size() <= RegionResolver.MAX_REGIONS) {
+        // The metadata of all the regions is loaded now, so the resolver can be built.
+        getRegionResolver(countryCallingCode, regionCodesForCallingCode);
+      }
+    }
+  }
+
+  /**
+   * Loads the metadata for all the supported regions and non-geographical entities in parallel on
+   * the executor, and waits until all of it is loaded. See {@link #preloadMetadata} for details.
+   */
+  public void preloadAllMetadata(boolean compilePatterns, Executor executor)
+      throws InterruptedException {
+    preloadMetadata(supportedRegions, countryCodesForNonGeographicalRegion, compilePatterns,
+        executor);
+  }
+
+  private Future<?> loadMetadataAsync(final String regionCode, final int countryCallingCode,
+      final boolean compilePatterns, Executor executor) {
+    readMetadataAsync(regionCode, countryCallingCode, executor);
+    FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+      @Override
+      public Void call() {
+        PhoneMetadata metadata = getMetadataForRegionOrCallingCode(countryCallingCode, regionCode);
+        if (metadata != null) {
+          prepareMetadata(metadata, compilePatterns);
+        }
+        return null;
+      }
+    });
+    executor.execute(task);
+    return task;
+  }
+
+  // Schedules reading the metadata file on the executor through the asynchronous lookups of the
+  // source, so that the files of several regions are read in parallel. The task preparing the
+  // metadata then looks it up with a blocking call, which shares the read, or does it on its own
+  // thread if the read is still queued, so it never waits for a task behind it in the queue.
+  private void readMetadataAsync(String regionCode, int countryCallingCode, Executor executor) {
+    if (!(metadataSource instanceof MetadataSourceImpl)) {
+      return;
+    }
+    MetadataSourceImpl source = (MetadataSourceImpl) metadataSource;
+    if (REGION_CODE_FOR_NON_GEO_ENTITY.equals(regionCode)) {
+      if (countryCodesForNonGeographicalRegion.contains(countryCallingCode)) {
+        source.getMetadataForNonGeographicalRegionAsync(countryCallingCode, executor);
+      }
+      return;
+    }
+    int regionId = RegionCodes.getId(regionCode);
+    if (regionId != RegionCodes.INVALID_ID && supportedRegionIds.contains(regionId)
+        && metadataByRegionId.get(regionId) == null) {
+      source.getMetadataForRegionAsync(regionCode, executor);
+    }
+  }
+
+  /**
+   * Builds the structures derived from the metadata which are otherwise built on first use, and
+   * optionally compiles the regular expressions used for formatting and parsing.
+   */
+  private void prepareMetadata(PhoneMetadata metadata, boolean compilePatterns) {
+    getDerivedMetadata(metadata);
+    if (!compilePatterns) {
+      return;
+    }
+    List<NumberFormat> numberFormats = new ArrayList<NumberFormat>(metadata.getNumberFormatList());
+    numberFormats.addAll(metadata.getIntlNumberFormatList());
+    for (NumberFormat numberFormat : numberFormats) {
+      regexCache.getPatternForRegex(numberFormat.getPattern());
+      int size = numberFormat.getLeadingDigitsPatternCount();
+      if (size > 0) {
+        regexCache.getPatternForRegex(numberFormat.getLeadingDigitsPattern(size - 1));
+      }
+    }
+    if (metadata.hasInternationalPrefix()) {
+      regexCache.getPatternForRegex(metadata.getInternationalPrefix());
+    }
+    if (metadata.hasNationalPrefixForParsing()) {
+      regexCache.getPatternForRegex(metadata.getNationalPrefixForParsing());
+    }
+    if (metadata.hasLeadingDigits()) {
+      regexCache.getPatternForRegex(metadata.getLeadingDigits());
+    }
+  }
+
+  private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+    RuntimeException failure = null;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        if (failure == null) {
+          failure = cause instanceof RuntimeException
+              ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
   /**
    * Returns the metadata for the given region code or {@code null} if the region code is invalid or
    * unknown.
@@ -2341,6 +2801,20 @@ public class PhoneNumberUtil {
    * @throws MissingMetadataException if the region code is valid, but metadata cannot be found.
    */
   PhoneMetadata getMetadataForRegion(String regionCode) {
+    int regionId = RegionCodes.getId(regionCode);
+    if (regionId != RegionCodes.INVALID_ID) {
+      if (!supportedRegionIds.contains(regionId)) {
+        return null;
+      }
+      PhoneMetadata phoneMetadata = metadataByRegionId.get(regionId);
+      if (phoneMetadata == null) {
+        phoneMetadata = metadataSource.getMetadataForRegion(regionCode);
+        ensureMetadataIsNonNull(phoneMetadata, "Missing metadata for region code " + regionCode);
+        // Metadata is never replaced once loaded, so racing threads store the same instance.
+        metadataByRegionId.set(regionId, phoneMetadata);
+      }
+      return phoneMetadata;
+    }
     if (!isValidRegionCode(regionCode)) {
       return null;
     }
@@ -2385,6 +2859,21 @@ public class PhoneNumberUtil {
     return matcherApi.matchNationalNumber(nationalNumber, numberDesc, false);
   }
 
+  boolean isNumberMatchingDesc(long nationalNumber, int leadingZeros, PhoneNumberDesc numberDesc) {
+    // The same as isNumberMatchingDesc(String, PhoneNumberDesc) for the national significant
+    // number with the given national number and number of leading zeros.
+    if (nationalNumber < 0) {
+      // The string form of a negative number isn't made of digits, so no pattern matches it.
+      return false;
+    }
+    int actualLength = NationalNumberDigits.getLength(nationalNumber, leadingZeros);
+    List<Integer> possibleLengths = numberDesc.getPossibleLengthList();
+    if (possibleLengths.size() > 0 && !possibleLengths.contains(actualLength)) {
+      return false;
+    }
+    return matcherApi.matchNationalNumber(nationalNumber, leadingZeros, numberDesc, false);
+  }
+
   /**
    * Tests whether a phone number matches a valid pattern. Note this doesn't verify the number
    * is actually in use, which is impossible to tell by just looking at a number itself. It only
@@ -2427,8 +2916,8 @@ public class PhoneNumberUtil {
       // match that of the region code.
       return false;
     }
-    String nationalSignificantNumber = getNationalSignificantNumber(number);
-    return getNumberTypeHelper(nationalSignificantNumber, metadata) != PhoneNumberType.UNKNOWN;
+    return getNumberTypeHelper(number.getNationalNumber(), getLeadingZeros(number), metadata)
+        != PhoneNumberType.UNKNOWN;
   }
 
   /**
@@ -2442,7 +2931,7 @@ public class PhoneNumberUtil {
    */
   public String getRegionCodeForNumber(PhoneNumber number) {
     int countryCode = number.getCountryCode();
-    List<String> regions = countryCallingCodeToRegionCodeMap.get(countryCode);
+    List<String> regions = countryCallingCodeToRegionCodes.getRegionCodes(countryCode);
     if (regions == null) {
       logger.log(Level.INFO, "Missing/invalid country_code (" + countryCode + ")");
       return null;
@@ -2456,23 +2945,64 @@ public class PhoneNumberUtil {
 
   private String getRegionCodeForNumberFromRegionList(PhoneNumber number,
                                                       List<String> regionCodes) {
-    String nationalNumber = getNationalSignificantNumber(number);
+    int leadingZeros = getLeadingZeros(number);
+    RegionResolver resolver = null;
+    if (number.getNationalNumber() >= 0 && regionCodes.size() <= RegionResolver.MAX_REGIONS) {
+      resolver = getRegionResolver(number.getCountryCode(), regionCodes);
+    }
+    if (resolver != null) {
+      int candidates = resolver.getCandidateRegions(number.getNationalNumber(), leadingZeros);
+      // Only the regions the resolver can't rule out are checked, in the same order.
+      for (int i = 0; candidates != 0; i++, candidates >>>= 1) {
+        if ((candidates & 1) != 0 && (resolver.isMatchedByLeadingDigits(i)
+            || isNumberFromRegion(number, leadingZeros, resolver.getMetadata(i)))) {
+          return resolver.getRegionCode(i);
+        }
+      }
+      return null;
+    }
     for (String regionCode : regionCodes) {
-      // If leadingDigits is present, use this. Otherwise, do full validation.
       // Metadata cannot be null because the region codes come from the country calling code map.
-      PhoneMetadata metadata = getMetadataForRegion(regionCode);
-      if (metadata.hasLeadingDigits()) {
-        if (regexCache.getPatternForRegex(metadata.getLeadingDigits())
-                .matcher(nationalNumber).lookingAt()) {
-          return regionCode;
-        }
-      } else if (getNumberTypeHelper(nationalNumber, metadata) != PhoneNumberType.UNKNOWN) {
+      if (isNumberFromRegion(number, leadingZeros, getMetadataForRegion(regionCode))) {
         return regionCode;
       }
     }
     return null;
   }
 
+  private boolean isNumberFromRegion(PhoneNumber number, int leadingZeros,
+      PhoneMetadata metadata) {
+    // If leadingDigits is present, use this. Otherwise, do full validation.
+    if (metadata.hasLeadingDigits()) {
+      return regexCache.getPatternForRegex(metadata.getLeadingDigits())
+          .matcher(getNationalSignificantNumber(number)).lookingAt();
+    }
+    return getNumberTypeHelper(number.getNationalNumber(), leadingZeros, metadata)
+        != PhoneNumberType.UNKNOWN;
+  }
+
+  // Returns the resolver of the regions sharing the calling code, or null if the metadata of some
+  // of them isn't loaded yet. Loading it here would read the metadata of every region on the
+  // caller's thread, e.g. 25 files for +1, while checking the regions one by one only loads them
+  // until the region of the number is found, which for most numbers is the first one.
+  private RegionResolver getRegionResolver(int countryCallingCode, List<String> regionCodes) {
+    RegionResolver resolver = regionResolvers.get(countryCallingCode);
+    if (resolver == null) {
+      PhoneMetadata[] metadata = new PhoneMetadata[regionCodes.size()];
+      for (int i = 0; i < metadata.length; i++) {
+        int regionId = RegionCodes.getId(regionCodes.get(i));
+        metadata[i] = regionId != RegionCodes.INVALID_ID ? metadataByRegionId.get(regionId) : null;
+        if (metadata[i] == null) {
+          return null;
+        }
+      }
+      resolver = RegionResolver.create(regionCodes, metadata);
+      // Racing threads build equivalent resolvers, so either of them can be kept.
+      regionResolvers.set(countryCallingCode, resolver);
+    }
+    return resolver;
+  }
+
   /**
    * Returns the region code that matches the specific country calling code. In the case of no
    * region code being found, ZZ will be returned. In the case of multiple regions, the one
@@ -2482,8 +3012,8 @@ public class PhoneNumberUtil {
    * the value for World in the UN M.49 schema).
    */
   public String getRegionCodeForCountryCode(int countryCallingCode) {
-    List<String> regionCodes = countryCallingCodeToRegionCodeMap.get(countryCallingCode);
-    return regionCodes == null ? UNKNOWN_REGION : regionCodes.get(0);
+    String regionCode = countryCallingCodeToRegionCodes.getMainRegionCode(countryCallingCode);
+    return regionCode == null ? UNKNOWN_REGION : regionCode;
   }
 
   /**
@@ -2492,9 +3022,8 @@ public class PhoneNumberUtil {
    * of no region code being found, an empty list is returned.
    */
   public List<String> getRegionCodesForCountryCode(int countryCallingCode) {
-    List<String> regionCodes = countryCallingCodeToRegionCodeMap.get(countryCallingCode);
-    return Collections.unmodifiableList(regionCodes == null ? new ArrayList<String>(0)
-                                                            : regionCodes);
+    List<String> regionCodes = countryCallingCodeToRegionCodes.getRegionCodes(countryCallingCode);
+    return regionCodes == null ? Collections.<String>emptyList() : regionCodes;
   }
 
   /**
@@ -2636,15 +3165,26 @@ public class PhoneNumberUtil {
    * being passed in, and determine whether it matches, or is too short or too long.
    */
   private ValidationResult testNumberLength(CharSequence number, PhoneMetadata metadata) {
-    return testNumberLength(number, metadata, PhoneNumberType.UNKNOWN);
+    return testNumberLength(number.length(), metadata, PhoneNumberType.UNKNOWN);
   }
 
   /**
-   * Helper method to check a number against possible lengths for this number type, and determine
-   * whether it matches, or is too short or too long.
+   * Helper method to check a number of the given length against possible lengths for this number
+   * type, and determine whether it matches, or is too short or too long.
    */
   private ValidationResult testNumberLength(
-      CharSequence number, PhoneMetadata metadata, PhoneNumberType type) {
+      int actualLength, PhoneMetadata metadata, PhoneNumberType type) {
+    ValidationResult result =
+        getDerivedMetadata(metadata).getPossibleLengths().testLength(actualLength, type);
+    return result != null ? result : testNumberLengthWithLists(actualLength, metadata, type);
+  }
+
+  /**
+   * Does the work of {@link #testNumberLength} with the possible length lists of the metadata, for
+   * the metadata whose lengths can't be kept as bitmasks.
+   */
+  private ValidationResult testNumberLengthWithLists(
+      int actualLength, PhoneMetadata metadata, PhoneNumberType type) {
     PhoneNumberDesc descForType = getNumberDescByType(metadata, type);
     // There should always be "possibleLengths" set for every element. This is declared in the XML
     // schema which is verified by PhoneNumberMetadataSchemaTest.
@@ -2661,7 +3201,7 @@ public class PhoneNumberUtil {
       if (!descHasPossibleNumberData(getNumberDescByType(metadata, PhoneNumberType.FIXED_LINE))) {
         // The rare case has been encountered where no fixedLine data is available (true for some
         // non-geographical entities), so we just check mobile.
-        return testNumberLength(number, metadata, PhoneNumberType.MOBILE);
+        return testNumberLengthWithLists(actualLength, metadata, PhoneNumberType.MOBILE);
       } else {
         PhoneNumberDesc mobileDesc = getNumberDescByType(metadata, PhoneNumberType.MOBILE);
         if (descHasPossibleNumberData(mobileDesc)) {
@@ -2694,7 +3234,6 @@ public class PhoneNumberUtil {
       return ValidationResult.INVALID_LENGTH;
     }
 
-    int actualLength = number.length();
     // This is safe because there is never an overlap beween the possible lengths and the local-only
     // lengths; this is checked at build time.
     if (localLengths.contains(actualLength)) {
@@ -2780,7 +3319,6 @@ public class PhoneNumberUtil {
    */
   public ValidationResult isPossibleNumberForTypeWithReason(
       PhoneNumber number, PhoneNumberType type) {
-    String nationalNumber = getNationalSignificantNumber(number);
     int countryCode = number.getCountryCode();
     // Note: For regions that share a country calling code, like NANPA numbers, we just use the
     // rules from the default region (US in this case) since the getRegionCodeForNumber will not
@@ -2794,7 +3332,7 @@ public class PhoneNumberUtil {
     String regionCode = getRegionCodeForCountryCode(countryCode);
     // Metadata cannot be null because the country calling code is valid.
     PhoneMetadata metadata = getMetadataForRegionOrCallingCode(countryCode, regionCode);
-    return testNumberLength(nationalNumber, metadata, type);
+    return testNumberLength(getNationalSignificantNumberLength(number), metadata, type);
   }
 
   /**
@@ -2817,11 +3355,9 @@ public class PhoneNumberUtil {
    * @return  true if the number is possible
    */
   public boolean isPossibleNumber(CharSequence number, String regionDialingFrom) {
-    try {
-      return isPossibleNumber(parse(number, regionDialingFrom));
-    } catch (NumberParseException e) {
-      return false;
-    }
+    PhoneNumber phoneNumber = new PhoneNumber();
+    return tryParse(number, regionDialingFrom, phoneNumber) == ParseStatus.SUCCESS
+        && isPossibleNumber(phoneNumber);
   }
 
   /**
@@ -2874,7 +3410,7 @@ public class PhoneNumberUtil {
     int numberLength = fullNumber.length();
     for (int i = 1; i <= MAX_LENGTH_COUNTRY_CODE && i <= numberLength; i++) {
       potentialCountryCode = Integer.parseInt(fullNumber.substring(0, i));
-      if (countryCallingCodeToRegionCodeMap.containsKey(potentialCountryCode)) {
+      if (countryCallingCodeToRegionCodes.contains(potentialCountryCode)) {
         nationalNumber.append(fullNumber.substring(i));
         return potentialCountryCode;
       }
@@ -2921,34 +3457,51 @@ public class PhoneNumberUtil {
     if (number.length() == 0) {
       return 0;
     }
+    ParseError error = tryExtractCountryCode(number, defaultRegionMetadata, nationalNumber,
+        keepRawInput, phoneNumber);
+    if (error != null) {
+      throw error.toException();
+    }
+    return phoneNumber.getCountryCode();
+  }
+
+  /**
+   * Same as {@link #maybeExtractCountryCode}, but instead of throwing, returns the error, or null
+   * on success, in which case the country calling code extracted, or 0 if none could be extracted,
+   * is set in phoneNumber.
+   */
+  private ParseError tryExtractCountryCode(CharSequence number,
+      PhoneMetadata defaultRegionMetadata, StringBuilder nationalNumber, boolean keepRawInput,
+      PhoneNumber phoneNumber) {
+    if (number.length() == 0) {
+      phoneNumber.setCountryCode(0);
+      return null;
+    }
     StringBuilder fullNumber = new StringBuilder(number);
-    // Set the default prefix to be something that will never match.
-    String possibleCountryIddPrefix = "NonMatch";
+    // Without the default region, there's no international prefix to strip.
+    PrefixStripper prefixStripper = null;
     if (defaultRegionMetadata != null) {
-      possibleCountryIddPrefix = defaultRegionMetadata.getInternationalPrefix();
+      prefixStripper = getDerivedMetadata(defaultRegionMetadata).getPrefixStripper();
     }
 
     CountryCodeSource countryCodeSource =
-        maybeStripInternationalPrefixAndNormalize(fullNumber, possibleCountryIddPrefix);
+        maybeStripInternationalPrefixAndNormalize(fullNumber, prefixStripper);
     if (keepRawInput) {
       phoneNumber.setCountryCodeSource(countryCodeSource);
     }
     if (countryCodeSource != CountryCodeSource.FROM_DEFAULT_COUNTRY) {
       if (fullNumber.length() <= MIN_LENGTH_FOR_NSN) {
-        throw new NumberParseException(NumberParseException.ErrorType.TOO_SHORT_AFTER_IDD,
-                                       "Phone number had an IDD, but after this was not "
-                                       + "long enough to be a viable phone number.");
+        return ParseError.TOO_SHORT_AFTER_IDD;
       }
       int potentialCountryCode = extractCountryCode(fullNumber, nationalNumber);
       if (potentialCountryCode != 0) {
         phoneNumber.setCountryCode(potentialCountryCode);
-        return potentialCountryCode;
+        return null;
       }
 
       // If this fails, they must be using a strange country calling code that we don't recognize,
       // or that doesn't exist.
-      throw new NumberParseException(NumberParseException.ErrorType.INVALID_COUNTRY_CODE,
-                                     "Country calling code supplied was not recognised.");
+      return ParseError.UNRECOGNISED_COUNTRY_CODE;
     } else if (defaultRegionMetadata != null) {
       // Check to see if the number starts with the country calling code for the default region. If
       // so, we remove the country calling code, and do some checks on the validity of the number
@@ -2960,7 +3513,7 @@ public class PhoneNumberUtil {
         StringBuilder potentialNationalNumber =
             new StringBuilder(normalizedNumber.substring(defaultCountryCodeString.length()));
         PhoneNumberDesc generalDesc = defaultRegionMetadata.getGeneralDesc();
-        maybeStripNationalPrefixAndCarrierCode(
+        stripNationalPrefixAndCarrierCode(
             potentialNationalNumber, defaultRegionMetadata, null /* Don't need the carrier code */);
         // If the number was not valid before but is valid now, or if it was too long before, we
         // consider the number with the country calling code stripped to be a better result and
@@ -2973,13 +3526,13 @@ public class PhoneNumberUtil {
             phoneNumber.setCountryCodeSource(CountryCodeSource.FROM_NUMBER_WITHOUT_PLUS_SIGN);
           }
           phoneNumber.setCountryCode(defaultCountryCode);
-          return defaultCountryCode;
+          return null;
         }
       }
     }
     // No country calling code present.
     phoneNumber.setCountryCode(0);
-    return 0;
+    return null;
   }
 
   /**
@@ -2988,21 +3541,9 @@ public class PhoneNumberUtil {
    */
   private boolean parsePrefixAsIdd(Pattern iddPattern, StringBuilder number) {
     Matcher m = iddPattern.matcher(number);
-    if (m.lookingAt()) {
-      int matchEnd = m.end();
-      // Only strip this if the first digit after the match is not a 0, since country calling codes
-      // cannot begin with 0.
-      Matcher digitMatcher = CAPTURING_DIGIT_PATTERN.matcher(number.substring(matchEnd));
-      if (digitMatcher.find()) {
-        String normalizedGroup = normalizeDigitsOnly(digitMatcher.group(1));
-        if (normalizedGroup.equals("0")) {
-          return false;
-        }
-      }
-      number.delete(0, matchEnd);
-      return true;
-    }
-    return false;
+    // Only strip this if the first digit after the match is not a 0, since country calling codes
+    // cannot begin with 0.
+    return m.lookingAt() && PrefixStripper.stripInternationalPrefix(number, m.end());
   }
 
   /**
@@ -3024,20 +3565,49 @@ public class PhoneNumberUtil {
     if (number.length() == 0) {
       return CountryCodeSource.FROM_DEFAULT_COUNTRY;
     }
+    if (stripPlusSignsAndNormalize(number)) {
+      return CountryCodeSource.FROM_NUMBER_WITH_PLUS_SIGN;
+    }
+    // Attempt to parse the first digits as an international prefix.
+    Pattern iddPattern = regexCache.getPatternForRegex(possibleIddPrefix);
+    return parsePrefixAsIdd(iddPattern, number)
+           ? CountryCodeSource.FROM_NUMBER_WITH_IDD
+           : CountryCodeSource.FROM_DEFAULT_COUNTRY;
+  }
+
+  /**
+   * Same as {@link #maybeStripInternationalPrefixAndNormalize(StringBuilder, String)}, but strips
+   * the international prefix with the precompiled stripper of the region, or doesn't strip it if
+   * the stripper is null.
+   */
+  private CountryCodeSource maybeStripInternationalPrefixAndNormalize(
+      StringBuilder number, PrefixStripper prefixStripper) {
+    if (number.length() == 0) {
+      return CountryCodeSource.FROM_DEFAULT_COUNTRY;
+    }
+    if (stripPlusSignsAndNormalize(number)) {
+      return CountryCodeSource.FROM_NUMBER_WITH_PLUS_SIGN;
+    }
+    return prefixStripper != null && prefixStripper.stripInternationalPrefix(number)
+           ? CountryCodeSource.FROM_NUMBER_WITH_IDD
+           : CountryCodeSource.FROM_DEFAULT_COUNTRY;
+  }
+
+  /**
+   * Strips the plus signs from the start of the number if present and normalizes the number.
+   * Returns whether any plus signs were stripped.
+   */
+  private static boolean stripPlusSignsAndNormalize(StringBuilder number) {
     // Check to see if the number begins with one or more plus signs.
     Matcher m = PLUS_CHARS_PATTERN.matcher(number);
     if (m.lookingAt()) {
       number.delete(0, m.end());
       // Can now normalize the rest of the number since we've consumed the "+" sign at the start.
       normalize(number);
-      return CountryCodeSource.FROM_NUMBER_WITH_PLUS_SIGN;
+      return true;
     }
-    // Attempt to parse the first digits as an international prefix.
-    Pattern iddPattern = regexCache.getPatternForRegex(possibleIddPrefix);
     normalize(number);
-    return parsePrefixAsIdd(iddPattern, number)
-           ? CountryCodeSource.FROM_NUMBER_WITH_IDD
-           : CountryCodeSource.FROM_DEFAULT_COUNTRY;
+    return false;
   }
 
   /**
@@ -3052,53 +3622,20 @@ public class PhoneNumberUtil {
   // @VisibleForTesting
   boolean maybeStripNationalPrefixAndCarrierCode(
       StringBuilder number, PhoneMetadata metadata, StringBuilder carrierCode) {
-    int numberLength = number.length();
-    String possibleNationalPrefix = metadata.getNationalPrefixForParsing();
-    if (numberLength == 0 || possibleNationalPrefix.length() == 0) {
-      // Early return for numbers of zero length.
-      return false;
-    }
-    // Attempt to parse the first digits as a national prefix.
-    Matcher prefixMatcher = regexCache.getPatternForRegex(possibleNationalPrefix).matcher(number);
-    if (prefixMatcher.lookingAt()) {
-      PhoneNumberDesc generalDesc = metadata.getGeneralDesc();
-      // Check if the original number is viable.
-      boolean isViableOriginalNumber = matcherApi.matchNationalNumber(number, generalDesc, false);
-      // prefixMatcher.group(numOfGroups) == null implies nothing was captured by the capturing
-      // groups in possibleNationalPrefix; therefore, no transformation is necessary, and we just
-      // remove the national prefix.
-      int numOfGroups = prefixMatcher.groupCount();
-      String transformRule = metadata.getNationalPrefixTransformRule();
-      if (transformRule == null || transformRule.length() == 0
-          || prefixMatcher.group(numOfGroups) == null) {
-        // If the original number was viable, and the resultant number is not, we return.
-        if (isViableOriginalNumber
-            && !matcherApi.matchNationalNumber(
-                number.substring(prefixMatcher.end()), generalDesc, false)) {
-          return false;
-        }
-        if (carrierCode != null && numOfGroups > 0 && prefixMatcher.group(numOfGroups) != null) {
-          carrierCode.append(prefixMatcher.group(1));
-        }
-        number.delete(0, prefixMatcher.end());
-        return true;
-      } else {
-        // Check that the resultant number is still viable. If not, return. Check this by copying
-        // the string buffer and making the transformation on the copy first.
-        StringBuilder transformedNumber = new StringBuilder(number);
-        transformedNumber.replace(0, numberLength, prefixMatcher.replaceFirst(transformRule));
-        if (isViableOriginalNumber
-            && !matcherApi.matchNationalNumber(transformedNumber.toString(), generalDesc, false)) {
-          return false;
-        }
-        if (carrierCode != null && numOfGroups > 1) {
-          carrierCode.append(prefixMatcher.group(1));
-        }
-        number.replace(0, number.length(), transformedNumber.toString());
-        return true;
-      }
-    }
-    return false;
+    // The strippers are cached for loaded metadata, which never changes, but the tests change the
+    // metadata passed here between calls.
+    return PrefixStripper.create(metadata)
+        .stripNationalPrefixAndCarrierCode(number, matcherApi, carrierCode);
+  }
+
+  /**
+   * Does the work of {@link #maybeStripNationalPrefixAndCarrierCode} for loaded metadata, using the
+   * cached stripper of its prefixes.
+   */
+  boolean stripNationalPrefixAndCarrierCode(
+      StringBuilder number, PhoneMetadata metadata, StringBuilder carrierCode) {
+    return getDerivedMetadata(metadata).getPrefixStripper()
+        .stripNationalPrefixAndCarrierCode(number, matcherApi, carrierCode);
   }
 
   /**
@@ -3110,20 +3647,13 @@ public class PhoneNumberUtil {
    */
   // @VisibleForTesting
   String maybeStripExtension(StringBuilder number) {
-    Matcher m = EXTN_PATTERN.matcher(number);
+    int extensionStart = ExtensionScanner.FOR_PARSING.findAtEnd(number);
     // If we find a potential extension, and the number preceding this is a viable number, we assume
     // it is an extension.
-    if (m.find() && isViablePhoneNumber(number.substring(0, m.start()))) {
-      // The numbers are captured into groups in the regular expression.
-      for (int i = 1, length = m.groupCount(); i <= length; i++) {
-        if (m.group(i) != null) {
-          // We go through the capturing groups until we find one that captured some digits. If none
-          // did, then we will return the empty string.
-          String extension = m.group(i);
-          number.delete(m.start(), number.length());
-          return extension;
-        }
-      }
+    if (extensionStart >= 0 && isViablePhoneNumber(number.substring(0, extensionStart))) {
+      String extension = ExtensionScanner.getExtensionDigits(number, extensionStart);
+      number.delete(extensionStart, number.length());
+      return extension;
     }
     return "";
   }
@@ -3224,6 +3754,111 @@ public class PhoneNumberUtil {
     parseHelper(numberToParse, defaultRegion, true, true, phoneNumber);
   }
 
+  /**
+   * Same as {@link #parse(CharSequence, String, PhoneNumber)}, but reports a string which can't be
+   * parsed by returning its {@link ParseStatus} instead of throwing a {@link NumberParseException}.
+   * Since no exception is created, this is much cheaper for input which is often not a viable
+   * phone number.
+   *
+   * <p>The phoneNumber is cleared first, so it can be reused for many calls. Its contents are
+   * unspecified unless {@link ParseStatus#SUCCESS} is returned.
+   *
+   * @param numberToParse  number that we are attempting to parse, see {@link #parse}
+   * @param defaultRegion  region that we are expecting the number to be from, see {@link #parse}
+   * @param phoneNumber  the PhoneNumber object to fill with the parsed number
+   * @return  {@link ParseStatus#SUCCESS} if the string was parsed, or the reason why it couldn't be
+   */
+  public ParseStatus tryParse(CharSequence numberToParse, String defaultRegion,
+      PhoneNumber phoneNumber) {
+    phoneNumber.clear();
+    return toParseStatus(tryParseHelper(numberToParse, defaultRegion, false, true, phoneNumber));
+  }
+
+  /**
+   * Same as {@link #tryParse}, but populates the raw_input and country_code_source fields of the
+   * phoneNumber like {@link #parseAndKeepRawInput(CharSequence, String, PhoneNumber)}.
+   */
+  public ParseStatus tryParseAndKeepRawInput(CharSequence numberToParse, String defaultRegion,
+      PhoneNumber phoneNumber) {
+    phoneNumber.clear();
+    return toParseStatus(tryParseHelper(numberToParse, defaultRegion, true, true, phoneNumber));
+  }
+
+  private static ParseStatus toParseStatus(ParseError error) {
+    return error == null ? ParseStatus.SUCCESS : error.status;
+  }
+
+  /**
+   * Parses and validates the given numbers in parallel on the executor, and waits until all of
+   * them are done. This is the same as calling {@link #tryParse}, {@link #getNumberType} and
+   * {@link #isValidNumber} for every number, but the results are stored in columns of a {@link
+   * BulkParseResult} instead of in a {@link PhoneNumber} per number, and the numbers are processed
+   * in chunks, each reusing a single PhoneNumber.
+   *
+   * @param numbers  the numbers to parse, see {@link #parse}
+   * @param defaultRegions  for every number, the region that we are expecting it to be from, see
+   *     {@link #parse}
+   * @param executor  the executor to process the chunks of numbers on, or null to process them on
+   *     the calling thread. On the JVM, a {@code ForkJoinPool} is a good choice for the executor
+   * @return  the results, in the same order as the numbers
+   * @throws IllegalArgumentException if the numbers and the default regions differ in size
+   * @throws InterruptedException if the current thread is interrupted while waiting for the
+   *     numbers to be processed
+   */
+  public BulkParseResult parseAndValidateAll(final List<? extends CharSequence> numbers,
+      final List<String> defaultRegions, Executor executor) throws InterruptedException {
+    if (numbers.size() != defaultRegions.size()) {
+      throw new IllegalArgumentException("Got " + numbers.size() + " numbers, but "
+          + defaultRegions.size() + " default regions");
+    }
+    final BulkParseResult result = new BulkParseResult(numbers.size());
+    if (executor == null) {
+      parseAndValidateRange(numbers, defaultRegions, 0, numbers.size(), result);
+      return result;
+    }
+    List<Future<?>> chunks = new ArrayList<Future<?>>();
+    for (int start = 0; start < numbers.size(); start += BULK_CHUNK_SIZE) {
+      final int from = start;
+      final int to = Math.min(numbers.size(), start + BULK_CHUNK_SIZE);
+      FutureTask<Void> chunk = new FutureTask<Void>(new Callable<Void>() {
+        @Override
+        public Void call() {
+          parseAndValidateRange(numbers, defaultRegions, from, to, result);
+          return null;
+        }
+      });
+      executor.execute(chunk);
+      chunks.add(chunk);
+    }
+    awaitAll(chunks);
+    return result;
+  }
+
+  /**
+   * Same as {@link #parseAndValidateAll(List, List, Executor)}, but with the same default region
+   * for all the numbers.
+   */
+  public BulkParseResult parseAndValidateAll(List<? extends CharSequence> numbers,
+      String defaultRegion, Executor executor) throws InterruptedException {
+    return parseAndValidateAll(numbers, Collections.nCopies(numbers.size(), defaultRegion),
+        executor);
+  }
+
+  private void parseAndValidateRange(List<? extends CharSequence> numbers,
+      List<String> defaultRegions, int from, int to, BulkParseResult result) {
+    PhoneNumber number = new PhoneNumber();
+    for (int i = from; i < to; i++) {
+      ParseStatus status = tryParse(numbers.get(i), defaultRegions.get(i), number);
+      if (status != ParseStatus.SUCCESS) {
+        result.setFailed(i, status);
+        continue;
+      }
+      // A number is valid exactly when its type is known, so the type is only detected once.
+      result.setParsed(i, number.getCountryCode(), number.getNationalNumber(),
+          getLeadingZeros(number), getNumberType(number));
+    }
+  }
+
   /**
    * Returns an iterable over all {@link PhoneNumberMatch PhoneNumberMatches} in {@code text}. This
    * is a shortcut for {@link #findNumbers(CharSequence, String, Leniency, long)
@@ -3297,28 +3932,63 @@ public class PhoneNumberUtil {
   private void parseHelper(CharSequence numberToParse, String defaultRegion,
       boolean keepRawInput, boolean checkRegion, PhoneNumber phoneNumber)
       throws NumberParseException {
+    ParseError error =
+        tryParseHelper(numberToParse, defaultRegion, keepRawInput, checkRegion, phoneNumber);
+    if (error != null) {
+      throw error.toException();
+    }
+  }
+
+  /**
+   * Same as {@link #parseHelper}, but instead of throwing, returns the error, or null if the number
+   * was parsed. Neither this method nor the ones it calls throw, so that unparseable input doesn't
+   * cost an exception.
+   */
+  private ParseError tryParseHelper(CharSequence numberToParse, String defaultRegion,
+      boolean keepRawInput, boolean checkRegion, PhoneNumber phoneNumber) {
+    ClockCache<ParsingKey, ParsingResult> cache = parsingCache;
+    // Only the public parsing methods, which check the region, use the cache.
+    if (cache == null || !checkRegion || numberToParse == null
+        || numberToParse.length() > MAX_INPUT_STRING_LENGTH) {
+      return tryParseHelperWithoutCache(
+          numberToParse, defaultRegion, keepRawInput, checkRegion, phoneNumber);
+    }
+    ParsingKey key = new ParsingKey(numberToParse.toString(), defaultRegion, keepRawInput);
+    ParsingResult result = cache.get(key);
+    if (result == null) {
+      PhoneNumber parsedNumber = new PhoneNumber();
+      ParseError error = tryParseHelperWithoutCache(
+          key.numberToParse, defaultRegion, keepRawInput, true, parsedNumber);
+      result = cache.put(key, new ParsingResult(parsedNumber, error));
+    }
+    // When the region is checked, parsing only ever sets fields of the number and never clears
+    // them, so merging the fields set on a new number is the same as parsing into this one again.
+    phoneNumber.mergeFrom(result.phoneNumber);
+    return result.error;
+  }
+
+  private ParseError tryParseHelperWithoutCache(CharSequence numberToParse, String defaultRegion,
+      boolean keepRawInput, boolean checkRegion, PhoneNumber phoneNumber) {
     if (numberToParse == null) {
-      throw new NumberParseException(NumberParseException.ErrorType.NOT_A_NUMBER,
-                                     "The phone number supplied was null.");
+      return ParseError.NULL_INPUT;
     } else if (numberToParse.length() > MAX_INPUT_STRING_LENGTH) {
-      throw new NumberParseException(NumberParseException.ErrorType.TOO_LONG,
-                                     "The string supplied was too long to parse.");
+      return ParseError.INPUT_TOO_LONG;
     }
 
     StringBuilder nationalNumber = new StringBuilder();
     String numberBeingParsed = numberToParse.toString();
-    buildNationalNumberForParsing(numberBeingParsed, nationalNumber);
+    if (!buildNationalNumberForParsing(numberBeingParsed, nationalNumber)) {
+      return ParseError.INVALID_PHONE_CONTEXT;
+    }
 
     if (!isViablePhoneNumber(nationalNumber)) {
-      throw new NumberParseException(NumberParseException.ErrorType.NOT_A_NUMBER,
-                                     "The string supplied did not seem to be a phone number.");
+      return ParseError.NOT_VIABLE;
     }
 
     // Check the region supplied is valid, or that the extracted number starts with some sort of +
     // sign so the number's region can be determined.
     if (checkRegion && !checkRegionForParsing(nationalNumber, defaultRegion)) {
-      throw new NumberParseException(NumberParseException.ErrorType.INVALID_COUNTRY_CODE,
-                                     "Missing or invalid default region.");
+      return ParseError.INVALID_DEFAULT_REGION;
     }
 
     if (keepRawInput) {
@@ -3335,29 +4005,28 @@ public class PhoneNumberUtil {
     // Check to see if the number is given in international format so we know whether this number is
     // from the default region or not.
     StringBuilder normalizedNationalNumber = new StringBuilder();
-    int countryCode = 0;
-    try {
-      // TODO: This method should really just take in the string buffer that has already
-      // been created, and just remove the prefix, rather than taking in a string and then
-      // outputting a string buffer.
-      countryCode = maybeExtractCountryCode(nationalNumber, regionMetadata,
-                                            normalizedNationalNumber, keepRawInput, phoneNumber);
-    } catch (NumberParseException e) {
+    // TODO: This method should really just take in the string buffer that has already
+    // been created, and just remove the prefix, rather than taking in a string and then
+    // outputting a string buffer.
+    ParseError error = tryExtractCountryCode(nationalNumber, regionMetadata,
+        normalizedNationalNumber, keepRawInput, phoneNumber);
+    if (error != null) {
       Matcher matcher = PLUS_CHARS_PATTERN.matcher(nationalNumber);
-      if (e.getErrorType() == NumberParseException.ErrorType.INVALID_COUNTRY_CODE
-          && matcher.lookingAt()) {
+      if (error.status == ParseStatus.INVALID_COUNTRY_CODE && matcher.lookingAt()) {
         // Strip the plus-char, and try again.
-        countryCode = maybeExtractCountryCode(nationalNumber.substring(matcher.end()),
-                                              regionMetadata, normalizedNationalNumber,
-                                              keepRawInput, phoneNumber);
-        if (countryCode == 0) {
-          throw new NumberParseException(NumberParseException.ErrorType.INVALID_COUNTRY_CODE,
-                                         "Could not interpret numbers after plus-sign.");
+        error = tryExtractCountryCode(nationalNumber.substring(matcher.end()), regionMetadata,
+            normalizedNationalNumber, keepRawInput, phoneNumber);
+        if (error != null) {
+          return error;
+        }
+        if (phoneNumber.getCountryCode() == 0) {
+          return ParseError.UNINTERPRETABLE_AFTER_PLUS_SIGN;
         }
       } else {
-        throw new NumberParseException(e.getErrorType(), e.getMessage());
+        return error;
       }
     }
+    int countryCode = phoneNumber.getCountryCode();
     if (countryCode != 0) {
       String phoneNumberRegion = getRegionCodeForCountryCode(countryCode);
       if (!phoneNumberRegion.equals(defaultRegion)) {
@@ -3376,13 +4045,12 @@ public class PhoneNumberUtil {
       }
     }
     if (normalizedNationalNumber.length() < MIN_LENGTH_FOR_NSN) {
-      throw new NumberParseException(NumberParseException.ErrorType.TOO_SHORT_NSN,
-                                     "The string supplied is too short to be a phone number.");
+      return ParseError.NATIONAL_NUMBER_TOO_SHORT;
     }
     if (regionMetadata != null) {
       StringBuilder carrierCode = new StringBuilder();
       StringBuilder potentialNationalNumber = new StringBuilder(normalizedNationalNumber);
-      maybeStripNationalPrefixAndCarrierCode(potentialNationalNumber, regionMetadata, carrierCode);
+      stripNationalPrefixAndCarrierCode(potentialNationalNumber, regionMetadata, carrierCode);
       // We require that the NSN remaining after stripping the national prefix and carrier code be
       // long enough to be a possible length for the region. Otherwise, we don't do the stripping,
       // since the original number could be a valid short number.
@@ -3398,15 +4066,143 @@ public class PhoneNumberUtil {
     }
     int lengthOfNationalNumber = normalizedNationalNumber.length();
     if (lengthOfNationalNumber < MIN_LENGTH_FOR_NSN) {
-      throw new NumberParseException(NumberParseException.ErrorType.TOO_SHORT_NSN,
-                                     "The string supplied is too short to be a phone number.");
+      return ParseError.NATIONAL_NUMBER_TOO_SHORT;
     }
     if (lengthOfNationalNumber > MAX_LENGTH_FOR_NSN) {
-      throw new NumberParseException(NumberParseException.ErrorType.TOO_LONG,
-                                     "The string supplied is too long to be a phone number.");
+      return ParseError.NATIONAL_NUMBER_TOO_LONG;
     }
     setItalianLeadingZerosForPhoneNumber(normalizedNationalNumber, phoneNumber);
     phoneNumber.setNationalNumber(Long.parseLong(normalizedNationalNumber.toString()));
+    return null;
+  }
+
+  /**
+   * The reasons for which parsing can fail, each with the status it is reported as and the message
+   * of the {@link NumberParseException} thrown for it by {@link #parse}.
+   */
+  private enum ParseError {
+    NULL_INPUT(ParseStatus.NOT_A_NUMBER, "The phone number supplied was null."),
+    INPUT_TOO_LONG(ParseStatus.TOO_LONG, "The string supplied was too long to parse."),
+    INVALID_PHONE_CONTEXT(ParseStatus.NOT_A_NUMBER, "The phone-context value is invalid."),
+    NOT_VIABLE(ParseStatus.NOT_A_NUMBER,
+        "The string supplied did not seem to be a phone number."),
+    INVALID_DEFAULT_REGION(ParseStatus.INVALID_COUNTRY_CODE,
+        "Missing or invalid default region."),
+    TOO_SHORT_AFTER_IDD(ParseStatus.TOO_SHORT_AFTER_IDD,
+        "Phone number had an IDD, but after this was not "
+        + "long enough to be a viable phone number."),
+    UNRECOGNISED_COUNTRY_CODE(ParseStatus.INVALID_COUNTRY_CODE,
+        "Country calling code supplied was not recognised."),
+    UNINTERPRETABLE_AFTER_PLUS_SIGN(ParseStatus.INVALID_COUNTRY_CODE,
+        "Could not interpret numbers after plus-sign."),
+    NATIONAL_NUMBER_TOO_SHORT(ParseStatus.TOO_SHORT_NSN,
+        "The string supplied is too short to be a phone number."),
+    NATIONAL_NUMBER_TOO_LONG(ParseStatus.TOO_LONG,
+        "The string supplied is too long to be a phone number.");
+
+    final ParseStatus status;
+    private final String message;
+
+    ParseError(ParseStatus status, String message) {
+      this.status = status;
+      this.message = message;
+    }
+
+    NumberParseException toException() {
+      return new NumberParseException(status.getErrorType(), message);
+    }
+  }
+
+  /**
+   * The fields of a phone number which its formatted forms depend on, together with the format, as
+   * a key of the formatting cache. The raw input isn't part of the key, as numbers formatted as
+   * their raw input aren't cached.
+   */
+  private static final class FormattingKey {
+    private final long nationalNumber;
+    private final int countryCode;
+    private final int leadingZeros;
+    private final PhoneNumberFormat numberFormat;
+    private final String extension;
+
+    FormattingKey(PhoneNumber number, PhoneNumberFormat numberFormat) {
+      nationalNumber = number.getNationalNumber();
+      countryCode = number.getCountryCode();
+      leadingZeros = getLeadingZeros(number);
+      this.numberFormat = numberFormat;
+      extension = number.hasExtension() ? number.getExtension() : "";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof FormattingKey)) {
+        return false;
+      }
+      FormattingKey other = (FormattingKey) obj;
+      return nationalNumber == other.nationalNumber && countryCode == other.countryCode
+          && leadingZeros == other.leadingZeros && numberFormat == other.numberFormat
+          && extension.equals(other.extension);
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = (int) (nationalNumber ^ (nationalNumber >>> 32));
+      hash = hash * 31 + countryCode;
+      hash = hash * 31 + leadingZeros;
+      hash = hash * 31 + (numberFormat != null ? numberFormat.ordinal() : -1);
+      return hash * 31 + extension.hashCode();
+    }
+  }
+
+  /** The arguments of parsing, as a key of the parsing cache. */
+  private static final class ParsingKey {
+    final String numberToParse;
+    private final String defaultRegion;
+    private final boolean keepRawInput;
+
+    ParsingKey(String numberToParse, String defaultRegion, boolean keepRawInput) {
+      this.numberToParse = numberToParse;
+      this.defaultRegion = defaultRegion;
+      this.keepRawInput = keepRawInput;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ParsingKey)) {
+        return false;
+      }
+      ParsingKey other = (ParsingKey) obj;
+      return keepRawInput == other.keepRawInput && numberToParse.equals(other.numberToParse)
+          && (defaultRegion == null
+              ? other.defaultRegion == null : defaultRegion.equals(other.defaultRegion));
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = numberToParse.hashCode();
+      hash = hash * 31 + (defaultRegion != null ? defaultRegion.hashCode() : 0);
+      return hash * 2 + (keepRawInput ? 1 : 0);
+    }
+  }
+
+  /**
+   * The fields of a number set by parsing, which are only some of them if parsing failed, and the
+   * error, or null if the number was parsed. The number is never changed once cached.
+   */
+  private static final class ParsingResult {
+    final PhoneNumber phoneNumber;
+    final ParseError error;
+
+    ParsingResult(PhoneNumber phoneNumber, ParseError error) {
+      this.phoneNumber = phoneNumber;
+      this.error = error;
+    }
   }
 
   /**
@@ -3456,15 +4252,16 @@ public class PhoneNumberUtil {
   /**
    * Converts numberToParse to a form that we can parse and write it to nationalNumber if it is
    * written in RFC3966; otherwise extract a possible number out of it and write to nationalNumber.
+   *
+   * @return  false if the phone-context value is invalid, true otherwise
    */
-  private void buildNationalNumberForParsing(String numberToParse, StringBuilder nationalNumber)
-      throws NumberParseException {
+  private boolean buildNationalNumberForParsing(String numberToParse,
+      StringBuilder nationalNumber) {
     int indexOfPhoneContext = numberToParse.indexOf(RFC3966_PHONE_CONTEXT);
 
     String phoneContext = extractPhoneContext(numberToParse, indexOfPhoneContext);
     if (!isPhoneContextValid(phoneContext)) {
-      throw new NumberParseException(NumberParseException.ErrorType.NOT_A_NUMBER,
-          "The phone-context value is invalid.");
+      return false;
     }
     if (phoneContext != null) {
       // If the phone context contains a phone number prefix, we need to capture it, whereas domains
@@ -3500,6 +4297,7 @@ public class PhoneNumberUtil {
     // parameters are left in nationalNumber. This is because we are concerned about deleting
     // content from a potential number string when there is no strong evidence that the number is
     // actually written in RFC3966.
+    return true;
   }
 
   /**
@@ -3692,8 +4490,8 @@ public class PhoneNumberUtil {
       // internationally diallable, and will be caught here.
       return true;
     }
-    String nationalSignificantNumber = getNationalSignificantNumber(number);
-    return !isNumberMatchingDesc(nationalSignificantNumber, metadata.getNoInternationalDialling());
+    return !isNumberMatchingDesc(number.getNationalNumber(), getLeadingZeros(number),
+        metadata.getNoInternationalDialling());
   }
 
   /**
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import java.util.List;
+
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.PhoneNumberType;
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.ValidationResult;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+
+/**
+ * The possible lengths of the numbers of every type of a single region, kept as bitmasks so that
+ * the length of a number is tested without going through the boxed lists of the metadata. The
+ * lengths of {@link PhoneNumberType#FIXED_LINE_OR_MOBILE} are merged once, when the lengths are
+ * created, instead of on every test.
+ *
+ * <p>This class is thread-safe.
+ */
+final class PossibleLengths {
+  // Lengths are kept as bits of an int.
+  private static final int MAX_LENGTH = Integer.SIZE - 1;
+
+  // The minimum length of a type which isn't supported by the region at all.
+  private static final int UNSUPPORTED = -1;
+  // The minimum length of a type which is left to the lists of the metadata, because some of its
+  // descriptions are missing or its lengths don't fit into the bitmasks.
+  private static final int UNDECIDED = -2;
+
+  private static final PhoneNumberType[] TYPES = PhoneNumberType.values();
+
+  // All indexed by the ordinal of the type.
+  private final int[] possibleLengthMasks = new int[TYPES.length];
+  private final int[] localOnlyLengthMasks = new int[TYPES.length];
+  private final int[] minLengths = new int[TYPES.length];
+  private final int[] maxLengths = new int[TYPES.length];
+
+  private PossibleLengths(PhoneMetadata metadata) {
+    for (PhoneNumberType type : TYPES) {
+      int index = type.ordinal();
+      minLengths[index] = UNDECIDED;
+      if (type == PhoneNumberType.FIXED_LINE_OR_MOBILE) {
+        addFixedLineOrMobileLengths(metadata, index);
+      } else {
+        addLengths(metadata, getNumberDescByType(metadata, type), index);
+      }
+    }
+  }
+
+  /** Creates the possible lengths of the given metadata. */
+  static PossibleLengths create(PhoneMetadata metadata) {
+    return new PossibleLengths(metadata);
+  }
+
+  /**
+   * Tests the length of a national significant number of the given type the way
+   * {@code PhoneNumberUtil.testNumberLength} does, or returns null if the lengths of the type have
+   * to be tested with the lists of the metadata.
+   */
+  ValidationResult testLength(int length, PhoneNumberType type) {
+    int index = type.ordinal();
+    int minLength = minLengths[index];
+    if (minLength == UNDECIDED) {
+      return null;
+    }
+    // If the type is not supported at all, we return invalid length.
+    if (minLength == UNSUPPORTED) {
+      return ValidationResult.INVALID_LENGTH;
+    }
+    // There is never an overlap between the possible lengths and the local-only lengths.
+    if (length <= MAX_LENGTH && (localOnlyLengthMasks[index] & (1 << length)) != 0) {
+      return ValidationResult.IS_POSSIBLE_LOCAL_ONLY;
+    }
+    if (minLength > length) {
+      return ValidationResult.TOO_SHORT;
+    } else if (maxLengths[index] < length) {
+      return ValidationResult.TOO_LONG;
+    }
+    return (possibleLengthMasks[index] & (1 << length)) != 0
+        ? ValidationResult.IS_POSSIBLE : ValidationResult.INVALID_LENGTH;
+  }
+
+  private void addLengths(PhoneMetadata metadata, PhoneNumberDesc desc, int index) {
+    PhoneNumberDesc generalDesc = metadata.getGeneralDesc();
+    if (desc == null || generalDesc == null) {
+      return;
+    }
+    // Where a sub-description has the same possible lengths as the general description, they are
+    // missing from it.
+    List<Integer> possibleLengths = desc.getPossibleLengthList().isEmpty()
+        ? generalDesc.getPossibleLengthList() : desc.getPossibleLengthList();
+    if (possibleLengths.isEmpty()) {
+      return;
+    }
+    if (possibleLengths.get(0) == -1) {
+      minLengths[index] = UNSUPPORTED;
+      return;
+    }
+    addLengths(possibleLengths, desc.getPossibleLengthLocalOnlyList(), index);
+  }
+
+  private void addFixedLineOrMobileLengths(PhoneMetadata metadata, int index) {
+    PhoneNumberDesc fixedLineDesc = metadata.getFixedLine();
+    PhoneNumberDesc mobileDesc = metadata.getMobile();
+    PhoneNumberDesc generalDesc = metadata.getGeneralDesc();
+    if (fixedLineDesc == null || mobileDesc == null || generalDesc == null) {
+      return;
+    }
+    if (!hasPossibleNumberData(fixedLineDesc)) {
+      // Where no fixed-line data is available, only mobile is checked.
+      addLengths(metadata, mobileDesc, index);
+      return;
+    }
+    if (!hasPossibleNumberData(mobileDesc)) {
+      addLengths(metadata, fixedLineDesc, index);
+      return;
+    }
+    List<Integer> fixedLineLengths = fixedLineDesc.getPossibleLengthList().isEmpty()
+        ? generalDesc.getPossibleLengthList() : fixedLineDesc.getPossibleLengthList();
+    List<Integer> mobileLengths = mobileDesc.getPossibleLengthList().isEmpty()
+        ? generalDesc.getPossibleLengthList() : mobileDesc.getPossibleLengthList();
+    if (fixedLineLengths.isEmpty() || mobileLengths.isEmpty()) {
+      return;
+    }
+    // The merged lengths are sorted, so the type isn't supported if -1 is the smallest of them.
+    if (Math.min(fixedLineLengths.get(0), mobileLengths.get(0)) == -1) {
+      minLengths[index] = UNSUPPORTED;
+      return;
+    }
+    if (addLengths(fixedLineLengths, fixedLineDesc.getPossibleLengthLocalOnlyList(), index)) {
+      addLengths(mobileLengths, mobileDesc.getPossibleLengthLocalOnlyList(), index);
+    }
+  }
+
+  /**
+   * Adds the sorted lengths to the masks of the type, or leaves the type undecided if they aren't
+   * sorted or don't fit into the masks. Returns whether the lengths have been added.
+   */
+  private boolean addLengths(List<Integer> possibleLengths, List<Integer> localOnlyLengths,
+      int index) {
+    int possibleLengthMask = 0;
+    int minLength = possibleLengths.get(0);
+    int maxLength = possibleLengths.get(possibleLengths.size() - 1);
+    int previousLength = 0;
+    for (int length : possibleLengths) {
+      if (length < previousLength || length > MAX_LENGTH) {
+        minLengths[index] = UNDECIDED;
+        return false;
+      }
+      possibleLengthMask |= 1 << length;
+      previousLength = length;
+    }
+    int localOnlyLengthMask = 0;
+    for (int length : localOnlyLengths) {
+      if (length < 0 || length > MAX_LENGTH) {
+        minLengths[index] = UNDECIDED;
+        return false;
+      }
+      localOnlyLengthMask |= 1 << length;
+    }
+    if (minLengths[index] != UNDECIDED) {
+      minLength = Math.min(minLength, minLengths[index]);
+      maxLength = Math.max(maxLength, maxLengths[index]);
+    }
+    possibleLengthMasks[index] |= possibleLengthMask;
+    localOnlyLengthMasks[index] |= localOnlyLengthMask;
+    minLengths[index] = minLength;
+    maxLengths[index] = maxLength;
+    return true;
+  }
+
+  private static boolean hasPossibleNumberData(PhoneNumberDesc desc) {
+    // The value -1 means that no numbers exist for this type.
+    return desc.getPossibleLengthCount() != 1 || desc.getPossibleLength(0) != -1;
+  }
+
+  private static PhoneNumberDesc getNumberDescByType(PhoneMetadata metadata,
+      PhoneNumberType type) {
+    switch (type) {
+      case PREMIUM_RATE:
+        return metadata.getPremiumRate();
+      case TOLL_FREE:
+        return metadata.getTollFree();
+      case MOBILE:
+        return metadata.getMobile();
+      case FIXED_LINE:
+        return metadata.getFixedLine();
+      case SHARED_COST:
+        return metadata.getSharedCost();
+      case VOIP:
+        return metadata.getVoip();
+      case PERSONAL_NUMBER:
+        return metadata.getPersonalNumber();
+      case PAGER:
+        return metadata.getPager();
+      case UAN:
+        return metadata.getUan();
+      case VOICEMAIL:
+        return metadata.getVoicemail();
+      default:
+        return metadata.getGeneralDesc();
+    }
+  }
+}
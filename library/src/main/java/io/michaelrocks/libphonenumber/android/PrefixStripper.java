@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+import io.michaelrocks.libphonenumber.android.internal.MatcherApi;
+
+/**
+ * Strips the international and national prefixes of a single region from numbers being parsed.
+ * The prefix patterns of the metadata are compiled once, when the stripper is created, and the
+ * national prefix transform rule is parsed once instead of on every replacement. Prefixes which
+ * are plain digits, like most international prefixes, are compared without a pattern at all.
+ *
+ * <p>This class is thread-safe.
+ */
+final class PrefixStripper {
+  private final String nationalPrefixTransformRule;
+  private final PhoneNumberDesc generalDesc;
+
+  // Either a plain digit prefix or a pattern.
+  private final String internationalPrefixDigits;
+  private final Pattern internationalPrefixPattern;
+  private final String nationalPrefixDigits;
+  private final Pattern nationalPrefixPattern;
+  // Null if the rule is empty, or it can't be parsed ahead of time and is left to the matcher.
+  private final TransformRule transformRule;
+
+  private PrefixStripper(PhoneMetadata metadata) {
+    String internationalPrefix = metadata.getInternationalPrefix();
+    String nationalPrefixForParsing = metadata.getNationalPrefixForParsing();
+    nationalPrefixTransformRule = metadata.getNationalPrefixTransformRule();
+    generalDesc = metadata.getGeneralDesc();
+
+    if (isDigits(internationalPrefix)) {
+      internationalPrefixDigits = internationalPrefix;
+      internationalPrefixPattern = null;
+    } else {
+      internationalPrefixDigits = null;
+      internationalPrefixPattern = Pattern.compile(internationalPrefix);
+    }
+
+    boolean hasTransformRule =
+        nationalPrefixTransformRule != null && nationalPrefixTransformRule.length() > 0;
+    if (nationalPrefixForParsing.length() == 0) {
+      nationalPrefixDigits = null;
+      nationalPrefixPattern = null;
+      transformRule = null;
+    } else if (isDigits(nationalPrefixForParsing) && !hasTransformRule) {
+      nationalPrefixDigits = nationalPrefixForParsing;
+      nationalPrefixPattern = null;
+      transformRule = null;
+    } else {
+      nationalPrefixDigits = null;
+      nationalPrefixPattern = Pattern.compile(nationalPrefixForParsing);
+      transformRule = hasTransformRule
+          ? TransformRule.parse(nationalPrefixTransformRule, nationalPrefixPattern) : null;
+    }
+  }
+
+  /** Creates a stripper for the prefixes of the given metadata. */
+  static PrefixStripper create(PhoneMetadata metadata) {
+    return new PrefixStripper(metadata);
+  }
+
+  /**
+   * Strips the international prefix from the start of the normalized number if present, which is
+   * what {@code PhoneNumberUtil.parsePrefixAsIdd()} does with the pattern of the prefix.
+   */
+  boolean stripInternationalPrefix(StringBuilder number) {
+    int prefixEnd;
+    if (internationalPrefixDigits != null) {
+      if (!startsWith(number, internationalPrefixDigits)) {
+        return false;
+      }
+      prefixEnd = internationalPrefixDigits.length();
+    } else {
+      Matcher m = internationalPrefixPattern.matcher(number);
+      if (!m.lookingAt()) {
+        return false;
+      }
+      prefixEnd = m.end();
+    }
+    return stripInternationalPrefix(number, prefixEnd);
+  }
+
+  /**
+   * Strips an international prefix ending at the given index from the start of the number, unless
+   * the first digit after it is a 0, since country calling codes cannot begin with 0.
+   */
+  static boolean stripInternationalPrefix(StringBuilder number, int prefixEnd) {
+    int length = number.length();
+    for (int i = prefixEnd; i < length; ) {
+      int codePoint = number.codePointAt(i);
+      if (Character.isDigit(codePoint)) {
+        // Digits outside of the BMP aren't normalized to a 0.
+        if (Character.charCount(codePoint) == 1 && Character.digit(codePoint, 10) == 0) {
+          return false;
+        }
+        break;
+      }
+      i += Character.charCount(codePoint);
+    }
+    number.delete(0, prefixEnd);
+    return true;
+  }
+
+  /**
+   * Does the work of {@link PhoneNumberUtil#maybeStripNationalPrefixAndCarrierCode} for the
+   * metadata the stripper is created for.
+   */
+  boolean stripNationalPrefixAndCarrierCode(StringBuilder number, MatcherApi matcherApi,
+      StringBuilder carrierCode) {
+    if (number.length() == 0) {
+      return false;
+    }
+    if (nationalPrefixDigits != null) {
+      // Plain digits capture nothing, so the prefix is just removed.
+      if (!startsWith(number, nationalPrefixDigits)) {
+        return false;
+      }
+      int prefixEnd = nationalPrefixDigits.length();
+      if (matcherApi.matchNationalNumber(number, generalDesc, false)
+          && !matcherApi.matchNationalNumber(number.substring(prefixEnd), generalDesc, false)) {
+        return false;
+      }
+      number.delete(0, prefixEnd);
+      return true;
+    }
+    if (nationalPrefixPattern == null) {
+      return false;
+    }
+    Matcher prefixMatcher = nationalPrefixPattern.matcher(number);
+    if (!prefixMatcher.lookingAt()) {
+      return false;
+    }
+    // Check if the original number is viable.
+    boolean isViableOriginalNumber = matcherApi.matchNationalNumber(number, generalDesc, false);
+    // prefixMatcher.group(numOfGroups) == null implies nothing was captured by the capturing groups
+    // in the national prefix; therefore, no transformation is necessary, and we just remove the
+    // national prefix.
+    int numOfGroups = prefixMatcher.groupCount();
+    if (nationalPrefixTransformRule == null || nationalPrefixTransformRule.length() == 0
+        || prefixMatcher.group(numOfGroups) == null) {
+      // If the original number was viable, and the resultant number is not, we return.
+      if (isViableOriginalNumber && !matcherApi.matchNationalNumber(
+          number.substring(prefixMatcher.end()), generalDesc, false)) {
+        return false;
+      }
+      if (carrierCode != null && numOfGroups > 0 && prefixMatcher.group(numOfGroups) != null) {
+        carrierCode.append(prefixMatcher.group(1));
+      }
+      number.delete(0, prefixMatcher.end());
+      return true;
+    }
+    // Check that the resultant number is still viable. If not, return. Check this by making the
+    // transformation on a copy first.
+    String transformedNumber;
+    if (transformRule != null) {
+      StringBuilder builder = new StringBuilder(number.length() + 8);
+      transformRule.appendReplacement(prefixMatcher, builder);
+      transformedNumber = builder.append(number, prefixMatcher.end(), number.length()).toString();
+    } else {
+      transformedNumber = prefixMatcher.replaceFirst(nationalPrefixTransformRule);
+    }
+    if (isViableOriginalNumber
+        && !matcherApi.matchNationalNumber(transformedNumber, generalDesc, false)) {
+      return false;
+    }
+    if (carrierCode != null && numOfGroups > 1) {
+      carrierCode.append(prefixMatcher.group(1));
+    }
+    number.replace(0, number.length(), transformedNumber);
+    return true;
+  }
+
+  private static boolean isDigits(String regex) {
+    if (regex.length() == 0) {
+      return false;
+    }
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean startsWith(CharSequence number, String prefix) {
+    if (number.length() < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (number.charAt(i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A replacement string parsed the way {@link Matcher#appendReplacement} parses it, for a pattern
+   * with a known number of groups.
+   */
+  private static final class TransformRule {
+    // Literal text, or null where a group is referenced.
+    private final String[] literals;
+    private final int[] groups;
+
+    private TransformRule(String[] literals, int[] groups) {
+      this.literals = literals;
+      this.groups = groups;
+    }
+
+    /**
+     * Parses the rule, or returns null if it's invalid or uses named groups, so that the matcher
+     * reports the error or does the replacement when the rule is used.
+     */
+    static TransformRule parse(String rule, Pattern pattern) {
+      int groupCount = pattern.matcher("").groupCount();
+      int length = rule.length();
+      String[] literals = new String[length];
+      int[] groups = new int[length];
+      int count = 0;
+      StringBuilder literal = new StringBuilder();
+      int cursor = 0;
+      while (cursor < length) {
+        char c = rule.charAt(cursor++);
+        if (c == '\\') {
+          if (cursor == length) {
+            return null;
+          }
+          literal.append(rule.charAt(cursor++));
+        } else if (c == '$') {
+          if (cursor == length) {
+            return null;
+          }
+          int group = rule.charAt(cursor++) - '0';
+          if (group < 0 || group > 9) {
+            return null;
+          }
+          // The longest group number which exists is used, as by the matcher.
+          while (cursor < length) {
+            int digit = rule.charAt(cursor) - '0';
+            if (digit < 0 || digit > 9 || group * 10 + digit > groupCount) {
+              break;
+            }
+            group = group * 10 + digit;
+            cursor++;
+          }
+          if (group > groupCount) {
+            return null;
+          }
+          if (literal.length() > 0) {
+            literals[count++] = literal.toString();
+            literal.setLength(0);
+          }
+          groups[count++] = group;
+        } else {
+          literal.append(c);
+        }
+      }
+      if (literal.length() > 0) {
+        literals[count++] = literal.toString();
+      }
+      String[] trimmedLiterals = new String[count];
+      int[] trimmedGroups = new int[count];
+      System.arraycopy(literals, 0, trimmedLiterals, 0, count);
+      System.arraycopy(groups, 0, trimmedGroups, 0, count);
+      return new TransformRule(trimmedLiterals, trimmedGroups);
+    }
+
+    /** Appends the replacement of the current match of the matcher. */
+    void appendReplacement(Matcher matcher, StringBuilder builder) {
+      for (int i = 0; i < literals.length; i++) {
+        if (literals[i] != null) {
+          builder.append(literals[i]);
+        } else {
+          String group = matcher.group(groups[i]);
+          if (group != null) {
+            builder.append(group);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import java.util.List;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+import io.michaelrocks.libphonenumber.android.internal.DigitAutomaton;
+import io.michaelrocks.libphonenumber.android.internal.NationalNumberDigits;
+
+/**
+ * Finds the regions a national significant number may belong to among the regions sharing a
+ * country calling code, such as the NANPA regions. The leading digits of the regions which have
+ * them and the general number patterns of the others are compiled into a single
+ * {@link DigitAutomaton}, so one scan over the number rules out all the regions it can't be from.
+ * Leading digits are matched exactly, so only the regions without them are left to be validated.
+ *
+ * <p>This class is thread-safe.
+ */
+final class RegionResolver {
+  /** The maximum number of regions a resolver can be created for. */
+  static final int MAX_REGIONS = DigitAutomaton.MAX_PATTERNS;
+
+  private final List<String> regionCodes;
+  private final PhoneMetadata[] metadata;
+  // Null if the patterns are too large to be compiled together, so every region is a candidate.
+  private final DigitAutomaton automaton;
+  // Bits of the regions whose leading digits are matched exactly by the automaton.
+  private final int leadingDigitsMask;
+  private final int allRegionsMask;
+
+  private RegionResolver(List<String> regionCodes, PhoneMetadata[] metadata,
+      DigitAutomaton automaton, int leadingDigitsMask) {
+    this.regionCodes = regionCodes;
+    this.metadata = metadata;
+    this.automaton = automaton;
+    this.leadingDigitsMask = automaton != null ? leadingDigitsMask : 0;
+    this.allRegionsMask = regionCodes.size() == MAX_REGIONS ? ~0 : (1 << regionCodes.size()) - 1;
+  }
+
+  /**
+   * Creates a resolver for the given regions, in the order they are checked in, and their
+   * metadata. The number of regions must not exceed {@link #MAX_REGIONS}.
+   */
+  static RegionResolver create(List<String> regionCodes, PhoneMetadata[] metadata) {
+    if (regionCodes.size() > MAX_REGIONS || regionCodes.size() != metadata.length) {
+      throw new IllegalArgumentException("Can't create a resolver for " + regionCodes);
+    }
+    String[] patterns = new String[metadata.length];
+    int leadingDigitsMask = 0;
+    for (int i = 0; i < metadata.length; i++) {
+      // A pattern which can't be compiled matches any number, leaving the region to be checked.
+      patterns[i] = "\\d*";
+      if (metadata[i].hasLeadingDigits()) {
+        // Matching the leading digits at the start of a number is matching the whole number with
+        // any digits following them.
+        String pattern = "(?:" + metadata[i].getLeadingDigits() + ")\\d*";
+        if (DigitAutomaton.compile(pattern) != null) {
+          patterns[i] = pattern;
+          leadingDigitsMask |= 1 << i;
+        }
+      } else {
+        // A number which doesn't match the general description is never of a known type.
+        PhoneNumberDesc generalDesc = metadata[i].getGeneralDesc();
+        if (generalDesc != null && generalDesc.getNationalNumberPattern().length() > 0
+            && DigitAutomaton.compile(generalDesc.getNationalNumberPattern()) != null) {
+          patterns[i] = generalDesc.getNationalNumberPattern();
+        }
+      }
+    }
+    return new RegionResolver(regionCodes, metadata, DigitAutomaton.compile(patterns),
+        leadingDigitsMask);
+  }
+
+  /** Returns the number of regions of the resolver. */
+  int getRegionCount() {
+    return metadata.length;
+  }
+
+  /** Returns the code of the region at the given index. */
+  String getRegionCode(int index) {
+    return regionCodes.get(index);
+  }
+
+  /** Returns the metadata of the region at the given index. */
+  PhoneMetadata getMetadata(int index) {
+    return metadata[index];
+  }
+
+  /**
+   * Returns whether the number is known to be from the region at the given index if the region is
+   * among the candidates, because its leading digits have been matched by the resolver.
+   */
+  boolean isMatchedByLeadingDigits(int index) {
+    return (leadingDigitsMask & (1 << index)) != 0;
+  }
+
+  /**
+   * Returns the bitmask of the regions the national significant number may be from, where bit
+   * {@code i} stands for the region at index {@code i}. Regions outside of the mask are known not
+   * to match the number. The national number must not be negative.
+   */
+  int getCandidateRegions(long nationalNumber, int leadingZeros) {
+    if (automaton == null) {
+      return allRegionsMask;
+    }
+    int state = automaton.getStartState();
+    for (int i = 0; i < leadingZeros && state != DigitAutomaton.DEAD_STATE; i++) {
+      state = automaton.nextState(state, 0);
+    }
+    for (long divisor = NationalNumberDigits.getLeadingDivisor(nationalNumber);
+        divisor > 0 && state != DigitAutomaton.DEAD_STATE; divisor /= 10) {
+      state = automaton.nextState(state, (int) (nationalNumber / divisor % 10));
+    }
+    return state == DigitAutomaton.DEAD_STATE ? 0 : automaton.getAcceptMask(state);
+  }
+}
@@ -17,12 +17,10 @@
 
 package io.michaelrocks.libphonenumber.android;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -30,6 +28,7 @@ import java.util.logging.Logger;
 import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
 import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
 import io.michaelrocks.libphonenumber.android.Phonenumber.PhoneNumber;
+import io.michaelrocks.libphonenumber.android.internal.CountryCallingCodeTable;
 import io.michaelrocks.libphonenumber.android.internal.MatcherApi;
 import io.michaelrocks.libphonenumber.android.metadata.source.RegionMetadataSource;
 
@@ -69,7 +68,7 @@ public class ShortNumberInfo {
   // by that country calling code. In the case of multiple regions sharing a calling code, such as
   // the NANPA regions, the one indicated with "isMainCountryForCode" in the metadata should be
   // first.
-  private final Map<Integer, List<String>> countryCallingCodeToRegionCodeMap;
+  private final CountryCallingCodeTable countryCallingCodeToRegionCodes;
 
   private final RegionMetadataSource shortNumberMetadataSource;
 
@@ -79,8 +78,7 @@ public class ShortNumberInfo {
     this.matcherApi = matcherApi;
     this.shortNumberMetadataSource = shortNumberMetadataSource;
     // TODO: Create ShortNumberInfo for a given map
-    this.countryCallingCodeToRegionCodeMap =
-        CountryCodeToRegionCodeMap.getCountryCodeToRegionCodeMap();
+    this.countryCallingCodeToRegionCodes = CountryCallingCodeTable.getDefault();
   }
 
   /**
@@ -89,9 +87,8 @@ public class ShortNumberInfo {
    * of no region code being found, an empty list is returned.
    */
   private List<String> getRegionCodesForCountryCode(int countryCallingCode) {
-    List<String> regionCodes = countryCallingCodeToRegionCodeMap.get(countryCallingCode);
-    return Collections.unmodifiableList(regionCodes == null ? new ArrayList<String>(0)
-                                                            : regionCodes);
+    List<String> regionCodes = countryCallingCodeToRegionCodes.getRegionCodes(countryCallingCode);
+    return regionCodes == null ? Collections.<String>emptyList() : regionCodes;
   }
 
   /**
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded cache which is safe for concurrent use.
+ *
+ * <p>Lookups never block: they are served by a {@link ConcurrentHashMap} and only mark the entry
+ * as recently used. The cache is split into shards, and a lock of a single shard is only taken to
+ * insert a new entry. When a shard is full, an entry is evicted using the CLOCK (second chance)
+ * algorithm, which approximates LRU. A cache of size 0 holds nothing.
+ *
+ * @param <K> the type of the keys, which must implement {@link Object#equals} and
+ *     {@link Object#hashCode}
+ * @param <V> the type of the values
+ */
+public final class ClockCache<K, V> {
+  // Shards are only used when every shard can hold at least this many entries, so small caches
+  // keep an accurate eviction order.
+  private static final int MIN_SHARD_CAPACITY = 16;
+  private static final int MAX_SHARD_COUNT = 16;
+
+  private final Shard<K, V>[] shards;
+  private final int shardMask;
+  private volatile int capacity;
+
+  private final StripedCounter hitCount = new StripedCounter();
+  private final StripedCounter missCount = new StripedCounter();
+  private final StripedCounter evictionCount = new StripedCounter();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public ClockCache(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Cache size must not be negative: " + size);
+    }
+    int shardCount = 1;
+    while (shardCount * 2 <= MAX_SHARD_COUNT && size / (shardCount * 2) >= MIN_SHARD_CAPACITY) {
+      shardCount *= 2;
+    }
+    shards = new Shard[shardCount];
+    shardMask = shardCount - 1;
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard<K, V>(getShardCapacity(size, i), evictionCount);
+    }
+    capacity = size;
+  }
+
+  /** Returns the value cached for the key, or null if there is none. */
+  public V get(K key) {
+    Node<K, V> node = getShard(key).map.get(key);
+    if (node != null) {
+      if (!node.referenced) {
+        node.referenced = true;
+      }
+      hitCount.increment();
+      return node.value;
+    }
+    missCount.increment();
+    return null;
+  }
+
+  /**
+   * Caches the value for the key unless a value is already cached for it, which racing threads may
+   * have done, and returns the cached value.
+   */
+  public V put(K key, V value) {
+    return getShard(key).put(key, value);
+  }
+
+  /** Returns whether a value is cached for the key, without marking it as used. */
+  public boolean containsKey(K key) {
+    return getShard(key).map.containsKey(key);
+  }
+
+  /** Returns the maximum number of entries the cache holds. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Changes the maximum number of entries the cache holds, evicting entries if the cache currently
+   * holds more than that. A cache of size 0 holds nothing.
+   */
+  public void setCapacity(int size) {
+    if (size != 0 && size < shards.length) {
+      throw new IllegalArgumentException(
+          "Cache size must be 0 or at least " + shards.length + ": " + size);
+    }
+    synchronized (shards) {
+      for (int i = 0; i < shards.length; i++) {
+        shards[i].setCapacity(getShardCapacity(size, i));
+      }
+      capacity = size;
+    }
+  }
+
+  /** Returns the number of entries currently held by the cache. */
+  public int size() {
+    int size = 0;
+    for (Shard<K, V> shard : shards) {
+      size += shard.map.size();
+    }
+    return size;
+  }
+
+  /** Returns the number of lookups that found a value in the cache. */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /** Returns the number of lookups that didn't find a value in the cache. */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /** Returns the number of entries evicted from the cache to make room for other ones. */
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  private Shard<K, V> getShard(K key) {
+    int hash = key.hashCode();
+    return shards[(hash ^ (hash >>> 16)) & shardMask];
+  }
+
+  private int getShardCapacity(int size, int index) {
+    return size / shards.length + (index < size % shards.length ? 1 : 0);
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    final V value;
+    // Set on every hit and cleared when the clock hand passes the entry.
+    volatile boolean referenced;
+
+    Node(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private static final class Shard<K, V> {
+    final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<K, Node<K, V>>();
+    private final StripedCounter evictionCount;
+    // Guarded by this.
+    private Node<K, V>[] slots;
+    private int count;
+    private int hand;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Shard(int capacity, StripedCounter evictionCount) {
+      this.evictionCount = evictionCount;
+      slots = new Node[capacity];
+    }
+
+    synchronized V put(K key, V value) {
+      Node<K, V> existing = map.get(key);
+      if (existing != null) {
+        return existing.value;
+      }
+      if (slots.length == 0) {
+        return value;
+      }
+      Node<K, V> node = new Node<K, V>(key, value);
+      if (count < slots.length) {
+        slots[count++] = node;
+      } else {
+        int victim = findVictim();
+        map.remove(slots[victim].key);
+        evictionCount.increment();
+        slots[victim] = node;
+      }
+      map.put(key, node);
+      return value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    synchronized void setCapacity(int capacity) {
+      while (count > capacity) {
+        int victim = findVictim();
+        map.remove(slots[victim].key);
+        evictionCount.increment();
+        slots[victim] = slots[--count];
+        slots[count] = null;
+        if (hand >= count) {
+          hand = 0;
+        }
+      }
+      Node<K, V>[] newSlots = new Node[capacity];
+      System.arraycopy(slots, 0, newSlots, 0, count);
+      slots = newSlots;
+      if (hand >= capacity) {
+        hand = 0;
+      }
+    }
+
+    // Advances the clock hand past the recently used entries and returns the index of the first
+    // entry that wasn't used since the last pass.
+    private int findVictim() {
+      while (true) {
+        Node<K, V> node = slots[hand];
+        int index = hand;
+        hand = hand + 1 == count ? 0 : hand + 1;
+        if (!node.referenced) {
+          return index;
+        }
+        node.referenced = false;
+      }
+    }
+  }
+
+  /**
+   * A counter that spreads increments from different threads over padded cells to avoid
+   * contention.
+   */
+  private static final class StripedCounter {
+    private static final int STRIPE_COUNT = 16;
+    // Cells are spaced apart to keep them on different cache lines.
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPE_COUNT * PADDING);
+
+    void increment() {
+      int hash = (int) Thread.currentThread().getId() * 0x9E3779B9;
+      cells.incrementAndGet(((hash >>> 16) & (STRIPE_COUNT - 1)) * PADDING);
+    }
+
+    long get() {
+      long sum = 0;
+      for (int i = 0; i < STRIPE_COUNT; i++) {
+        sum += cells.get(i * PADDING);
+      }
+      return sum;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import io.michaelrocks.libphonenumber.android.CountryCodeToRegionCodeMap;
+
+/**
+ * An immutable mapping from a country calling code to the region codes which denote the region
+ * represented by that country calling code, indexed directly by the calling code. Lookups take a
+ * primitive {@code int}, so resolving a region neither boxes the calling code nor hashes it.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class CountryCallingCodeTable {
+
+  /** The largest country calling code, as they are at most three digits long. */
+  public static final int MAX_COUNTRY_CALLING_CODE = 999;
+
+  // Indexed by country calling code, null for the unassigned ones.
+  private final List<String>[] regionCodes;
+  private final Set<Integer> countryCallingCodes;
+
+  private CountryCallingCodeTable(List<String>[] regionCodes, Set<Integer> countryCallingCodes) {
+    this.regionCodes = regionCodes;
+    this.countryCallingCodes = countryCallingCodes;
+  }
+
+  /**
+   * Returns the table with the contents of {@link
+   * CountryCodeToRegionCodeMap#getCountryCodeToRegionCodeMap()}. The map is only built once, when
+   * the table is first requested.
+   */
+  public static CountryCallingCodeTable getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  /**
+   * Creates a table with the contents of the given mapping. In the case of multiple regions
+   * sharing a calling code, the first region code in the list is the main one.
+   *
+   * @throws IllegalArgumentException if a country calling code is outside of the range
+   *     [0, {@link #MAX_COUNTRY_CALLING_CODE}], or it maps to no region codes
+   */
+  public static CountryCallingCodeTable create(
+      Map<Integer, List<String>> countryCallingCodeToRegionCodeMap) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    List<String>[] regionCodes = new List[MAX_COUNTRY_CALLING_CODE + 1];
+    Set<Integer> countryCallingCodes = new TreeSet<Integer>();
+    for (Map.Entry<Integer, List<String>> entry : countryCallingCodeToRegionCodeMap.entrySet()) {
+      int countryCallingCode = entry.getKey();
+      if (countryCallingCode < 0 || countryCallingCode > MAX_COUNTRY_CALLING_CODE) {
+        throw new IllegalArgumentException("Invalid country calling code: " + countryCallingCode);
+      }
+      if (entry.getValue().isEmpty()) {
+        throw new IllegalArgumentException(
+            "No region codes for country calling code: " + countryCallingCode);
+      }
+      regionCodes[countryCallingCode] =
+          Collections.unmodifiableList(new ArrayList<String>(entry.getValue()));
+      countryCallingCodes.add(countryCallingCode);
+    }
+    return new CountryCallingCodeTable(regionCodes,
+        Collections.unmodifiableSet(countryCallingCodes));
+  }
+
+  /** Returns whether the given country calling code is mapped to any region codes. */
+  public boolean contains(int countryCallingCode) {
+    return getRegionCodes(countryCallingCode) != null;
+  }
+
+  /**
+   * Returns an unmodifiable list of the region codes for the given country calling code, with the
+   * main region first, or {@code null} if the calling code is unknown.
+   */
+  public List<String> getRegionCodes(int countryCallingCode) {
+    if (countryCallingCode < 0 || countryCallingCode > MAX_COUNTRY_CALLING_CODE) {
+      return null;
+    }
+    return regionCodes[countryCallingCode];
+  }
+
+  /**
+   * Returns the main region code for the given country calling code, or {@code null} if the
+   * calling code is unknown.
+   */
+  public String getMainRegionCode(int countryCallingCode) {
+    List<String> regionCodesForCallingCode = getRegionCodes(countryCallingCode);
+    return regionCodesForCallingCode == null ? null : regionCodesForCallingCode.get(0);
+  }
+
+  /** Returns an unmodifiable set of all the country calling codes in ascending order. */
+  public Set<Integer> getCountryCallingCodes() {
+    return countryCallingCodes;
+  }
+
+  // Builds the default table on first use only.
+  private static final class DefaultHolder {
+    static final CountryCallingCodeTable INSTANCE =
+        create(CountryCodeToRegionCodeMap.getCountryCodeToRegionCodeMap());
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+
+/**
+ * Implementation of the matcher API that compiles the national number patterns of the
+ * PhoneNumberDesc proto message into {@link DigitAutomaton}s. Both the full match and the prefix
+ * match are decided in a single pass over the number without allocating.
+ *
+ * <p>Patterns the automaton compiler doesn't support and numbers containing anything but ASCII
+ * digits are delegated to a {@link RegexBasedMatcher}, so the results are always the same.
+ */
+public final class DfaBasedMatcher implements MatcherApi {
+  public static MatcherApi create() {
+    return new DfaBasedMatcher();
+  }
+
+  // Results of matching a number against an automaton.
+  private static final int NO_MATCH = 0;
+  private static final int PREFIX_MATCH = 1;
+  private static final int FULL_MATCH = 2;
+  private static final int NOT_DIGITS = 3;
+
+  // Cached in place of an automaton for the patterns which can't be compiled.
+  private static final Object UNSUPPORTED = new Object();
+
+  // The set of national number patterns is bounded by the metadata, and compiled automata are
+  // small, so they are kept for the lifetime of the matcher.
+  private final ConcurrentHashMap<String, Object> automata = new ConcurrentHashMap<String, Object>();
+  private final MatcherApi fallbackMatcher = RegexBasedMatcher.create();
+
+  private DfaBasedMatcher() {}
+
+  // @Override
+  public boolean matchNationalNumber(CharSequence number, PhoneNumberDesc numberDesc,
+      boolean allowPrefixMatch) {
+    String nationalNumberPattern = numberDesc.getNationalNumberPattern();
+    // We don't want to consider it a prefix match when matching non-empty input against an empty
+    // pattern.
+    if (nationalNumberPattern.length() == 0) {
+      return false;
+    }
+    Object automaton = getAutomaton(nationalNumberPattern);
+    if (automaton == UNSUPPORTED) {
+      return fallbackMatcher.matchNationalNumber(number, numberDesc, allowPrefixMatch);
+    }
+    switch (match(number, (DigitAutomaton) automaton)) {
+      case FULL_MATCH:
+        return true;
+      case PREFIX_MATCH:
+        return allowPrefixMatch;
+      case NO_MATCH:
+        return false;
+      default:
+        return fallbackMatcher.matchNationalNumber(number, numberDesc, allowPrefixMatch);
+    }
+  }
+
+  // @Override
+  public boolean matchNationalNumber(long nationalNumber, int leadingZeros,
+      PhoneNumberDesc numberDesc, boolean allowPrefixMatch) {
+    String nationalNumberPattern = numberDesc.getNationalNumberPattern();
+    if (nationalNumberPattern.length() == 0) {
+      return false;
+    }
+    Object automaton = getAutomaton(nationalNumberPattern);
+    // The string form of a negative number isn't made of digits, so it's matched as a string.
+    if (automaton == UNSUPPORTED || nationalNumber < 0) {
+      return fallbackMatcher.matchNationalNumber(nationalNumber, leadingZeros, numberDesc,
+          allowPrefixMatch);
+    }
+    switch (match(nationalNumber, leadingZeros, (DigitAutomaton) automaton)) {
+      case FULL_MATCH:
+        return true;
+      case PREFIX_MATCH:
+        return allowPrefixMatch;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns {@code FULL_MATCH} if the automaton accepts the whole number, {@code PREFIX_MATCH} if
+   * it only accepts a prefix of it (possibly an empty one), and {@code NO_MATCH} otherwise, which
+   * mirrors {@code Matcher.matches()} and {@code Matcher.lookingAt()}.
+   */
+  private static int match(CharSequence number, DigitAutomaton automaton) {
+    int state = automaton.getStartState();
+    boolean prefixMatched = automaton.getAcceptMask(state) != 0;
+    int length = number.length();
+    for (int i = 0; i < length; i++) {
+      int digit = number.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return NOT_DIGITS;
+      }
+      state = automaton.nextState(state, digit);
+      if (state == DigitAutomaton.DEAD_STATE) {
+        // The rest of the number still has to be checked, since anything but digits is handled by
+        // the regular expression engine.
+        for (int j = i + 1; j < length; j++) {
+          char c = number.charAt(j);
+          if (c < '0' || c > '9') {
+            return NOT_DIGITS;
+          }
+        }
+        return prefixMatched ? PREFIX_MATCH : NO_MATCH;
+      }
+      if (automaton.getAcceptMask(state) != 0) {
+        prefixMatched = true;
+      }
+    }
+    if (automaton.getAcceptMask(state) != 0) {
+      return FULL_MATCH;
+    }
+    return prefixMatched ? PREFIX_MATCH : NO_MATCH;
+  }
+
+  /**
+   * Same as {@link #match(CharSequence, DigitAutomaton)} for the digits of the national significant
+   * number, which are never anything but digits.
+   */
+  private static int match(long nationalNumber, int leadingZeros, DigitAutomaton automaton) {
+    int state = automaton.getStartState();
+    boolean prefixMatched = automaton.getAcceptMask(state) != 0;
+    for (int i = 0; i < leadingZeros; i++) {
+      state = automaton.nextState(state, 0);
+      if (state == DigitAutomaton.DEAD_STATE) {
+        return prefixMatched ? PREFIX_MATCH : NO_MATCH;
+      }
+      if (automaton.getAcceptMask(state) != 0) {
+        prefixMatched = true;
+      }
+    }
+    for (long divisor = NationalNumberDigits.getLeadingDivisor(nationalNumber); divisor > 0;
+        divisor /= 10) {
+      state = automaton.nextState(state, (int) (nationalNumber / divisor % 10));
+      if (state == DigitAutomaton.DEAD_STATE) {
+        return prefixMatched ? PREFIX_MATCH : NO_MATCH;
+      }
+      if (automaton.getAcceptMask(state) != 0) {
+        prefixMatched = true;
+      }
+    }
+    if (automaton.getAcceptMask(state) != 0) {
+      return FULL_MATCH;
+    }
+    return prefixMatched ? PREFIX_MATCH : NO_MATCH;
+  }
+
+  private Object getAutomaton(String pattern) {
+    Object automaton = automata.get(pattern);
+    if (automaton == null) {
+      automaton = DigitAutomaton.compile(pattern);
+      if (automaton == null) {
+        automaton = UNSUPPORTED;
+      }
+      automata.putIfAbsent(pattern, automaton);
+    }
+    return automaton;
+  }
+}
@@ -0,0 +1,715 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic finite automaton over the ASCII digits '0' to '9', compiled from the restricted
+ * regular expression syntax used by the national number patterns in the metadata: digits, {@code
+ * \d}, character classes, groups, alternation and the {@code ?}, {@code *}, {@code +} and
+ * {@code {n,m}} quantifiers.
+ *
+ * <p>Several patterns can be compiled into a single automaton. Every state carries a bitmask
+ * where bit {@code i} is set if the input consumed so far is fully matched by the {@code i}-th
+ * pattern, so a single scan over a number tells which of the patterns match it.
+ *
+ * <p>Instances are immutable and can be shared between threads. Stepping through the automaton
+ * doesn't allocate.
+ */
+public final class DigitAutomaton {
+  /** The state returned by {@link #nextState} when no pattern can match the input any more. */
+  public static final int DEAD_STATE = -1;
+  /** The maximum number of patterns that can be compiled into a single automaton. */
+  public static final int MAX_PATTERNS = 32;
+
+  private static final int ALPHABET_SIZE = 10;
+  private static final int ALL_DIGITS = (1 << ALPHABET_SIZE) - 1;
+  // Limits on the size of the compiled automaton. Patterns that exceed them are reported as
+  // unsupported so callers fall back to the regular expression engine.
+  private static final int MAX_STATES = 4096;
+  private static final int MAX_REPETITIONS = 64;
+
+  private final int[] transitions;
+  private final int[] acceptMasks;
+
+  private DigitAutomaton(int[] transitions, int[] acceptMasks) {
+    this.transitions = transitions;
+    this.acceptMasks = acceptMasks;
+  }
+
+  /**
+   * Compiles the given patterns into a single automaton. Returns null if any of the patterns uses
+   * syntax that can't be represented by a digit automaton (anchors, backreferences, lookarounds,
+   * character class escapes other than {@code \d}, etc.) or if the automaton would be too large.
+   */
+  public static DigitAutomaton compile(String... patterns) {
+    if (patterns.length > MAX_PATTERNS) {
+      throw new IllegalArgumentException("Too many patterns: " + patterns.length);
+    }
+    Nfa nfa = new Nfa();
+    int start = nfa.newState();
+    try {
+      for (int i = 0; i < patterns.length; i++) {
+        Node node = new Parser(patterns[i]).parse();
+        int entry = nfa.newState();
+        nfa.addEpsilon(start, entry);
+        int exit = node.build(nfa, entry);
+        nfa.acceptMasks.set(exit, nfa.acceptMasks.get(exit) | (1 << i));
+      }
+      return minimize(determinize(nfa, start));
+    } catch (UnsupportedPatternException e) {
+      return null;
+    }
+  }
+
+  /** Returns the initial state of the automaton. */
+  public int getStartState() {
+    return 0;
+  }
+
+  /**
+   * Returns the state reached from {@code state} after consuming {@code digit}, which must be in
+   * the range 0 to 9, or {@link #DEAD_STATE} if no pattern can match the input any more.
+   */
+  public int nextState(int state, int digit) {
+    return transitions[state * ALPHABET_SIZE + digit];
+  }
+
+  /** Returns the bitmask of the patterns that fully match the input which led to this state. */
+  public int getAcceptMask(int state) {
+    return acceptMasks[state];
+  }
+
+  /** Returns the number of states of the automaton, not including the dead state. */
+  public int getStateCount() {
+    return acceptMasks.length;
+  }
+
+  private static DigitAutomaton determinize(Nfa nfa, int start) {
+    Map<BitSet, Integer> stateIds = new HashMap<BitSet, Integer>();
+    List<BitSet> stateSets = new ArrayList<BitSet>();
+    int[] transitions = new int[16 * ALPHABET_SIZE];
+    IntList acceptMasks = new IntList();
+
+    BitSet initial = new BitSet();
+    nfa.addClosure(start, initial);
+    stateIds.put(initial, 0);
+    stateSets.add(initial);
+
+    BitSet[] targets = new BitSet[ALPHABET_SIZE];
+    for (int id = 0; id < stateSets.size(); id++) {
+      BitSet current = stateSets.get(id);
+      for (int digit = 0; digit < ALPHABET_SIZE; digit++) {
+        targets[digit] = new BitSet();
+      }
+      int acceptMask = 0;
+      for (int s = current.nextSetBit(0); s >= 0; s = current.nextSetBit(s + 1)) {
+        acceptMask |= nfa.acceptMasks.get(s);
+        int digitMask = nfa.digitMasks.get(s);
+        for (int digit = 0; digitMask != 0; digit++, digitMask >>>= 1) {
+          if ((digitMask & 1) != 0) {
+            nfa.addClosure(nfa.digitTargets.get(s), targets[digit]);
+          }
+        }
+      }
+      acceptMasks.add(acceptMask);
+
+      if (transitions.length < (id + 1) * ALPHABET_SIZE) {
+        transitions = Arrays.copyOf(transitions, transitions.length * 2);
+      }
+      for (int digit = 0; digit < ALPHABET_SIZE; digit++) {
+        BitSet target = targets[digit];
+        int targetId = DEAD_STATE;
+        if (!target.isEmpty()) {
+          Integer existingId = stateIds.get(target);
+          if (existingId != null) {
+            targetId = existingId;
+          } else {
+            if (stateSets.size() >= MAX_STATES) {
+              throw new UnsupportedPatternException();
+            }
+            targetId = stateSets.size();
+            stateIds.put(target, targetId);
+            stateSets.add(target);
+          }
+        }
+        transitions[id * ALPHABET_SIZE + digit] = targetId;
+      }
+    }
+    return new DigitAutomaton(
+        Arrays.copyOf(transitions, stateSets.size() * ALPHABET_SIZE), acceptMasks.toArray());
+  }
+
+  /**
+   * Merges equivalent states and redirects transitions into states from which no pattern can be
+   * matched to {@link #DEAD_STATE}, so that scans can stop as early as possible.
+   */
+  private static DigitAutomaton minimize(DigitAutomaton automaton) {
+    int[] transitions = automaton.transitions;
+    int[] acceptMasks = automaton.acceptMasks;
+    int stateCount = acceptMasks.length;
+
+    // Find the states from which an accepting state can be reached.
+    boolean[] live = new boolean[stateCount];
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      // Successors mostly have greater ids than their predecessors, so iterate backwards.
+      for (int state = stateCount - 1; state >= 0; state--) {
+        if (live[state]) {
+          continue;
+        }
+        boolean isLive = acceptMasks[state] != 0;
+        for (int digit = 0; digit < ALPHABET_SIZE && !isLive; digit++) {
+          int target = transitions[state * ALPHABET_SIZE + digit];
+          isLive = target != DEAD_STATE && live[target];
+        }
+        if (isLive) {
+          live[state] = true;
+          changed = true;
+        }
+      }
+    }
+
+    // Moore's partition refinement, starting from the partition by accept mask. Dead states are
+    // mapped to the class of DEAD_STATE.
+    int[] classes = new int[stateCount];
+    int classCount = partition(stateCount, live, acceptMasks, null, null, classes);
+    while (true) {
+      int[] refined = new int[stateCount];
+      int refinedCount = partition(stateCount, live, acceptMasks, transitions, classes, refined);
+      classes = refined;
+      if (refinedCount == classCount) {
+        break;
+      }
+      classCount = refinedCount;
+    }
+
+    // The start state is always kept, even if nothing can be matched from it.
+    int startClass = classes[0];
+    int[] newIds = new int[classCount + 1];
+    Arrays.fill(newIds, DEAD_STATE);
+    int newCount = 0;
+    if (startClass == DEAD_STATE) {
+      newCount = 1;
+    } else {
+      newIds[startClass] = newCount++;
+    }
+    for (int state = 0; state < stateCount; state++) {
+      int stateClass = classes[state];
+      if (stateClass != DEAD_STATE && newIds[stateClass] == DEAD_STATE) {
+        newIds[stateClass] = newCount++;
+      }
+    }
+    int[] newTransitions = new int[newCount * ALPHABET_SIZE];
+    int[] newAcceptMasks = new int[newCount];
+    Arrays.fill(newTransitions, DEAD_STATE);
+    for (int state = 0; state < stateCount; state++) {
+      int stateClass = classes[state];
+      if (stateClass == DEAD_STATE) {
+        continue;
+      }
+      int newId = newIds[stateClass];
+      newAcceptMasks[newId] = acceptMasks[state];
+      for (int digit = 0; digit < ALPHABET_SIZE; digit++) {
+        int target = transitions[state * ALPHABET_SIZE + digit];
+        newTransitions[newId * ALPHABET_SIZE + digit] =
+            target == DEAD_STATE || classes[target] == DEAD_STATE
+                ? DEAD_STATE : newIds[classes[target]];
+      }
+    }
+    return new DigitAutomaton(newTransitions, newAcceptMasks);
+  }
+
+  /**
+   * Splits the live states into classes by their accept masks and, if {@code transitions} is not
+   * null, by the classes of their successors. Returns the number of classes.
+   */
+  private static int partition(int stateCount, boolean[] live, int[] acceptMasks,
+      int[] transitions, int[] classes, int[] result) {
+    Map<Signature, Integer> classIds = new HashMap<Signature, Integer>();
+    for (int state = 0; state < stateCount; state++) {
+      if (!live[state]) {
+        result[state] = DEAD_STATE;
+        continue;
+      }
+      int[] key = new int[ALPHABET_SIZE + 2];
+      key[0] = acceptMasks[state];
+      if (transitions != null) {
+        key[1] = classes[state];
+        for (int digit = 0; digit < ALPHABET_SIZE; digit++) {
+          int target = transitions[state * ALPHABET_SIZE + digit];
+          key[digit + 2] = target == DEAD_STATE ? DEAD_STATE : classes[target];
+        }
+      }
+      Signature signature = new Signature(key);
+      Integer classId = classIds.get(signature);
+      if (classId == null) {
+        classId = classIds.size();
+        classIds.put(signature, classId);
+      }
+      result[state] = classId;
+    }
+    return classIds.size();
+  }
+
+  private static final class Signature {
+    private final int[] values;
+    private final int hashCode;
+
+    Signature(int[] values) {
+      this.values = values;
+      this.hashCode = Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Signature && Arrays.equals(values, ((Signature) other).values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * Thompson-style automaton where every state has at most one outgoing digit transition and any
+   * number of epsilon transitions.
+   */
+  private static final class Nfa {
+    final IntList digitMasks = new IntList();
+    final IntList digitTargets = new IntList();
+    final IntList acceptMasks = new IntList();
+    final List<IntList> epsilons = new ArrayList<IntList>();
+
+    int newState() {
+      digitMasks.add(0);
+      digitTargets.add(DEAD_STATE);
+      acceptMasks.add(0);
+      epsilons.add(null);
+      return epsilons.size() - 1;
+    }
+
+    void addEpsilon(int from, int to) {
+      IntList targets = epsilons.get(from);
+      if (targets == null) {
+        targets = new IntList();
+        epsilons.set(from, targets);
+      }
+      targets.add(to);
+    }
+
+    void addDigits(int from, int digitMask, int to) {
+      digitMasks.set(from, digitMask);
+      digitTargets.set(from, to);
+    }
+
+    void addClosure(int state, BitSet closure) {
+      if (closure.get(state)) {
+        return;
+      }
+      IntList stack = new IntList();
+      closure.set(state);
+      stack.add(state);
+      while (stack.size() > 0) {
+        IntList targets = epsilons.get(stack.removeLast());
+        if (targets == null) {
+          continue;
+        }
+        for (int i = 0; i < targets.size(); i++) {
+          int target = targets.get(i);
+          if (!closure.get(target)) {
+            closure.set(target);
+            stack.add(target);
+          }
+        }
+      }
+    }
+  }
+
+  private abstract static class Node {
+    /** Adds the states for this node starting from {@code entry} and returns the exit state. */
+    abstract int build(Nfa nfa, int entry);
+  }
+
+  private static final class DigitsNode extends Node {
+    private final int digitMask;
+
+    DigitsNode(int digitMask) {
+      this.digitMask = digitMask;
+    }
+
+    @Override
+    int build(Nfa nfa, int entry) {
+      int exit = nfa.newState();
+      nfa.addDigits(entry, digitMask, exit);
+      return exit;
+    }
+  }
+
+  private static final class SequenceNode extends Node {
+    private final List<Node> nodes;
+
+    SequenceNode(List<Node> nodes) {
+      this.nodes = nodes;
+    }
+
+    @Override
+    int build(Nfa nfa, int entry) {
+      int current = entry;
+      for (Node node : nodes) {
+        // Every state has a single digit transition, so a fresh state is needed if the current one
+        // already has it.
+        if (nfa.digitTargets.get(current) != DEAD_STATE) {
+          int next = nfa.newState();
+          nfa.addEpsilon(current, next);
+          current = next;
+        }
+        current = node.build(nfa, current);
+      }
+      return current;
+    }
+  }
+
+  private static final class AlternationNode extends Node {
+    private final List<Node> alternatives;
+
+    AlternationNode(List<Node> alternatives) {
+      this.alternatives = alternatives;
+    }
+
+    @Override
+    int build(Nfa nfa, int entry) {
+      int exit = nfa.newState();
+      for (Node alternative : alternatives) {
+        int branch = nfa.newState();
+        nfa.addEpsilon(entry, branch);
+        nfa.addEpsilon(alternative.build(nfa, branch), exit);
+      }
+      return exit;
+    }
+  }
+
+  private static final class RepetitionNode extends Node {
+    private final Node node;
+    private final int min;
+    // -1 if unbounded.
+    private final int max;
+
+    RepetitionNode(Node node, int min, int max) {
+      this.node = node;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    int build(Nfa nfa, int entry) {
+      int current = entry;
+      for (int i = 0; i < min; i++) {
+        current = buildFresh(nfa, current);
+      }
+      if (max < 0) {
+        int loop = nfa.newState();
+        nfa.addEpsilon(current, loop);
+        nfa.addEpsilon(buildFresh(nfa, loop), loop);
+        return loop;
+      }
+      for (int i = min; i < max; i++) {
+        int next = nfa.newState();
+        nfa.addEpsilon(current, next);
+        nfa.addEpsilon(buildFresh(nfa, current), next);
+        current = next;
+      }
+      return current;
+    }
+
+    private int buildFresh(Nfa nfa, int from) {
+      int entry = nfa.newState();
+      nfa.addEpsilon(from, entry);
+      return node.build(nfa, entry);
+    }
+  }
+
+  /**
+   * Recursive descent parser for the supported subset of the {@link java.util.regex.Pattern}
+   * syntax. Since only digits are ever fed to the automaton, literals and class members that
+   * aren't digits are kept as transitions that can't be taken.
+   */
+  private static final class Parser {
+    private final String regex;
+    private int position = 0;
+
+    Parser(String regex) {
+      this.regex = regex;
+    }
+
+    Node parse() {
+      Node node = parseAlternation();
+      if (position != regex.length()) {
+        throw new UnsupportedPatternException();
+      }
+      return node;
+    }
+
+    private Node parseAlternation() {
+      List<Node> alternatives = new ArrayList<Node>();
+      alternatives.add(parseSequence());
+      while (position < regex.length() && regex.charAt(position) == '|') {
+        position++;
+        alternatives.add(parseSequence());
+      }
+      return alternatives.size() == 1 ? alternatives.get(0) : new AlternationNode(alternatives);
+    }
+
+    private Node parseSequence() {
+      List<Node> nodes = new ArrayList<Node>();
+      while (position < regex.length()) {
+        char c = regex.charAt(position);
+        if (c == '|' || c == ')') {
+          break;
+        }
+        nodes.add(parseQuantifier(parseAtom()));
+      }
+      return nodes.size() == 1 ? nodes.get(0) : new SequenceNode(nodes);
+    }
+
+    private Node parseAtom() {
+      char c = regex.charAt(position++);
+      switch (c) {
+        case '(':
+          if (regex.startsWith("?:", position)) {
+            position += 2;
+          } else if (position < regex.length() && regex.charAt(position) == '?') {
+            // Lookarounds, named groups and inline flags.
+            throw new UnsupportedPatternException();
+          }
+          Node group = parseAlternation();
+          expect(')');
+          return group;
+        case '[':
+          return new DigitsNode(parseCharacterClass());
+        case '\\':
+          return new DigitsNode(parseEscape());
+        case '.':
+        case '^':
+        case '$':
+        case '?':
+        case '*':
+        case '+':
+        case '{':
+        case '}':
+        case ']':
+          throw new UnsupportedPatternException();
+        default:
+          return new DigitsNode(digitMask(c, c));
+      }
+    }
+
+    private Node parseQuantifier(Node node) {
+      if (position >= regex.length()) {
+        return node;
+      }
+      int min;
+      int max;
+      switch (regex.charAt(position)) {
+        case '?':
+          min = 0;
+          max = 1;
+          break;
+        case '*':
+          min = 0;
+          max = -1;
+          break;
+        case '+':
+          min = 1;
+          max = -1;
+          break;
+        case '{':
+          position++;
+          min = parseNumber();
+          max = min;
+          if (position < regex.length() && regex.charAt(position) == ',') {
+            position++;
+            max = position < regex.length() && regex.charAt(position) == '}' ? -1 : parseNumber();
+          }
+          if (position >= regex.length() || regex.charAt(position) != '}'
+              || (max >= 0 && max < min)) {
+            throw new UnsupportedPatternException();
+          }
+          break;
+        default:
+          return node;
+      }
+      position++;
+      if (position < regex.length()) {
+        char modifier = regex.charAt(position);
+        if (modifier == '?') {
+          // Reluctant quantifiers match the same language.
+          position++;
+        } else if (modifier == '+') {
+          // Possessive quantifiers don't.
+          throw new UnsupportedPatternException();
+        }
+      }
+      return new RepetitionNode(node, min, max);
+    }
+
+    private int parseNumber() {
+      int start = position;
+      int value = 0;
+      while (position < regex.length() && isDigit(regex.charAt(position))) {
+        value = value * 10 + (regex.charAt(position++) - '0');
+        if (value > MAX_REPETITIONS) {
+          throw new UnsupportedPatternException();
+        }
+      }
+      if (position == start) {
+        throw new UnsupportedPatternException();
+      }
+      return value;
+    }
+
+    private int parseCharacterClass() {
+      boolean negated = false;
+      if (position < regex.length() && regex.charAt(position) == '^') {
+        negated = true;
+        position++;
+      }
+      int mask = 0;
+      boolean empty = true;
+      while (true) {
+        if (position >= regex.length()) {
+          throw new UnsupportedPatternException();
+        }
+        char c = regex.charAt(position++);
+        if (c == ']' && !empty) {
+          break;
+        }
+        empty = false;
+        if (c == '[' || c == ']' || c == '&') {
+          // Nested classes, unions and intersections.
+          throw new UnsupportedPatternException();
+        }
+        if (c == '\\') {
+          if (position < regex.length() && regex.charAt(position) == 'd') {
+            position++;
+            mask |= ALL_DIGITS;
+            continue;
+          }
+          throw new UnsupportedPatternException();
+        }
+        if (position + 1 < regex.length() && regex.charAt(position) == '-'
+            && regex.charAt(position + 1) != ']') {
+          char high = regex.charAt(position + 1);
+          if (high == '\\' || high == '[' || high == '&' || high < c) {
+            throw new UnsupportedPatternException();
+          }
+          position += 2;
+          mask |= digitMask(c, high);
+        } else {
+          mask |= digitMask(c, c);
+        }
+      }
+      return negated ? ~mask & ALL_DIGITS : mask;
+    }
+
+    private int parseEscape() {
+      if (position >= regex.length()) {
+        throw new UnsupportedPatternException();
+      }
+      char c = regex.charAt(position++);
+      if (c == 'd') {
+        return ALL_DIGITS;
+      }
+      if (Character.isLetterOrDigit(c)) {
+        // Other character classes, backreferences, boundaries and quoting.
+        throw new UnsupportedPatternException();
+      }
+      // An escaped punctuation character, which never matches a digit.
+      return 0;
+    }
+
+    private void expect(char c) {
+      if (position >= regex.length() || regex.charAt(position) != c) {
+        throw new UnsupportedPatternException();
+      }
+      position++;
+    }
+
+    private static boolean isDigit(char c) {
+      return c >= '0' && c <= '9';
+    }
+
+    private static int digitMask(char low, char high) {
+      int from = Math.max(low, '0');
+      int to = Math.min(high, '9');
+      int mask = 0;
+      for (int c = from; c <= to; c++) {
+        mask |= 1 << (c - '0');
+      }
+      return mask;
+    }
+  }
+
+  private static final class IntList {
+    private int[] values = new int[8];
+    private int size = 0;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    int get(int index) {
+      return values[index];
+    }
+
+    void set(int index, int value) {
+      values[index] = value;
+    }
+
+    int removeLast() {
+      return values[--size];
+    }
+
+    int size() {
+      return size;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static final class UnsupportedPatternException extends RuntimeException {
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      // Only used for control flow within the compiler.
+      return this;
+    }
+  }
+}
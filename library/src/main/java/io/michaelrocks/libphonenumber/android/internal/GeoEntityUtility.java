@@ -19,8 +19,6 @@ package io.michaelrocks.libphonenumber.android.internal;
 
 import java.util.List;
 
-import io.michaelrocks.libphonenumber.android.CountryCodeToRegionCodeMap;
-
 /**
  * Utility class for checking whether identifiers region code and country calling code belong
  * to geographical entities. For more information about geo vs. non-geo entities see {@link
@@ -48,7 +46,7 @@ public final class GeoEntityUtility {
    */
   public static boolean isGeoEntity(int countryCallingCode) {
     List<String> regionCodesForCountryCallingCode =
-        CountryCodeToRegionCodeMap.getCountryCodeToRegionCodeMap().get(countryCallingCode);
+        CountryCallingCodeTable.getDefault().getRegionCodes(countryCallingCode);
 
     return regionCodesForCountryCallingCode != null
         && !regionCodesForCountryCallingCode.contains(REGION_CODE_FOR_NON_GEO_ENTITIES);
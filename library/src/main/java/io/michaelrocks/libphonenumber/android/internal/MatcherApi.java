@@ -30,4 +30,13 @@ public interface MatcherApi {
    */
   boolean matchNationalNumber(CharSequence number, PhoneNumberDesc numberDesc,
       boolean allowPrefixMatch);
+
+  /**
+   * Returns whether the national significant number with the given national number and number of
+   * leading zeros matches the national number pattern defined in the given {@code PhoneNumberDesc}
+   * message, in the same way as {@link #matchNationalNumber(CharSequence, PhoneNumberDesc,
+   * boolean)} for its string form, but without building the string where possible.
+   */
+  boolean matchNationalNumber(long nationalNumber, int leadingZeros, PhoneNumberDesc numberDesc,
+      boolean allowPrefixMatch);
 }
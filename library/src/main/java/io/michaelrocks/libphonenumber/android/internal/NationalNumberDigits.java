@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import java.util.Arrays;
+
+/**
+ * Utility class for reading the digits of a national significant number directly from its parsed
+ * form, i.e. the national number as a {@code long} and the number of leading zeros preceding it,
+ * without building a string. The digits are the leading zeros followed by the decimal digits of the
+ * national number, as in {@code PhoneNumberUtil.getNationalSignificantNumber}. Apart from
+ * {@link #toString}, the methods throw {@link IllegalArgumentException} for a negative national
+ * number.
+ */
+public final class NationalNumberDigits {
+
+  // Every non-negative long value has at most this many decimal digits.
+  private static final int MAX_LONG_DIGITS = 19;
+
+  private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  /** Returns the number of digits of the national significant number. */
+  public static int getLength(long nationalNumber, int leadingZeros) {
+    return leadingZeros + getDigitCount(nationalNumber);
+  }
+
+  /**
+   * Returns the power of ten dividing the national number down to its most significant digit. The
+   * digits of the national number are read from the most significant one with
+   * <pre>
+   * for (long divisor = getLeadingDivisor(nationalNumber); divisor > 0; divisor /= 10) {
+   *   int digit = (int) (nationalNumber / divisor % 10);
+   * }
+   * </pre>
+   */
+  public static long getLeadingDivisor(long nationalNumber) {
+    return POWERS_OF_TEN[getDigitCount(nationalNumber) - 1];
+  }
+
+  /** Returns the national significant number as a string. */
+  public static String toString(long nationalNumber, int leadingZeros) {
+    if (leadingZeros <= 0) {
+      return Long.toString(nationalNumber);
+    }
+    char[] zeros = new char[leadingZeros];
+    Arrays.fill(zeros, '0');
+    return new String(zeros) + nationalNumber;
+  }
+
+  private static int getDigitCount(long nationalNumber) {
+    if (nationalNumber < 0) {
+      throw new IllegalArgumentException("National number is negative: " + nationalNumber);
+    }
+    int count = 1;
+    while (count < MAX_LONG_DIGITS && nationalNumber >= POWERS_OF_TEN[count]) {
+      count++;
+    }
+    return count;
+  }
+
+  private NationalNumberDigits() {}
+}
@@ -47,6 +47,14 @@ public final class RegexBasedMatcher implements MatcherApi {
     return match(number, regexCache.getPatternForRegex(nationalNumberPattern), allowPrefixMatch);
   }
 
+  // @Override
+  public boolean matchNationalNumber(long nationalNumber, int leadingZeros,
+      PhoneNumberDesc numberDesc, boolean allowPrefixMatch) {
+    // Regular expressions can only be matched against character sequences.
+    return matchNationalNumber(NationalNumberDigits.toString(nationalNumber, leadingZeros),
+        numberDesc, allowPrefixMatch);
+  }
+
   private static boolean match(CharSequence number, Pattern pattern, boolean allowPrefixMatch) {
     Matcher matcher = pattern.matcher(number);
     if (!matcher.lookingAt()) {
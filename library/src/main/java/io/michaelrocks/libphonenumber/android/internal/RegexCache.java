@@ -17,62 +17,72 @@
 
 package io.michaelrocks.libphonenumber.android.internal;
 
-import java.util.LinkedHashMap;
 import java.util.regex.Pattern;
 
 /**
- * LRU Cache for compiled regular expressions used by the libphonenumbers libary.
+ * Cache for compiled regular expressions used by the libphonenumbers libary.
+ *
+ * <p>Lookups of cached patterns never block, and patterns are compiled outside of any lock. The
+ * patterns are held by a {@link ClockCache}, which evicts them in approximately LRU order.
  *
  * @author Shaopeng Jia
  */
 public class RegexCache {
-  private LRUCache<String, Pattern> cache;
+  private final ClockCache<String, Pattern> cache;
 
+  /**
+   * Creates a cache holding up to {@code size} patterns. A cache of size 0 holds nothing, and
+   * compiles every pattern again.
+   */
   public RegexCache(int size) {
-    cache = new LRUCache<String, Pattern>(size);
+    cache = new ClockCache<String, Pattern>(size);
   }
 
   public Pattern getPatternForRegex(String regex) {
     Pattern pattern = cache.get(regex);
-    if (pattern == null) {
-      pattern = Pattern.compile(regex);
-      cache.put(regex, pattern);
+    if (pattern != null) {
+      return pattern;
     }
-    return pattern;
+    // Compile outside of the lock, so that a slow compilation doesn't block other threads. Racing
+    // threads may compile the same pattern, but only the first one gets cached.
+    return cache.put(regex, Pattern.compile(regex));
   }
 
-  // @VisibleForTesting
-  boolean containsRegex(String regex) {
-    return cache.containsKey(regex);
+  /** Returns the maximum number of patterns the cache holds. */
+  public int getCapacity() {
+    return cache.getCapacity();
   }
 
-  private static class LRUCache<K, V> {
-    // LinkedHashMap offers a straightforward implementation of LRU cache.
-    private LinkedHashMap<K, V> map;
-    private int size;
+  /**
+   * Changes the maximum number of patterns the cache holds, evicting patterns if the cache
+   * currently holds more than that.
+   */
+  public void setCapacity(int size) {
+    cache.setCapacity(size);
+  }
 
-    @SuppressWarnings("serial")
-    public LRUCache(int size) {
-      this.size = size;
-      // Using access-order instead of insertion-order.
-      map = new LinkedHashMap<K, V>(size * 4 / 3 + 1, 0.75f, true) {
-        @Override
-        protected boolean removeEldestEntry(Entry<K, V> eldest) {
-          return size() > LRUCache.this.size;
-        }
-      };
-    }
+  /** Returns the number of patterns currently held by the cache. */
+  public int size() {
+    return cache.size();
+  }
 
-    public synchronized V get(K key) {
-      return map.get(key);
-    }
+  /** Returns the number of lookups that found a compiled pattern in the cache. */
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
 
-    public synchronized void put(K key, V value) {
-      map.put(key, value);
-    }
+  /** Returns the number of lookups that had to compile the pattern. */
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
 
-    public synchronized boolean containsKey(K key) {
-      return map.containsKey(key);
-    }
+  /** Returns the number of patterns evicted from the cache to make room for other ones. */
+  public long getEvictionCount() {
+    return cache.getEvictionCount();
+  }
+
+  // @VisibleForTesting
+  boolean containsRegex(String regex) {
+    return cache.containsKey(regex);
   }
 }
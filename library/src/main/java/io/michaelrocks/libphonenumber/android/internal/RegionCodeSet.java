@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An immutable set of region codes backed by a bitset of their {@link RegionCodes} identifiers, so
+ * checking membership doesn't hash the region code. Region codes without an identifier are kept in
+ * a regular set.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class RegionCodeSet {
+
+  private final long[] bits = new long[(RegionCodes.ID_COUNT + Long.SIZE - 1) / Long.SIZE];
+  // Region codes which can't be packed into identifiers, usually none.
+  private final Set<String> otherRegionCodes;
+
+  public RegionCodeSet(Collection<String> regionCodes) {
+    Set<String> others = new HashSet<String>();
+    for (String regionCode : regionCodes) {
+      int id = RegionCodes.getId(regionCode);
+      if (id != RegionCodes.INVALID_ID) {
+        bits[id >>> 6] |= 1L << id;
+      } else {
+        others.add(regionCode);
+      }
+    }
+    otherRegionCodes = others.isEmpty() ? Collections.<String>emptySet() : others;
+  }
+
+  /** Returns whether the set contains the given region code. */
+  public boolean contains(String regionCode) {
+    int id = RegionCodes.getId(regionCode);
+    if (id != RegionCodes.INVALID_ID) {
+      return contains(id);
+    }
+    return regionCode != null && otherRegionCodes.contains(regionCode);
+  }
+
+  /** Returns whether the set contains the region code with the given identifier. */
+  public boolean contains(int id) {
+    return id >= 0 && id < RegionCodes.ID_COUNT && (bits[id >>> 6] & (1L << id)) != 0;
+  }
+}
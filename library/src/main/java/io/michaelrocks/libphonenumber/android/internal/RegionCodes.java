@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+/**
+ * Utility class for packing region codes into small integer identifiers. A region code made of two
+ * uppercase ASCII letters, which covers all the geographical regions, is packed into an identifier
+ * in the range [0, {@link #ID_COUNT}), so it can be used as an array or bitset index instead of
+ * hashing and comparing strings. Other region codes, such as the non-geographical "001", have no
+ * identifier.
+ */
+public final class RegionCodes {
+
+  /** Returned by {@link #getId} for region codes which can't be packed. */
+  public static final int INVALID_ID = -1;
+
+  /** The number of distinct identifiers, all of them are less than this value. */
+  public static final int ID_COUNT = 26 * 26;
+
+  /**
+   * Returns the identifier of the given region code, or {@link #INVALID_ID} if it is {@code null}
+   * or isn't made of two uppercase ASCII letters.
+   */
+  public static int getId(String regionCode) {
+    if (regionCode == null || regionCode.length() != 2) {
+      return INVALID_ID;
+    }
+    int first = regionCode.charAt(0) - 'A';
+    int second = regionCode.charAt(1) - 'A';
+    if (first < 0 || first >= 26 || second < 0 || second >= 26) {
+      return INVALID_ID;
+    }
+    return first * 26 + second;
+  }
+
+  /** Returns the region code with the given identifier. */
+  public static String getRegionCode(int id) {
+    if (id < 0 || id >= ID_COUNT) {
+      throw new IllegalArgumentException("Invalid region code identifier: " + id);
+    }
+    return new String(new char[] { (char) ('A' + id / 26), (char) ('A' + id % 26) });
+  }
+
+  private RegionCodes() {}
+}
@@ -0,0 +1,590 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.metadata.init;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.NumberFormat;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadataCollection;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+
+/**
+ * Encodes and decodes {@link PhoneMetadata} in a compact binary format, which is much cheaper to
+ * read than the {@link java.io.Externalizable} form used by {@link PhoneMetadataCollection}.
+ *
+ * <p>An encoded file starts with the {@link #MAGIC} bytes followed by a version byte and a varint
+ * with format flags. If the string table flag is set, the flags are followed by a varint count of
+ * distinct strings and the strings themselves, and every other string in the file is written as a
+ * varint index into this table. Otherwise strings are written inline. A string is written as a
+ * varint length followed by its UTF-8 bytes. Then comes a varint count of the metadata entries and
+ * the entries, whose fields are written in the same order as in
+ * {@link PhoneMetadata#writeExternal}. Counts are written as varints, integers which may be
+ * negative as zigzag varints, and optional fields are marked present with bits of a varint mask
+ * preceding them.
+ */
+public final class CompactMetadataCodec {
+
+  /** Bytes every file in the compact format starts with. */
+  static final byte[] MAGIC = { 'P', 'N', 'M', 'C' };
+  private static final int VERSION = 1;
+
+  private static final int FLAG_STRING_TABLE = 1;
+
+  // Bits of the mask preceding the optional fields of a PhoneNumberDesc.
+  private static final int DESC_NATIONAL_NUMBER_PATTERN = 1;
+  private static final int DESC_EXAMPLE_NUMBER = 1 << 1;
+
+  // Bits of the mask preceding the optional fields of a NumberFormat.
+  private static final int FORMAT_NATIONAL_PREFIX_FORMATTING_RULE = 1;
+  private static final int FORMAT_DOMESTIC_CARRIER_CODE_FORMATTING_RULE = 1 << 1;
+  private static final int FORMAT_NATIONAL_PREFIX_OPTIONAL_WHEN_FORMATTING = 1 << 2;
+
+  // Bits of the mask preceding the optional fields of a PhoneMetadata.
+  private static final int METADATA_PREFERRED_INTERNATIONAL_PREFIX = 1;
+  private static final int METADATA_NATIONAL_PREFIX = 1 << 1;
+  private static final int METADATA_PREFERRED_EXTN_PREFIX = 1 << 2;
+  private static final int METADATA_NATIONAL_PREFIX_FOR_PARSING = 1 << 3;
+  private static final int METADATA_NATIONAL_PREFIX_TRANSFORM_RULE = 1 << 4;
+  private static final int METADATA_SAME_MOBILE_AND_FIXED_LINE_PATTERN = 1 << 5;
+  private static final int METADATA_MAIN_COUNTRY_FOR_CODE = 1 << 6;
+  private static final int METADATA_LEADING_DIGITS = 1 << 7;
+  private static final int METADATA_MOBILE_NUMBER_PORTABLE_REGION = 1 << 8;
+
+  private static final int DESC_COUNT = 17;
+
+  // Charset.forName() is used since StandardCharsets isn't available on older Android versions.
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private CompactMetadataCodec() {}
+
+  /** Returns whether the given bytes start with the header of the compact format. */
+  static boolean hasMagic(byte[] bytes, int length) {
+    return hasMagic(ByteBuffer.wrap(bytes, 0, length));
+  }
+
+  /** Returns whether the remaining bytes of the buffer start with the header of the format. */
+  static boolean hasMagic(ByteBuffer buffer) {
+    if (buffer.remaining() < MAGIC.length) {
+      return false;
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Encodes the metadata of the given collection into the compact format.
+   *
+   * @param useStringTable whether strings should be written once into a table and referenced by
+   *     index, which makes the output smaller when the metadata contains repeated strings
+   */
+  public static byte[] encode(PhoneMetadataCollection metadataCollection, boolean useStringTable) {
+    return encode(metadataCollection.getMetadataList(), useStringTable);
+  }
+
+  /**
+   * Encodes the given metadata into the compact format.
+   *
+   * @param useStringTable whether strings should be written once into a table and referenced by
+   *     index, which makes the output smaller when the metadata contains repeated strings
+   */
+  public static byte[] encode(Collection<PhoneMetadata> metadataList, boolean useStringTable) {
+    Writer writer = new Writer();
+    writer.writeBytes(MAGIC);
+    writer.writeByte(VERSION);
+    if (useStringTable) {
+      writer.writeVarint(FLAG_STRING_TABLE);
+      String[] strings = collectStrings(metadataList);
+      writer.writeVarint(strings.length);
+      Map<String, Integer> stringTable = new HashMap<String, Integer>();
+      for (int i = 0; i < strings.length; i++) {
+        writer.writeString(strings[i]);
+        stringTable.put(strings[i], i);
+      }
+      writer.stringTable = stringTable;
+    } else {
+      writer.writeVarint(0);
+    }
+    writer.writeVarint(metadataList.size());
+    for (PhoneMetadata metadata : metadataList) {
+      writeMetadata(writer, metadata);
+    }
+    return writer.toByteArray();
+  }
+
+  /**
+   * Decodes metadata in the compact format.
+   *
+   * @throws IllegalArgumentException if {@code bytes} don't contain valid metadata in the compact
+   *     format
+   */
+  public static List<PhoneMetadata> decode(byte[] bytes) {
+    return decode(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Decodes metadata in the compact format from the remaining bytes of the buffer. On success, the
+   * position of the buffer is advanced past the decoded metadata.
+   *
+   * @throws IllegalArgumentException if the buffer doesn't contain valid metadata in the compact
+   *     format
+   */
+  public static List<PhoneMetadata> decode(ByteBuffer buffer) {
+    try {
+      Reader reader = new Reader(buffer);
+      for (byte magicByte : MAGIC) {
+        if (buffer.get() != magicByte) {
+          throw new IllegalArgumentException("Not a compact metadata file");
+        }
+      }
+      int version = buffer.get() & 0xff;
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported compact metadata version: " + version);
+      }
+      int flags = reader.readVarint();
+      if ((flags & FLAG_STRING_TABLE) != 0) {
+        String[] strings = new String[reader.readCount()];
+        for (int i = 0; i < strings.length; i++) {
+          strings[i] = reader.readInlineString();
+        }
+        reader.stringTable = strings;
+      }
+      int metadataCount = reader.readCount();
+      List<PhoneMetadata> metadataList = new ArrayList<PhoneMetadata>(metadataCount);
+      for (int i = 0; i < metadataCount; i++) {
+        metadataList.add(readMetadata(reader));
+      }
+      return metadataList;
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated compact metadata", e);
+    }
+  }
+
+  // Strings are ordered by the number of occurrences, so that the most frequent ones get the
+  // shortest indices.
+  private static String[] collectStrings(Collection<PhoneMetadata> metadataList) {
+    final Map<String, Integer> counts = new HashMap<String, Integer>();
+    Writer counter = new Writer() {
+      @Override
+      void writeString(String value) {
+        Integer count = counts.get(value);
+        counts.put(value, count == null ? 1 : count + 1);
+      }
+    };
+    for (PhoneMetadata metadata : metadataList) {
+      writeMetadata(counter, metadata);
+    }
+    String[] strings = counts.keySet().toArray(new String[counts.size()]);
+    Arrays.sort(strings, new Comparator<String>() {
+      @Override
+      public int compare(String left, String right) {
+        int result = counts.get(right).compareTo(counts.get(left));
+        return result != 0 ? result : left.compareTo(right);
+      }
+    });
+    return strings;
+  }
+
+  private static PhoneNumberDesc[] getDescs(PhoneMetadata metadata) {
+    return new PhoneNumberDesc[] {
+        metadata.hasGeneralDesc() ? metadata.getGeneralDesc() : null,
+        metadata.hasFixedLine() ? metadata.getFixedLine() : null,
+        metadata.hasMobile() ? metadata.getMobile() : null,
+        metadata.hasTollFree() ? metadata.getTollFree() : null,
+        metadata.hasPremiumRate() ? metadata.getPremiumRate() : null,
+        metadata.hasSharedCost() ? metadata.getSharedCost() : null,
+        metadata.hasPersonalNumber() ? metadata.getPersonalNumber() : null,
+        metadata.hasVoip() ? metadata.getVoip() : null,
+        metadata.hasPager() ? metadata.getPager() : null,
+        metadata.hasUan() ? metadata.getUan() : null,
+        metadata.hasEmergency() ? metadata.getEmergency() : null,
+        metadata.hasVoicemail() ? metadata.getVoicemail() : null,
+        metadata.hasShortCode() ? metadata.getShortCode() : null,
+        metadata.hasStandardRate() ? metadata.getStandardRate() : null,
+        metadata.hasCarrierSpecific() ? metadata.getCarrierSpecific() : null,
+        metadata.hasSmsServices() ? metadata.getSmsServices() : null,
+        metadata.hasNoInternationalDialling() ? metadata.getNoInternationalDialling() : null,
+    };
+  }
+
+  private static void setDesc(PhoneMetadata metadata, int index, PhoneNumberDesc desc) {
+    switch (index) {
+      case 0: metadata.setGeneralDesc(desc); break;
+      case 1: metadata.setFixedLine(desc); break;
+      case 2: metadata.setMobile(desc); break;
+      case 3: metadata.setTollFree(desc); break;
+      case 4: metadata.setPremiumRate(desc); break;
+      case 5: metadata.setSharedCost(desc); break;
+      case 6: metadata.setPersonalNumber(desc); break;
+      case 7: metadata.setVoip(desc); break;
+      case 8: metadata.setPager(desc); break;
+      case 9: metadata.setUan(desc); break;
+      case 10: metadata.setEmergency(desc); break;
+      case 11: metadata.setVoicemail(desc); break;
+      case 12: metadata.setShortCode(desc); break;
+      case 13: metadata.setStandardRate(desc); break;
+      case 14: metadata.setCarrierSpecific(desc); break;
+      case 15: metadata.setSmsServices(desc); break;
+      case 16: metadata.setNoInternationalDialling(desc); break;
+      default: throw new AssertionError(index);
+    }
+  }
+
+  private static void writeMetadata(Writer writer, PhoneMetadata metadata) {
+    PhoneNumberDesc[] descs = getDescs(metadata);
+    int descMask = 0;
+    for (int i = 0; i < DESC_COUNT; i++) {
+      if (descs[i] != null) {
+        descMask |= 1 << i;
+      }
+    }
+    writer.writeVarint(descMask);
+    for (PhoneNumberDesc desc : descs) {
+      if (desc != null) {
+        writeDesc(writer, desc);
+      }
+    }
+
+    writer.writeString(metadata.getId());
+    writer.writeSignedVarint(metadata.getCountryCode());
+    writer.writeString(metadata.getInternationalPrefix());
+
+    int mask = 0;
+    if (metadata.hasPreferredInternationalPrefix()) {
+      mask |= METADATA_PREFERRED_INTERNATIONAL_PREFIX;
+    }
+    if (metadata.hasNationalPrefix()) {
+      mask |= METADATA_NATIONAL_PREFIX;
+    }
+    if (metadata.hasPreferredExtnPrefix()) {
+      mask |= METADATA_PREFERRED_EXTN_PREFIX;
+    }
+    if (metadata.hasNationalPrefixForParsing()) {
+      mask |= METADATA_NATIONAL_PREFIX_FOR_PARSING;
+    }
+    if (metadata.hasNationalPrefixTransformRule()) {
+      mask |= METADATA_NATIONAL_PREFIX_TRANSFORM_RULE;
+    }
+    if (metadata.getSameMobileAndFixedLinePattern()) {
+      mask |= METADATA_SAME_MOBILE_AND_FIXED_LINE_PATTERN;
+    }
+    if (metadata.getMainCountryForCode()) {
+      mask |= METADATA_MAIN_COUNTRY_FOR_CODE;
+    }
+    if (metadata.hasLeadingDigits()) {
+      mask |= METADATA_LEADING_DIGITS;
+    }
+    if (metadata.getMobileNumberPortableRegion()) {
+      mask |= METADATA_MOBILE_NUMBER_PORTABLE_REGION;
+    }
+    writer.writeVarint(mask);
+    if (metadata.hasPreferredInternationalPrefix()) {
+      writer.writeString(metadata.getPreferredInternationalPrefix());
+    }
+    if (metadata.hasNationalPrefix()) {
+      writer.writeString(metadata.getNationalPrefix());
+    }
+    if (metadata.hasPreferredExtnPrefix()) {
+      writer.writeString(metadata.getPreferredExtnPrefix());
+    }
+    if (metadata.hasNationalPrefixForParsing()) {
+      writer.writeString(metadata.getNationalPrefixForParsing());
+    }
+    if (metadata.hasNationalPrefixTransformRule()) {
+      writer.writeString(metadata.getNationalPrefixTransformRule());
+    }
+
+    writer.writeVarint(metadata.getNumberFormatCount());
+    for (NumberFormat numberFormat : metadata.getNumberFormatList()) {
+      writeNumberFormat(writer, numberFormat);
+    }
+    writer.writeVarint(metadata.getIntlNumberFormatCount());
+    for (NumberFormat numberFormat : metadata.getIntlNumberFormatList()) {
+      writeNumberFormat(writer, numberFormat);
+    }
+
+    if (metadata.hasLeadingDigits()) {
+      writer.writeString(metadata.getLeadingDigits());
+    }
+  }
+
+  private static PhoneMetadata readMetadata(Reader reader) {
+    PhoneMetadata metadata = new PhoneMetadata();
+    int descMask = reader.readVarint();
+    for (int i = 0; i < DESC_COUNT; i++) {
+      if ((descMask & (1 << i)) != 0) {
+        setDesc(metadata, i, readDesc(reader));
+      }
+    }
+
+    // Required fields are always set, as PhoneMetadata.readExternal() does.
+    metadata.setId(reader.readString());
+    metadata.setCountryCode(reader.readSignedVarint());
+    metadata.setInternationalPrefix(reader.readString());
+
+    int mask = reader.readVarint();
+    if ((mask & METADATA_PREFERRED_INTERNATIONAL_PREFIX) != 0) {
+      metadata.setPreferredInternationalPrefix(reader.readString());
+    }
+    if ((mask & METADATA_NATIONAL_PREFIX) != 0) {
+      metadata.setNationalPrefix(reader.readString());
+    }
+    if ((mask & METADATA_PREFERRED_EXTN_PREFIX) != 0) {
+      metadata.setPreferredExtnPrefix(reader.readString());
+    }
+    if ((mask & METADATA_NATIONAL_PREFIX_FOR_PARSING) != 0) {
+      metadata.setNationalPrefixForParsing(reader.readString());
+    }
+    if ((mask & METADATA_NATIONAL_PREFIX_TRANSFORM_RULE) != 0) {
+      metadata.setNationalPrefixTransformRule(reader.readString());
+    }
+    metadata.setSameMobileAndFixedLinePattern(
+        (mask & METADATA_SAME_MOBILE_AND_FIXED_LINE_PATTERN) != 0);
+
+    int numberFormatCount = reader.readCount();
+    for (int i = 0; i < numberFormatCount; i++) {
+      metadata.addNumberFormat(readNumberFormat(reader));
+    }
+    int intlNumberFormatCount = reader.readCount();
+    for (int i = 0; i < intlNumberFormatCount; i++) {
+      metadata.addIntlNumberFormat(readNumberFormat(reader));
+    }
+
+    metadata.setMainCountryForCode((mask & METADATA_MAIN_COUNTRY_FOR_CODE) != 0);
+    if ((mask & METADATA_LEADING_DIGITS) != 0) {
+      metadata.setLeadingDigits(reader.readString());
+    }
+    metadata.setMobileNumberPortableRegion(
+        (mask & METADATA_MOBILE_NUMBER_PORTABLE_REGION) != 0);
+    return metadata;
+  }
+
+  private static void writeDesc(Writer writer, PhoneNumberDesc desc) {
+    int mask = 0;
+    if (desc.hasNationalNumberPattern()) {
+      mask |= DESC_NATIONAL_NUMBER_PATTERN;
+    }
+    if (desc.hasExampleNumber()) {
+      mask |= DESC_EXAMPLE_NUMBER;
+    }
+    writer.writeVarint(mask);
+    if (desc.hasNationalNumberPattern()) {
+      writer.writeString(desc.getNationalNumberPattern());
+    }
+    writer.writeVarint(desc.getPossibleLengthCount());
+    for (int possibleLength : desc.getPossibleLengthList()) {
+      writer.writeSignedVarint(possibleLength);
+    }
+    writer.writeVarint(desc.getPossibleLengthLocalOnlyCount());
+    for (int possibleLength : desc.getPossibleLengthLocalOnlyList()) {
+      writer.writeSignedVarint(possibleLength);
+    }
+    if (desc.hasExampleNumber()) {
+      writer.writeString(desc.getExampleNumber());
+    }
+  }
+
+  private static PhoneNumberDesc readDesc(Reader reader) {
+    PhoneNumberDesc desc = new PhoneNumberDesc();
+    int mask = reader.readVarint();
+    if ((mask & DESC_NATIONAL_NUMBER_PATTERN) != 0) {
+      desc.setNationalNumberPattern(reader.readString());
+    }
+    int possibleLengthCount = reader.readCount();
+    for (int i = 0; i < possibleLengthCount; i++) {
+      desc.addPossibleLength(reader.readSignedVarint());
+    }
+    int possibleLengthLocalOnlyCount = reader.readCount();
+    for (int i = 0; i < possibleLengthLocalOnlyCount; i++) {
+      desc.addPossibleLengthLocalOnly(reader.readSignedVarint());
+    }
+    if ((mask & DESC_EXAMPLE_NUMBER) != 0) {
+      desc.setExampleNumber(reader.readString());
+    }
+    return desc;
+  }
+
+  private static void writeNumberFormat(Writer writer, NumberFormat numberFormat) {
+    writer.writeString(numberFormat.getPattern());
+    writer.writeString(numberFormat.getFormat());
+    writer.writeVarint(numberFormat.getLeadingDigitsPatternCount());
+    for (String leadingDigitsPattern : numberFormat.leadingDigitPatterns()) {
+      writer.writeString(leadingDigitsPattern);
+    }
+    int mask = 0;
+    if (numberFormat.hasNationalPrefixFormattingRule()) {
+      mask |= FORMAT_NATIONAL_PREFIX_FORMATTING_RULE;
+    }
+    if (numberFormat.hasDomesticCarrierCodeFormattingRule()) {
+      mask |= FORMAT_DOMESTIC_CARRIER_CODE_FORMATTING_RULE;
+    }
+    if (numberFormat.getNationalPrefixOptionalWhenFormatting()) {
+      mask |= FORMAT_NATIONAL_PREFIX_OPTIONAL_WHEN_FORMATTING;
+    }
+    writer.writeVarint(mask);
+    if (numberFormat.hasNationalPrefixFormattingRule()) {
+      writer.writeString(numberFormat.getNationalPrefixFormattingRule());
+    }
+    if (numberFormat.hasDomesticCarrierCodeFormattingRule()) {
+      writer.writeString(numberFormat.getDomesticCarrierCodeFormattingRule());
+    }
+  }
+
+  private static NumberFormat readNumberFormat(Reader reader) {
+    NumberFormat numberFormat = new NumberFormat();
+    numberFormat.setPattern(reader.readString());
+    numberFormat.setFormat(reader.readString());
+    int leadingDigitsPatternCount = reader.readCount();
+    for (int i = 0; i < leadingDigitsPatternCount; i++) {
+      numberFormat.addLeadingDigitsPattern(reader.readString());
+    }
+    int mask = reader.readVarint();
+    if ((mask & FORMAT_NATIONAL_PREFIX_FORMATTING_RULE) != 0) {
+      numberFormat.setNationalPrefixFormattingRule(reader.readString());
+    }
+    if ((mask & FORMAT_DOMESTIC_CARRIER_CODE_FORMATTING_RULE) != 0) {
+      numberFormat.setDomesticCarrierCodeFormattingRule(reader.readString());
+    }
+    numberFormat.setNationalPrefixOptionalWhenFormatting(
+        (mask & FORMAT_NATIONAL_PREFIX_OPTIONAL_WHEN_FORMATTING) != 0);
+    return numberFormat;
+  }
+
+  private static class Writer {
+    // When set, strings are written as indices into the table.
+    Map<String, Integer> stringTable;
+    private byte[] bytes = new byte[4096];
+    private int length;
+
+    void writeByte(int value) {
+      if (length == bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      bytes[length++] = (byte) value;
+    }
+
+    void writeBytes(byte[] value) {
+      for (byte b : value) {
+        writeByte(b);
+      }
+    }
+
+    void writeVarint(int value) {
+      while ((value & ~0x7f) != 0) {
+        writeByte((value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      writeByte(value);
+    }
+
+    void writeSignedVarint(int value) {
+      writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    void writeString(String value) {
+      if (stringTable != null) {
+        writeVarint(stringTable.get(value));
+      } else {
+        byte[] utf8 = value.getBytes(UTF_8);
+        writeVarint(utf8.length);
+        writeBytes(utf8);
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, length);
+    }
+  }
+
+  private static final class Reader {
+    private final ByteBuffer buffer;
+    // When set, strings are read as indices into the table.
+    String[] stringTable;
+    private byte[] scratch;
+
+    Reader(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    int readVarint() {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        byte b = buffer.get();
+        value |= (b & 0x7f) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed varint");
+    }
+
+    int readSignedVarint() {
+      int value = readVarint();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Counts are checked against the remaining bytes, so that corrupted data fails instead of
+    // allocating huge arrays.
+    int readCount() {
+      int count = readVarint();
+      if (count < 0 || count > buffer.remaining()) {
+        throw new IllegalArgumentException("Malformed count: " + count);
+      }
+      return count;
+    }
+
+    String readString() {
+      if (stringTable == null) {
+        return readInlineString();
+      }
+      int index = readVarint();
+      if (index < 0 || index >= stringTable.length) {
+        throw new IllegalArgumentException("Malformed string index: " + index);
+      }
+      return stringTable[index];
+    }
+
+    String readInlineString() {
+      int length = readCount();
+      String value;
+      if (buffer.hasArray()) {
+        value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+        buffer.position(buffer.position() + length);
+      } else {
+        if (scratch == null || scratch.length < length) {
+          scratch = new byte[Math.max(length, 256)];
+        }
+        buffer.get(scratch, 0, length);
+        value = new String(scratch, 0, length, UTF_8);
+      }
+      return value;
+    }
+  }
+}
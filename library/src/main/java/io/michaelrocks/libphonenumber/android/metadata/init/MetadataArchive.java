@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.metadata.init;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A single file containing many metadata files, which can be memory-mapped and read without
+ * opening and copying every metadata file separately. Entries are usually metadata in the
+ * {@link CompactMetadataCodec} format, so they are decoded straight from the mapped memory, but
+ * any format accepted by {@link MetadataParser} can be stored.
+ *
+ * <p>An archive starts with the {@link #MAGIC} bytes and a version byte, followed by a table with
+ * the number of entries and, for every entry, its name as a 2-byte length and UTF-8 bytes and the
+ * offset and length of its contents as 4-byte integers. Offsets are relative to the end of the
+ * table. All integers are big-endian.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class MetadataArchive {
+
+  private static final byte[] MAGIC = { 'P', 'N', 'M', 'A' };
+  private static final int VERSION = 1;
+
+  // Charset.forName() is used since StandardCharsets isn't available on older Android versions.
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final ByteBuffer buffer;
+  // Offset and length of every entry within the buffer.
+  private final Map<String, long[]> entries;
+
+  private MetadataArchive(ByteBuffer buffer, Map<String, long[]> entries) {
+    this.buffer = buffer;
+    this.entries = entries;
+  }
+
+  /** Memory-maps the archive stored in the given file. */
+  public static MetadataArchive map(File file) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      return map(channel, 0, channel.size());
+    } finally {
+      // The mapping stays valid after the file is closed.
+      randomAccessFile.close();
+    }
+  }
+
+  /**
+   * Memory-maps the archive stored in the given region of the channel. On Android, an archive
+   * stored as an uncompressed asset can be mapped with the channel of
+   * {@code AssetFileDescriptor.createInputStream()} and the start offset and length of the
+   * descriptor.
+   */
+  public static MetadataArchive map(FileChannel channel, long offset, long size)
+      throws IOException {
+    return wrap(channel.map(FileChannel.MapMode.READ_ONLY, offset, size));
+  }
+
+  /**
+   * Reads the archive from the remaining bytes of the buffer. The buffer is shared with the
+   * archive, so its contents must not be changed afterwards.
+   *
+   * @throws IllegalArgumentException if the buffer doesn't contain a valid archive
+   */
+  public static MetadataArchive wrap(ByteBuffer buffer) {
+    ByteBuffer archive = buffer.slice();
+    try {
+      for (byte magicByte : MAGIC) {
+        if (archive.get() != magicByte) {
+          throw new IllegalArgumentException("Not a metadata archive");
+        }
+      }
+      int version = archive.get() & 0xff;
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unsupported metadata archive version: " + version);
+      }
+      int entryCount = archive.getInt();
+      if (entryCount < 0 || entryCount > archive.remaining()) {
+        throw new IllegalArgumentException("Malformed entry count: " + entryCount);
+      }
+      Map<String, long[]> entries = new HashMap<String, long[]>(entryCount * 2);
+      byte[] nameBytes = new byte[256];
+      for (int i = 0; i < entryCount; i++) {
+        int nameLength = archive.getShort() & 0xffff;
+        if (nameBytes.length < nameLength) {
+          nameBytes = new byte[nameLength];
+        }
+        archive.get(nameBytes, 0, nameLength);
+        String name = new String(nameBytes, 0, nameLength, UTF_8);
+        long offset = archive.getInt() & 0xffffffffL;
+        long length = archive.getInt() & 0xffffffffL;
+        entries.put(name, new long[] { offset, length });
+      }
+      int dataStart = archive.position();
+      for (long[] entry : entries.values()) {
+        entry[0] += dataStart;
+        if (entry[0] + entry[1] > archive.limit()) {
+          throw new IllegalArgumentException("Entry is out of bounds of the archive");
+        }
+      }
+      return new MetadataArchive(archive, entries);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated metadata archive", e);
+    }
+  }
+
+  /**
+   * Creates an archive containing the given entries.
+   *
+   * @param entries contents of the entries keyed by their names, which are usually the names of
+   *     the metadata files without a directory, e.g. {@code PhoneNumberMetadataProto_US}
+   */
+  public static byte[] create(Map<String, byte[]> entries) {
+    try {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      DataOutputStream dataOutput = new DataOutputStream(output);
+      dataOutput.write(MAGIC);
+      dataOutput.writeByte(VERSION);
+      dataOutput.writeInt(entries.size());
+      int offset = 0;
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        byte[] name = entry.getKey().getBytes(UTF_8);
+        if (name.length > 0xffff) {
+          throw new IllegalArgumentException("Entry name is too long: " + entry.getKey());
+        }
+        dataOutput.writeShort(name.length);
+        dataOutput.write(name);
+        dataOutput.writeInt(offset);
+        dataOutput.writeInt(entry.getValue().length);
+        offset += entry.getValue().length;
+      }
+      for (byte[] contents : entries.values()) {
+        dataOutput.write(contents);
+      }
+      dataOutput.close();
+      return output.toByteArray();
+    } catch (IOException e) {
+      // ByteArrayOutputStream doesn't throw.
+      throw new AssertionError(e);
+    }
+  }
+
+  /** Returns the names of all the entries of the archive. */
+  public Set<String> getEntryNames() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /**
+   * Returns a read-only buffer with the contents of the entry with the given name, sharing memory
+   * with the archive, or {@code null} if there's no such entry.
+   */
+  public ByteBuffer getEntry(String name) {
+    long[] entry = entries.get(name);
+    if (entry == null) {
+      return null;
+    }
+    ByteBuffer contents = buffer.asReadOnlyBuffer();
+    contents.limit((int) (entry[0] + entry[1]));
+    contents.position((int) entry[0]);
+    return contents.slice();
+  }
+}
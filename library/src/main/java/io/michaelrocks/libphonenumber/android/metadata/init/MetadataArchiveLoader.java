@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.metadata.init;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.michaelrocks.libphonenumber.android.MetadataLoader;
+
+/**
+ * A {@link MetadataLoader} implementation that reads phone number metadata files from a
+ * {@link MetadataArchive}. The directory part of a metadata file name is ignored, so the file
+ * names produced by the default {@code PhoneMetadataFileNameProvider}s, e.g.
+ * {@code /io/michaelrocks/libphonenumber/android/data/PhoneNumberMetadataProto_US}, are resolved to
+ * archive entries named like {@code PhoneNumberMetadataProto_US}.
+ *
+ * <p>The returned streams share memory with the archive, and metadata in the
+ * {@link CompactMetadataCodec} format is decoded from it without copying.
+ */
+public final class MetadataArchiveLoader implements MetadataLoader {
+
+  private static final Logger logger = Logger.getLogger(MetadataArchiveLoader.class.getName());
+
+  private final MetadataArchive archive;
+
+  public MetadataArchiveLoader(MetadataArchive archive) {
+    if (archive == null) {
+      throw new IllegalArgumentException("archive could not be null.");
+    }
+    this.archive = archive;
+  }
+
+  @Override
+  public InputStream loadMetadata(String metadataFileName) {
+    String entryName = metadataFileName.substring(metadataFileName.lastIndexOf('/') + 1);
+    ByteBuffer entry = archive.getEntry(entryName);
+    if (entry == null) {
+      logger.log(Level.WARNING, String.format("File %s not found", metadataFileName));
+      return null;
+    }
+    return new ByteBufferInputStream(entry);
+  }
+}
@@ -17,9 +17,12 @@
 
 package io.michaelrocks.libphonenumber.android.metadata.init;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -60,7 +63,9 @@ public final class MetadataParser {
   }
 
   /**
-   * Parses given {@link InputStream} into a {@link Collection} of {@link PhoneMetadata}.
+   * Parses given {@link InputStream} into a {@link Collection} of {@link PhoneMetadata}. Both the
+   * {@link java.io.Externalizable} form of {@link PhoneMetadataCollection} and the format of
+   * {@link CompactMetadataCodec} are accepted, the latter being recognized by its header.
    *
    * @throws IllegalArgumentException if {@code source} is {@code null} and strict mode is on
    * @return parsed {@link PhoneMetadata}, or empty {@link Collection} if {@code source} is {@code
@@ -70,27 +75,82 @@ public final class MetadataParser {
     if (source == null) {
       return handleNullSource();
     }
+    if (source instanceof ByteBufferInputStream) {
+      ByteBuffer buffer = ((ByteBufferInputStream) source).getBuffer();
+      if (CompactMetadataCodec.hasMagic(buffer)) {
+        // Metadata is decoded straight from the buffer, e.g. from a memory-mapped archive.
+        return parse(buffer);
+      }
+    }
+    PushbackInputStream input = new PushbackInputStream(source, CompactMetadataCodec.MAGIC.length);
     ObjectInputStream ois = null;
     try {
-      ois = new ObjectInputStream(source);
-      PhoneMetadataCollection phoneMetadataCollection = new PhoneMetadataCollection();
-      phoneMetadataCollection.readExternal(ois);
-      List<PhoneMetadata> phoneMetadata = phoneMetadataCollection.getMetadataList();
+      byte[] header = new byte[CompactMetadataCodec.MAGIC.length];
+      int headerLength = readFully(input, header);
+      input.unread(header, 0, headerLength);
+      List<PhoneMetadata> phoneMetadata;
+      if (CompactMetadataCodec.hasMagic(header, headerLength)) {
+        phoneMetadata = CompactMetadataCodec.decode(readAll(input));
+      } else {
+        ois = new ObjectInputStream(input);
+        PhoneMetadataCollection phoneMetadataCollection = new PhoneMetadataCollection();
+        phoneMetadataCollection.readExternal(ois);
+        phoneMetadata = phoneMetadataCollection.getMetadataList();
+      }
       // Sanity check; this should not happen if provided InputStream is valid
       if (phoneMetadata.isEmpty()) {
         throw new IllegalStateException("Empty metadata");
       }
-      return phoneMetadataCollection.getMetadataList();
+      return phoneMetadata;
     } catch (IOException e) {
       throw new IllegalStateException("Unable to parse metadata file", e);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Unable to parse metadata file", e);
     } finally {
       if (ois != null) {
         // This will close all underlying streams as well, including source.
         close(ois);
       } else {
-        close(source);
+        close(input);
+      }
+    }
+  }
+
+  private static Collection<PhoneMetadata> parse(ByteBuffer buffer) {
+    List<PhoneMetadata> phoneMetadata;
+    try {
+      phoneMetadata = CompactMetadataCodec.decode(buffer);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Unable to parse metadata file", e);
+    }
+    if (phoneMetadata.isEmpty()) {
+      throw new IllegalStateException("Empty metadata");
+    }
+    return phoneMetadata;
+  }
+
+  // Reads as many bytes as fit into the buffer unless the stream ends earlier, and returns their
+  // number.
+  private static int readFully(InputStream input, byte[] buffer) throws IOException {
+    int length = 0;
+    while (length < buffer.length) {
+      int count = input.read(buffer, length, buffer.length - length);
+      if (count < 0) {
+        break;
       }
+      length += count;
+    }
+    return length;
+  }
+
+  private static byte[] readAll(InputStream input) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(input.available(), 4096));
+    byte[] buffer = new byte[4096];
+    int count;
+    while ((count = input.read(buffer)) >= 0) {
+      output.write(buffer, 0, count);
     }
+    return output.toByteArray();
   }
 
   private List<PhoneMetadata> handleNullSource() {
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.metadata.source;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link MetadataBootstrappingGuard} which can also load and parse metadata files on an {@link
+ * Executor} without blocking the calling thread.
+ *
+ * @param <T> needs to extend {@link MetadataContainer}
+ */
+public interface AsyncMetadataBootstrappingGuard<T extends MetadataContainer>
+    extends MetadataBootstrappingGuard<T> {
+
+  /**
+   * If metadata from the provided file has not yet been read, schedules loading and parsing from
+   * the provided file on the executor and adds the result to guarded {@link MetadataContainer}.
+   * Concurrent and subsequent calls for the same file share a single load.
+   *
+   * <p>The returned future can't be cancelled, since the load may be shared with other callers.
+   * If the load fails, the future fails with the same exception {@link #getOrBootstrap} would
+   * throw, and the file is loaded again by the next call.
+   *
+   * @param phoneMetadataFile to read from
+   * @param executor to load and parse the file on
+   * @return future of the guarded {@link MetadataContainer}
+   */
+  Future<T> getOrBootstrapAsync(String phoneMetadataFile, Executor executor);
+}
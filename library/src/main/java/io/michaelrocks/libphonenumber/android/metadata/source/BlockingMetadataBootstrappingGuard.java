@@ -19,54 +19,140 @@ package io.michaelrocks.libphonenumber.android.metadata.source;
 
 import java.io.InputStream;
 import java.util.Collection;
-import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import io.michaelrocks.libphonenumber.android.MetadataLoader;
 import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
 import io.michaelrocks.libphonenumber.android.metadata.init.MetadataParser;
+import io.michaelrocks.libphonenumber.android.metadata.source.MetadataFutures.MappedFuture;
 
 /**
  * A blocking implementation of {@link MetadataBootstrappingGuard}. Can be used for both single-file
  * (bulk) and multi-file metadata
  *
+ * <p>Different files are loaded concurrently, and only the callers asking for the same file wait
+ * for each other. Waiting parks the thread instead of holding a monitor, so virtual threads aren't
+ * pinned to their carrier while a file is loaded.
+ *
+ * <p>Files can also be loaded asynchronously with {@link #getOrBootstrapAsync}. A blocking call for
+ * a file whose asynchronous load hasn't started yet loads it on the calling thread instead of
+ * waiting for the executor.
+ *
  * @param <T> needs to extend {@link MetadataContainer}
  */
 final class BlockingMetadataBootstrappingGuard<T extends MetadataContainer>
-    implements MetadataBootstrappingGuard<T> {
+    implements AsyncMetadataBootstrappingGuard<T> {
 
   private final MetadataLoader metadataLoader;
   private final MetadataParser metadataParser;
   private final T metadataContainer;
-  private final Map<String, String> loadedFiles; // identity map
+  // Loads of the files which are either loaded or being loaded. Failed loads are removed, so that
+  // they are retried by the next caller.
+  private final ConcurrentMap<String, FileLoad> fileLoads;
 
   BlockingMetadataBootstrappingGuard(
       MetadataLoader metadataLoader, MetadataParser metadataParser, T metadataContainer) {
     this.metadataLoader = metadataLoader;
     this.metadataParser = metadataParser;
     this.metadataContainer = metadataContainer;
-    this.loadedFiles = new ConcurrentHashMap<>();
+    this.fileLoads = new ConcurrentHashMap<>();
   }
 
   @Override
   public T getOrBootstrap(String phoneMetadataFile) {
-    if (!loadedFiles.containsKey(phoneMetadataFile)) {
-      bootstrapMetadata(phoneMetadataFile);
-    }
+    FileLoad fileLoad = getFileLoad(phoneMetadataFile);
+    // Only the first thread to get here reads the file, FutureTask.run() does nothing if the load
+    // is already running or done.
+    fileLoad.run();
+    awaitFileLoad(phoneMetadataFile, fileLoad);
     return metadataContainer;
   }
 
-  private synchronized void bootstrapMetadata(String phoneMetadataFile) {
-    // Additional check is needed because multiple threads could pass the first check when calling
-    // getOrBootstrap() at the same time for unloaded metadata file
-    if (loadedFiles.containsKey(phoneMetadataFile)) {
-      return;
+  @Override
+  public Future<T> getOrBootstrapAsync(String phoneMetadataFile, Executor executor) {
+    FileLoad fileLoad = fileLoads.get(phoneMetadataFile);
+    FileLoad registeredFileLoad = null;
+    if (fileLoad == null) {
+      registeredFileLoad = new FileLoad(phoneMetadataFile);
+      fileLoad = fileLoads.putIfAbsent(phoneMetadataFile, registeredFileLoad);
+      if (fileLoad == null) {
+        fileLoad = registeredFileLoad;
+      }
+    }
+    if (!fileLoad.isDone()) {
+      try {
+        executor.execute(fileLoad);
+      } catch (RejectedExecutionException e) {
+        // A load registered by another caller may be held by it, so it's kept and is run by the
+        // next caller.
+        if (fileLoad == registeredFileLoad) {
+          fileLoads.remove(phoneMetadataFile, fileLoad);
+        }
+        throw e;
+      }
     }
+    return new MappedFuture<Void, T>(fileLoad) {
+      @Override
+      T map(Void value) {
+        return metadataContainer;
+      }
+    };
+  }
+
+  private FileLoad getFileLoad(String phoneMetadataFile) {
+    FileLoad fileLoad = fileLoads.get(phoneMetadataFile);
+    if (fileLoad == null) {
+      FileLoad newFileLoad = new FileLoad(phoneMetadataFile);
+      // Multiple threads could get here at the same time for an unloaded metadata file, only the
+      // load registered first is used.
+      fileLoad = fileLoads.putIfAbsent(phoneMetadataFile, newFileLoad);
+      if (fileLoad == null) {
+        fileLoad = newFileLoad;
+      }
+    }
+    return fileLoad;
+  }
+
+  private void bootstrapMetadata(String phoneMetadataFile) {
     Collection<PhoneMetadata> phoneMetadata = read(phoneMetadataFile);
     for (PhoneMetadata metadata : phoneMetadata) {
       metadataContainer.accept(metadata);
     }
-    loadedFiles.put(phoneMetadataFile, phoneMetadataFile);
+  }
+
+  private void awaitFileLoad(String phoneMetadataFile, FileLoad fileLoad) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          fileLoad.get();
+          return;
+        } catch (InterruptedException e) {
+          // Keep waiting like a blocked monitor would, and restore the interrupt status later.
+          interrupted = true;
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new IllegalStateException("Failed to read file " + phoneMetadataFile, cause);
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
   }
 
   private Collection<PhoneMetadata> read(String phoneMetadataFile) {
@@ -77,4 +163,30 @@ final class BlockingMetadataBootstrappingGuard<T extends MetadataContainer>
       throw new IllegalStateException("Failed to read file " + phoneMetadataFile, e);
     }
   }
+
+  private final class FileLoad extends FutureTask<Void> {
+
+    private final String phoneMetadataFile;
+
+    FileLoad(final String phoneMetadataFile) {
+      super(
+          new Callable<Void>() {
+            @Override
+            public Void call() {
+              bootstrapMetadata(phoneMetadataFile);
+              return null;
+            }
+          });
+      this.phoneMetadataFile = phoneMetadataFile;
+    }
+
+    @Override
+    protected void done() {
+      try {
+        get();
+      } catch (InterruptedException | ExecutionException e) {
+        fileLoads.remove(phoneMetadataFile, this);
+      }
+    }
+  }
 }
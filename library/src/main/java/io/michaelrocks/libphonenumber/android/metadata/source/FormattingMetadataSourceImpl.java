@@ -17,9 +17,13 @@
 
 package io.michaelrocks.libphonenumber.android.metadata.source;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
 import io.michaelrocks.libphonenumber.android.MetadataLoader;
 import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
 import io.michaelrocks.libphonenumber.android.metadata.init.MetadataParser;
+import io.michaelrocks.libphonenumber.android.metadata.source.MetadataFutures.MappedFuture;
 
 /**
  * Implementation of {@link FormattingMetadataSource} guarded by {@link MetadataBootstrappingGuard}
@@ -55,4 +59,20 @@ public final class FormattingMetadataSourceImpl implements FormattingMetadataSou
         .getOrBootstrap(phoneMetadataFileNameProvider.getFor(countryCallingCode))
         .getMetadataBy(countryCallingCode);
   }
+
+  /**
+   * Asynchronous variant of {@link #getFormattingMetadataForCountryCallingCode(int)}, which loads
+   * and parses the metadata on the executor if it hasn't been loaded yet.
+   */
+  public Future<PhoneMetadata> getFormattingMetadataForCountryCallingCodeAsync(
+      final int countryCallingCode, Executor executor) {
+    String phoneMetadataFile = phoneMetadataFileNameProvider.getFor(countryCallingCode);
+    return new MappedFuture<MapBackedMetadataContainer<Integer>, PhoneMetadata>(
+        MetadataFutures.getOrBootstrapAsync(bootstrappingGuard, phoneMetadataFile, executor)) {
+      @Override
+      PhoneMetadata map(MapBackedMetadataContainer<Integer> metadataContainer) {
+        return metadataContainer.getMetadataBy(countryCallingCode);
+      }
+    };
+  }
 }
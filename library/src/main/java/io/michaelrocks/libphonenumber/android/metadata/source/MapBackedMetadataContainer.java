@@ -19,12 +19,16 @@ package io.michaelrocks.libphonenumber.android.metadata.source;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.internal.CountryCallingCodeTable;
+import io.michaelrocks.libphonenumber.android.internal.RegionCodes;
 
 /**
  * A {@link MetadataContainer} implementation backed by a {@link ConcurrentHashMap} with generic
- * keys.
+ * keys. Keys which can be converted to small integer indices, such as region codes and country
+ * calling codes, are stored in an array instead, so looking them up doesn't need hashing.
  */
 final class MapBackedMetadataContainer<T> implements MetadataContainer {
 
@@ -35,7 +39,13 @@ final class MapBackedMetadataContainer<T> implements MetadataContainer {
           public String getKeyOf(PhoneMetadata phoneMetadata) {
             return phoneMetadata.getId();
           }
-        });
+
+          @Override
+          public int getIndexOf(String key) {
+            return RegionCodes.getId(key);
+          }
+        },
+        RegionCodes.ID_COUNT);
   }
 
   static MapBackedMetadataContainer<Integer> byCountryCallingCode() {
@@ -45,20 +55,38 @@ final class MapBackedMetadataContainer<T> implements MetadataContainer {
           public Integer getKeyOf(PhoneMetadata phoneMetadata) {
             return phoneMetadata.getCountryCode();
           }
-        });
+
+          @Override
+          public int getIndexOf(Integer key) {
+            int countryCallingCode = key;
+            return countryCallingCode >= 0
+                && countryCallingCode <= CountryCallingCodeTable.MAX_COUNTRY_CALLING_CODE
+                ? countryCallingCode
+                : -1;
+          }
+        },
+        CountryCallingCodeTable.MAX_COUNTRY_CALLING_CODE + 1);
   }
 
+  // Metadata for the keys with an index.
+  private final AtomicReferenceArray<PhoneMetadata> metadataArray;
+  // Metadata for the keys without an index.
   private final ConcurrentMap<T, PhoneMetadata> metadataMap;
 
   private final KeyProvider<T> keyProvider;
 
-  private MapBackedMetadataContainer(KeyProvider<T> keyProvider) {
+  private MapBackedMetadataContainer(KeyProvider<T> keyProvider, int indexCount) {
+    this.metadataArray = new AtomicReferenceArray<>(indexCount);
     this.metadataMap = new ConcurrentHashMap<>();
     this.keyProvider = keyProvider;
   }
 
   PhoneMetadata getMetadataBy(T key) {
-    return key != null ? metadataMap.get(key) : null;
+    if (key == null) {
+      return null;
+    }
+    int index = keyProvider.getIndexOf(key);
+    return index >= 0 ? metadataArray.get(index) : metadataMap.get(key);
   }
 
   KeyProvider<T> getKeyProvider() {
@@ -67,10 +95,22 @@ final class MapBackedMetadataContainer<T> implements MetadataContainer {
 
   @Override
   public void accept(PhoneMetadata phoneMetadata) {
-    metadataMap.put(keyProvider.getKeyOf(phoneMetadata), phoneMetadata);
+    T key = keyProvider.getKeyOf(phoneMetadata);
+    int index = keyProvider.getIndexOf(key);
+    if (index >= 0) {
+      metadataArray.set(index, phoneMetadata);
+    } else {
+      metadataMap.put(key, phoneMetadata);
+    }
   }
 
   interface KeyProvider<T> {
     T getKeyOf(PhoneMetadata phoneMetadata);
+
+    /**
+     * Returns the index of the key in the range [0, indexCount) of the container, or -1 if the key
+     * has no index.
+     */
+    int getIndexOf(T key);
   }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.metadata.source;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Helpers for the asynchronous lookups of the metadata sources.
+ */
+final class MetadataFutures {
+
+  private MetadataFutures() {}
+
+  /**
+   * Bootstraps the file with the guard on the executor. Guards that don't implement {@link
+   * AsyncMetadataBootstrappingGuard} are simply invoked on the executor.
+   */
+  static <T extends MetadataContainer> Future<T> getOrBootstrapAsync(
+      final MetadataBootstrappingGuard<T> bootstrappingGuard,
+      final String phoneMetadataFile,
+      Executor executor) {
+    if (bootstrappingGuard instanceof AsyncMetadataBootstrappingGuard) {
+      return ((AsyncMetadataBootstrappingGuard<T>) bootstrappingGuard)
+          .getOrBootstrapAsync(phoneMetadataFile, executor);
+    }
+    FutureTask<T> task =
+        new FutureTask<>(
+            new Callable<T>() {
+              @Override
+              public T call() {
+                return bootstrappingGuard.getOrBootstrap(phoneMetadataFile);
+              }
+            });
+    executor.execute(task);
+    return task;
+  }
+
+  /**
+   * A future which converts the result of another future once it is available. Cancellation isn't
+   * supported, since the source future may be shared.
+   *
+   * @param <S> the type of the result of the source future
+   * @param <T> the type of the result of this future
+   */
+  abstract static class MappedFuture<S, T> implements Future<T> {
+
+    private final Future<S> source;
+
+    MappedFuture(Future<S> source) {
+      this.source = source;
+    }
+
+    abstract T map(S value);
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+
+    @Override
+    public boolean isDone() {
+      return source.isDone();
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+      return map(source.get());
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+      return map(source.get(timeout, unit));
+    }
+  }
+}
@@ -17,10 +17,14 @@
 
 package io.michaelrocks.libphonenumber.android.metadata.source;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
 import io.michaelrocks.libphonenumber.android.MetadataLoader;
 import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
 import io.michaelrocks.libphonenumber.android.internal.GeoEntityUtility;
 import io.michaelrocks.libphonenumber.android.metadata.init.MetadataParser;
+import io.michaelrocks.libphonenumber.android.metadata.source.MetadataFutures.MappedFuture;
 
 /**
  * Implementation of {@link RegionMetadataSource} guarded by {@link MetadataBootstrappingGuard}
@@ -60,4 +64,26 @@ public final class RegionMetadataSourceImpl implements RegionMetadataSource {
         .getOrBootstrap(phoneMetadataFileNameProvider.getFor(regionCode))
         .getMetadataBy(regionCode);
   }
+
+  /**
+   * Asynchronous variant of {@link #getMetadataForRegion(String)}, which loads and parses the
+   * metadata on the executor if it hasn't been loaded yet.
+   *
+   * @throws IllegalArgumentException if provided {@code regionCode} is {@link
+   *     GeoEntityUtility#REGION_CODE_FOR_NON_GEO_ENTITIES}
+   */
+  public Future<PhoneMetadata> getMetadataForRegionAsync(
+      final String regionCode, Executor executor) {
+    if (!GeoEntityUtility.isGeoEntity(regionCode)) {
+      throw new IllegalArgumentException(regionCode + " region code is a non-geo entity");
+    }
+    String phoneMetadataFile = phoneMetadataFileNameProvider.getFor(regionCode);
+    return new MappedFuture<MapBackedMetadataContainer<String>, PhoneMetadata>(
+        MetadataFutures.getOrBootstrapAsync(bootstrappingGuard, phoneMetadataFile, executor)) {
+      @Override
+      PhoneMetadata map(MapBackedMetadataContainer<String> metadataContainer) {
+        return metadataContainer.getMetadataBy(regionCode);
+      }
+    };
+  }
 }
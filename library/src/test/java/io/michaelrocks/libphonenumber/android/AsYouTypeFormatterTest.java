@@ -1185,4 +1185,69 @@ public class AsYouTypeFormatterTest extends TestMetadataTestCase {
     assertEquals("+869881234", formatter.inputDigit('4'));
     assertEquals("+8698812345", formatter.inputDigit('5'));
   }
+
+  public void testAYTFEditUS() {
+    AsYouTypeFormatter formatter = phoneUtil.getAsYouTypeFormatter(RegionCode.US);
+    for (char c : "6502532222".toCharArray()) {
+      formatter.inputDigit(c);
+    }
+    // Backspace at the end.
+    assertEquals("650 253 222", formatter.delete(9, 10));
+    assertEquals(11, formatter.getRememberedPosition());
+    // Deleting and typing in the middle.
+    assertEquals("652 532 22", formatter.delete(2, 3));
+    assertEquals(2, formatter.getRememberedPosition());
+    assertEquals("650 253 222", formatter.insert(2, "0"));
+    assertEquals(3, formatter.getRememberedPosition());
+    assertEquals("1 650 253 222", formatter.insert(0, "1"));
+    assertEquals(1, formatter.getRememberedPosition());
+    assertEquals("+1 650 253 222", formatter.replace(0, 1, "+1"));
+    assertEquals(2, formatter.getRememberedPosition());
+    assertEquals("", formatter.delete(0, 11));
+    assertEquals(0, formatter.getRememberedPosition());
+    // Pasting a number with formatting.
+    assertEquals("650-253", formatter.insert(0, "650-253"));
+    assertEquals(7, formatter.getRememberedPosition());
+    assertEquals("650 253", formatter.delete(3, 4));
+    assertEquals(3, formatter.getRememberedPosition());
+  }
+
+  public void testAYTFEditIsSameAsEnteringAgain() {
+    AsYouTypeFormatter formatter = phoneUtil.getAsYouTypeFormatter(RegionCode.GB);
+    for (char c : "02070313000".toCharArray()) {
+      formatter.inputDigit(c);
+    }
+    formatter.delete(3, 4);
+    formatter.insert(3, "7");
+    formatter.replace(0, 1, "+44");
+    formatter.insert(5, "(0)");
+    String output = formatter.delete(5, 8);
+
+    AsYouTypeFormatter expectedFormatter = phoneUtil.getAsYouTypeFormatter(RegionCode.GB);
+    String expectedOutput = "";
+    for (char c : "+442070313000".toCharArray()) {
+      expectedOutput = expectedFormatter.inputDigit(c);
+    }
+    assertEquals(expectedOutput, output);
+    assertEquals("+44 20 7031 3000", output);
+  }
+
+  public void testAYTFEditWithInvalidIndices() {
+    AsYouTypeFormatter formatter = phoneUtil.getAsYouTypeFormatter(RegionCode.US);
+    formatter.inputDigit('6');
+    formatter.inputDigit('5');
+    try {
+      formatter.delete(1, 3);
+      fail("Expected an exception for an index past the input");
+    } catch (IndexOutOfBoundsException e) {
+      // Expected.
+    }
+    try {
+      formatter.replace(2, 1, "0");
+      fail("Expected an exception for a start index after the end index");
+    } catch (IndexOutOfBoundsException e) {
+      // Expected.
+    }
+    assertEquals("650", formatter.inputDigit('0'));
+  }
 }
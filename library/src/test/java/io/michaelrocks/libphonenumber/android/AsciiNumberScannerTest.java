@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public final class AsciiNumberScannerTest extends TestCase {
+
+  // Characters which are meaningful to the patterns, so that random strings hit many cases.
+  private static final String INTERESTING_CHARS = "0123456789+-xX ().[]/\\~*#,;:=\textnsioEAZ!";
+
+  public void testExtractPossibleNumber() {
+    assertEquals("+1 650-253-0000",
+        AsciiNumberScanner.extractPossibleNumber("Tel: +1 650-253-0000.").toString());
+    assertEquals("650) 253-0000 #",
+        AsciiNumberScanner.extractPossibleNumber("(650) 253-0000 #)").toString());
+    assertEquals("530) 583-6985 x302",
+        AsciiNumberScanner.extractPossibleNumber("(530) 583-6985 x302/x2303").toString());
+    // Trailing characters are only removed before the second number is.
+    assertEquals("530 1 ", AsciiNumberScanner.extractPossibleNumber("530 1 \\  x2").toString());
+    assertEquals("", AsciiNumberScanner.extractPossibleNumber("+-").toString());
+    assertEquals("", AsciiNumberScanner.extractPossibleNumber("Num-....").toString());
+    assertNull(AsciiNumberScanner.extractPossibleNumber("Num-\uFF11\uFF12\uFF13"));
+  }
+
+  public void testCheckViability() {
+    assertEquals(AsciiNumberScanner.VIABLE, AsciiNumberScanner.checkViability("00"));
+    assertEquals(AsciiNumberScanner.VIABLE, AsciiNumberScanner.checkViability("+1 650-253-0000"));
+    assertEquals(AsciiNumberScanner.VIABLE, AsciiNumberScanner.checkViability("0800-4-PIZZA"));
+    assertEquals(AsciiNumberScanner.NOT_VIABLE, AsciiNumberScanner.checkViability("08-PIZZA"));
+    assertEquals(AsciiNumberScanner.NOT_VIABLE, AsciiNumberScanner.checkViability("80+0"));
+    assertEquals(AsciiNumberScanner.NOT_VIABLE, AsciiNumberScanner.checkViability("650!2530000"));
+    // Numbers which only match with an extension are left to the pattern.
+    assertEquals(AsciiNumberScanner.UNDECIDED, AsciiNumberScanner.checkViability("12 ext. 3"));
+    assertEquals(AsciiNumberScanner.UNDECIDED, AsciiNumberScanner.checkViability("650 253;123"));
+    assertEquals(AsciiNumberScanner.UNDECIDED, AsciiNumberScanner.checkViability("1\u300034"));
+  }
+
+  public void testSameResultsAsPatterns() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      String number = randomString(random);
+      CharSequence possibleNumber = AsciiNumberScanner.extractPossibleNumber(number);
+      assertNotNull(number, possibleNumber);
+      assertEquals(number, PhoneNumberUtil.extractPossibleNumberWithPatterns(number).toString(),
+          possibleNumber.toString());
+      assertEquals(number, PhoneNumberUtil.matchesValidPhoneNumberPattern(number),
+          PhoneNumberUtil.isViablePhoneNumber(number));
+    }
+  }
+
+  private static String randomString(Random random) {
+    int length = random.nextInt(20);
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      if (random.nextInt(8) == 0) {
+        builder.append((char) random.nextInt(0x80));
+      } else {
+        builder.append(INTERESTING_CHARS.charAt(random.nextInt(INTERESTING_CHARS.length())));
+      }
+    }
+    return builder.toString();
+  }
+}
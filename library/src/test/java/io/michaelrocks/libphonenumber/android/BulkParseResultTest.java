@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.ParseStatus;
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.PhoneNumberType;
+
+public class BulkParseResultTest extends TestCase {
+
+  public void testPackE164() {
+    assertEquals(16502530000L, BulkParseResult.packE164(1, 6502530000L, 0));
+    // Leading zeros of the national significant number are kept.
+    assertEquals(390236618300L, BulkParseResult.packE164(39, 236618300L, 1));
+    assertEquals(800012345678L, BulkParseResult.packE164(800, 12345678L, 1));
+    assertEquals(BulkParseResult.NO_E164, BulkParseResult.packE164(0, 6502530000L, 0));
+    // 18 digits still fit, 19 don't.
+    assertEquals(123456789012345678L, BulkParseResult.packE164(123, 456789012345678L, 0));
+    assertEquals(BulkParseResult.NO_E164, BulkParseResult.packE164(123, 4567890123456789L, 0));
+  }
+
+  public void testColumns() {
+    BulkParseResult result = new BulkParseResult(130);
+    result.setParsed(0, 1, 6502530000L, 0, PhoneNumberType.FIXED_LINE_OR_MOBILE);
+    result.setFailed(1, ParseStatus.TOO_SHORT_NSN);
+    result.setParsed(129, 64, 33316005L, 0, PhoneNumberType.UNKNOWN);
+
+    assertEquals(130, result.size());
+    assertTrue(result.isParsed(0));
+    assertTrue(result.isValid(0));
+    assertEquals(PhoneNumberType.FIXED_LINE_OR_MOBILE, result.getNumberType(0));
+    assertFalse(result.isParsed(1));
+    assertEquals(ParseStatus.TOO_SHORT_NSN, result.getParseStatus(1));
+    assertEquals(BulkParseResult.NO_E164, result.getE164(1));
+    assertTrue(result.isParsed(129));
+    assertFalse(result.isValid(129));
+    assertEquals(6433316005L, result.getE164(129));
+  }
+
+  public void testRejectsIndexOutOfBounds() {
+    BulkParseResult result = new BulkParseResult(1);
+    try {
+      result.getE164(1);
+      fail("Index out of bounds should have been rejected.");
+    } catch (IndexOutOfBoundsException e) {
+      // Expected.
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.NumberFormat;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+import io.michaelrocks.libphonenumber.android.internal.RegexCache;
+
+public final class DerivedMetadataTest extends TestCase {
+
+  private final RegexCache regexCache = new RegexCache(100);
+
+  public void testGetFormatIndex() {
+    PhoneMetadata metadata = createMetadata();
+    DerivedMetadata derived = DerivedMetadata.create(metadata);
+
+    FormatIndex numberFormatIndex = derived.getFormatIndex(metadata.getNumberFormatList());
+    assertEquals(0, numberFormatIndex.chooseFormat("1234567", regexCache));
+    FormatIndex intlNumberFormatIndex = derived.getFormatIndex(metadata.getIntlNumberFormatList());
+    assertEquals(-1, intlNumberFormatIndex.chooseFormat("1234567", regexCache));
+    assertEquals(0, intlNumberFormatIndex.chooseFormat("12345678", regexCache));
+    // Lists other than the ones of the metadata aren't indexed.
+    assertNull(derived.getFormatIndex(new ArrayList<>(metadata.getNumberFormatList())));
+  }
+
+  public void testGetFormattingTemplate() {
+    PhoneMetadata metadata = createMetadata();
+    DerivedMetadata derived = DerivedMetadata.create(metadata);
+
+    NumberFormat format = metadata.getNumberFormat(0);
+    assertTrue(derived.getFormattingTemplate(format).isEligible());
+    assertSame(derived.getFormattingTemplate(format), derived.getFormattingTemplate(format));
+    assertNotNull(derived.getFormattingTemplate(metadata.getIntlNumberFormat(0)));
+    // Number formats are looked up by identity.
+    NumberFormat copy = NumberFormat.newBuilder().setPattern(format.getPattern())
+        .setFormat(format.getFormat());
+    assertNull(derived.getFormattingTemplate(copy));
+  }
+
+  private static PhoneMetadata createMetadata() {
+    PhoneMetadata metadata = PhoneMetadata.newBuilder()
+        .setId("XX")
+        .setInternationalPrefix("00");
+    metadata.getGeneralDescBuilder().setNationalNumberPattern("\\d{7,8}");
+    metadata.setFixedLine(new PhoneNumberDesc().setNationalNumberPattern("\\d{7,8}"));
+    metadata.setMobile(new PhoneNumberDesc());
+    metadata.setTollFree(new PhoneNumberDesc());
+    metadata.setPremiumRate(new PhoneNumberDesc());
+    metadata.setSharedCost(new PhoneNumberDesc());
+    metadata.setPersonalNumber(new PhoneNumberDesc());
+    metadata.setVoip(new PhoneNumberDesc());
+    metadata.setPager(new PhoneNumberDesc());
+    metadata.setUan(new PhoneNumberDesc());
+    metadata.setVoicemail(new PhoneNumberDesc());
+    metadata.addNumberFormat(
+        NumberFormat.newBuilder().setPattern("(\\d{3})(\\d{4})").setFormat("$1 $2"));
+    metadata.addIntlNumberFormat(
+        NumberFormat.newBuilder().setPattern("(\\d{4})(\\d{4})").setFormat("$1-$2"));
+    return metadata;
+  }
+}
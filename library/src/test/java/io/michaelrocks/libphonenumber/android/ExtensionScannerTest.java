@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class ExtensionScannerTest extends TestCase {
+
+  private static final Pattern EXTN_PATTERN_FOR_PARSING = Pattern.compile(
+      "(?:" + PhoneNumberUtil.EXTN_PATTERNS_FOR_PARSING + ")$", PhoneNumberUtil.REGEX_FLAGS);
+  private static final Pattern EXTN_PATTERN_FOR_MATCHING = Pattern.compile(
+      "(?:" + PhoneNumberUtil.EXTN_PATTERNS_FOR_MATCHING + ")$", PhoneNumberUtil.REGEX_FLAGS);
+  private static final Pattern OPTIONAL_EXTN_PATTERN_FOR_PARSING = Pattern.compile(
+      "(?:" + PhoneNumberUtil.EXTN_PATTERNS_FOR_PARSING + ")?", PhoneNumberUtil.REGEX_FLAGS);
+  private static final Pattern OPTIONAL_EXTN_PATTERN_FOR_MATCHING = Pattern.compile(
+      "(?:" + PhoneNumberUtil.EXTN_PATTERNS_FOR_MATCHING + ")?", PhoneNumberUtil.REGEX_FLAGS);
+
+  // Pieces of numbers and extensions random strings are built of.
+  private static final String[] TOKENS = {
+      "0", "1", "23", "456", "7890", "12345678901", "\u0661", "\uFF15", "\uD835\uDFCE",
+      "x", "X", "\uFF58", "ext", "EXT.", "xtn", "extension", "extensio\u0301n", "extensi\u00F3n",
+      "Exten\u017Fion", "\uFF45\uFF58\uFF54", "\u0434\u043E\u0431", "\u0414\u041E\u0411", "anexo",
+      "int", "\u0130nt", "\u0131nt", "\uFF49\uFF4E\uFF54", ";ext=", ";EXT=", "#", "\uFF03", "~",
+      "\uFF5E", ",", ",,", ";", ":", ".", "\uFF0E", "-", " ", "\u00A0", "\t", "\n", "\r\n", "\r",
+      "\u2028", "\u0085", "+", "(", ")", "e", "t", "a", "\u0301",
+  };
+
+  public void testFindAtEnd() {
+    assertEquals(14, ExtensionScanner.FOR_PARSING.findAtEnd("1 650 253 0000 ext. 123"));
+    assertEquals(14, ExtensionScanner.FOR_PARSING.findAtEnd("1 650 253 0000;ext=123"));
+    assertEquals(14, ExtensionScanner.FOR_PARSING.findAtEnd("1 650 253 0000 - 503#"));
+    assertEquals(14, ExtensionScanner.FOR_PARSING.findAtEnd("1 650 253 0000,,123"));
+    assertEquals(-1, ExtensionScanner.FOR_PARSING.findAtEnd("1 650 253 0000"));
+    assertEquals(-1, ExtensionScanner.FOR_PARSING.findAtEnd("1 650 253 0000 - 503"));
+    // Auto dialling labels are only supported when parsing.
+    assertEquals(-1, ExtensionScanner.FOR_MATCHING.findAtEnd("1 650 253 0000,,123"));
+    assertEquals("123",
+        ExtensionScanner.getExtensionDigits("1 650 253 0000 ext. 123#", 14));
+  }
+
+  public void testSkipExtension() {
+    ExtensionScanner scanner = ExtensionScanner.FOR_MATCHING;
+    assertEquals(23, scanner.skipExtension("1 650 253 0000 ext. 123 and", 14));
+    assertEquals(14, scanner.skipExtension("1 650 253 0000 and", 14));
+    assertEquals(14, scanner.skipExtension("1 650 253 0000", 14));
+    // Fewer digits are allowed after an ambiguous label.
+    assertEquals(35, scanner.skipExtension("1 650 253 0000 ext12345678901234567", 14));
+    assertEquals(25, scanner.skipExtension("1 650 253 0000 x12345678901", 14));
+  }
+
+  public void testSameResultsAsPatterns() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      String text = randomString(random);
+      assertSameFindAtEnd(EXTN_PATTERN_FOR_PARSING, ExtensionScanner.FOR_PARSING, text);
+      assertSameFindAtEnd(EXTN_PATTERN_FOR_MATCHING, ExtensionScanner.FOR_MATCHING, text);
+      int index = random.nextInt(text.length() + 1);
+      assertSameSkipExtension(OPTIONAL_EXTN_PATTERN_FOR_PARSING, ExtensionScanner.FOR_PARSING,
+          text, index);
+      assertSameSkipExtension(OPTIONAL_EXTN_PATTERN_FOR_MATCHING, ExtensionScanner.FOR_MATCHING,
+          text, index);
+    }
+  }
+
+  private static void assertSameFindAtEnd(Pattern pattern, ExtensionScanner scanner, String text) {
+    Matcher matcher = pattern.matcher(text);
+    int start = scanner.findAtEnd(text);
+    if (!matcher.find()) {
+      assertEquals(text, -1, start);
+      return;
+    }
+    assertEquals(text, matcher.start(), start);
+    String extension = null;
+    for (int i = 1; extension == null; i++) {
+      extension = matcher.group(i);
+    }
+    assertEquals(text, extension, ExtensionScanner.getExtensionDigits(text, start));
+  }
+
+  private static void assertSameSkipExtension(Pattern pattern, ExtensionScanner scanner,
+      String text, int index) {
+    Matcher matcher = pattern.matcher(text);
+    matcher.region(index, text.length());
+    assertTrue(matcher.lookingAt());
+    assertEquals(text + " at " + index, matcher.end(), scanner.skipExtension(text, index));
+  }
+
+  private static String randomString(Random random) {
+    int count = random.nextInt(8);
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append(TOKENS[random.nextInt(TOKENS.length)]);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.NumberFormat;
+import io.michaelrocks.libphonenumber.android.internal.RegexCache;
+
+public final class FormatIndexTest extends TestCase {
+
+  private final RegexCache regexCache = new RegexCache(100);
+
+  public void testChooseFormat() {
+    FormatIndex index = FormatIndex.create(Arrays.asList(
+        createFormat("(\\d{3})(\\d{4})", "[2-9]"),
+        createFormat("(\\d{2})(\\d{4})(\\d{4})", "1[1-5]", "1[1-5][0-4]"),
+        createFormat("(\\d{3})(\\d{3})(\\d{4})")));
+
+    assertEquals(0, index.chooseFormat("6502530", regexCache));
+    assertEquals(1, index.chooseFormat("1234567890", regexCache));
+    // The last leading digits pattern is used.
+    assertEquals(2, index.chooseFormat("1254567890", regexCache));
+    // A format without leading digits matches any number its pattern matches.
+    assertEquals(2, index.chooseFormat("6502530000", regexCache));
+    assertEquals(-1, index.chooseFormat("650253", regexCache));
+    assertEquals(-1, index.chooseFormat("", regexCache));
+    assertEquals(FormatIndex.UNDECIDED, index.chooseFormat("650-2530", regexCache));
+  }
+
+  public void testUncompiledPatternsAreMatchedAsRegex() {
+    FormatIndex index = FormatIndex.create(Arrays.asList(
+        createFormat("(\\d{3})(\\d{4})", "(?!555)\\d{3}"),
+        createFormat("(\\d{3})(?=\\d)(\\d{4})"),
+        createFormat("(\\d{3})(\\d{3})")));
+
+    assertEquals(0, index.chooseFormat("6502530", regexCache));
+    assertEquals(1, index.chooseFormat("5552530", regexCache));
+    assertEquals(2, index.chooseFormat("555253", regexCache));
+  }
+
+  public void testManyFormats() {
+    List<NumberFormat> formats = new ArrayList<>();
+    for (int i = 0; i < 70; i++) {
+      formats.add(createFormat("(\\d{2})(\\d{" + (i + 1) + "})", String.valueOf(i % 10)));
+    }
+    FormatIndex index = FormatIndex.create(formats);
+
+    assertEquals(0, index.chooseFormat("001", regexCache));
+    assertEquals(39, index.chooseFormat("9" + repeat('1', 41), regexCache));
+    assertEquals(69, index.chooseFormat("9" + repeat('1', 71), regexCache));
+    assertEquals(-1, index.chooseFormat("9" + repeat('1', 72), regexCache));
+  }
+
+  private static NumberFormat createFormat(String pattern, String... leadingDigitsPatterns) {
+    NumberFormat format = NumberFormat.newBuilder().setPattern(pattern).setFormat("$1 $2");
+    for (String leadingDigitsPattern : leadingDigitsPatterns) {
+      format.addLeadingDigitsPattern(leadingDigitsPattern);
+    }
+    return format;
+  }
+
+  private static String repeat(char c, int count) {
+    char[] chars = new char[count];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.NumberFormat;
+import io.michaelrocks.libphonenumber.android.internal.RegexCache;
+
+public final class FormattingTemplateTest extends TestCase {
+
+  private static final String US_TEMPLATE =
+      "(\u2008\u2008\u2008) \u2008\u2008\u2008-\u2008\u2008\u2008\u2008";
+
+  private final RegexCache regexCache = new RegexCache(100);
+
+  public void testGetTemplate() {
+    FormattingTemplate template =
+        FormattingTemplate.create(createFormat("(\\d{3})(\\d{3})(\\d{4})", "($1) $2-$3"));
+
+    assertEquals(US_TEMPLATE, template.getTemplate(3, regexCache));
+    assertEquals(US_TEMPLATE, template.getTemplate(10, regexCache));
+    // The number is too long for the format.
+    assertEquals("", template.getTemplate(11, regexCache));
+  }
+
+  public void testGetTemplateOfVariableLengthPattern() {
+    FormattingTemplate template =
+        FormattingTemplate.create(createFormat("(\\d{2})(\\d{4,6})", "$1 $2"));
+
+    // The template is created for the longest number the pattern matches.
+    assertEquals("\u2008\u2008 \u2008\u2008\u2008\u2008\u2008\u2008",
+        template.getTemplate(5, regexCache));
+  }
+
+  public void testIsEligible() {
+    assertTrue(FormattingTemplate.create(createFormat("(\\d{3})(\\d{4})", "$1-$2")).isEligible());
+    assertFalse(FormattingTemplate.create(createFormat("(\\d{4})", "*$1")).isEligible());
+  }
+
+  public void testShouldAddSpaceAfterNationalPrefix() {
+    NumberFormat format = createFormat("(\\d{3})(\\d{4})", "$1 $2");
+    assertFalse(FormattingTemplate.create(format).shouldAddSpaceAfterNationalPrefix());
+    format.setNationalPrefixFormattingRule("$NP $FG");
+    assertTrue(FormattingTemplate.create(format).shouldAddSpaceAfterNationalPrefix());
+  }
+
+  private static NumberFormat createFormat(String pattern, String format) {
+    return NumberFormat.newBuilder().setPattern(pattern).setFormat(format);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class NormalizationTableTest extends TestCase {
+
+  public void testUpperCaseMappingsMatchMapLookups() {
+    Map<Character, Character> mappings = new HashMap<Character, Character>();
+    mappings.put('I', '4');
+    mappings.put('S', '7');
+    mappings.put('7', '7');
+    mappings.put('\u2010', '-');
+    mappings.put('\uFF0F', '/');
+    // Never looked up, since characters are upper-cased first.
+    mappings.put('a', 'a');
+    NormalizationTable table = NormalizationTable.forUpperCaseMappings(mappings);
+
+    for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+      Character expected = mappings.get(Character.toUpperCase((char) c));
+      assertEquals("Wrong mapping for " + c,
+          expected == null ? NormalizationTable.NO_MAPPING : expected.charValue(),
+          table.map((char) c));
+    }
+    // Characters outside of ASCII whose upper case form is ASCII are mapped too.
+    assertEquals('4', table.map('\u0131'));
+    assertEquals('7', table.map('\u017F'));
+  }
+
+  public void testDecimalDigitsMatchCharacterDigit() {
+    NormalizationTable table = NormalizationTable.forDecimalDigits();
+
+    for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+      int digit = Character.digit((char) c, 10);
+      assertEquals("Wrong mapping for " + c,
+          digit == -1 ? NormalizationTable.NO_MAPPING : (char) ('0' + digit),
+          table.map((char) c));
+    }
+  }
+
+  public void testNormalize() {
+    NormalizationTable table = NormalizationTable.forDecimalDigits();
+    StringBuilder output = new StringBuilder("x");
+
+    table.normalize("\uFF11-2\u0663", true, output);
+    assertEquals("x123", output.toString());
+    output.setLength(0);
+    table.normalize("\uFF11-2\u0663", false, output);
+    assertEquals("1-23", output.toString());
+
+    char[] array = new char[5];
+    assertEquals(3, table.normalize("\uFF11-2\u0663", true, array, 1));
+    assertEquals("123", new String(array, 1, 3));
+    try {
+      table.normalize("12345", true, array, 1);
+      fail("Writing past the end of the array should have failed.");
+    } catch (IndexOutOfBoundsException e) {
+      // Expected.
+    }
+
+    StringBuilder number = new StringBuilder("\uFF11-2\u0663");
+    table.normalizeInPlace(number, true);
+    assertEquals("123", number.toString());
+  }
+}
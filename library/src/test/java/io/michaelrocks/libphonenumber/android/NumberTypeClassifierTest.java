@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.PhoneNumberType;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+
+/**
+ * Unit tests for NumberTypeClassifier.java
+ */
+public class NumberTypeClassifierTest extends TestCase {
+  private static final PhoneNumberDesc NO_DESC = PhoneNumberDesc.newBuilder().build();
+
+  private static PhoneMetadata.Builder createMetadata() {
+    PhoneMetadata.Builder metadata = PhoneMetadata.newBuilder();
+    metadata.setGeneralDesc(createDesc("[2-9]\\d{5,6}", 6, 7));
+    metadata.setFixedLine(createDesc("[2-5]\\d{5,6}"));
+    metadata.setMobile(createDesc("[5-7]\\d{6}", 7));
+    metadata.setTollFree(createDesc("800\\d{3}", 6));
+    metadata.setPremiumRate(createDesc("9\\d{6}"));
+    metadata.setSharedCost(NO_DESC);
+    metadata.setVoip(NO_DESC);
+    metadata.setPersonalNumber(NO_DESC);
+    metadata.setPager(NO_DESC);
+    metadata.setUan(NO_DESC);
+    metadata.setVoicemail(NO_DESC);
+    return metadata;
+  }
+
+  private static PhoneNumberDesc createDesc(String pattern, int... possibleLengths) {
+    PhoneNumberDesc desc = PhoneNumberDesc.newBuilder().setNationalNumberPattern(pattern);
+    for (int possibleLength : possibleLengths) {
+      desc.addPossibleLength(possibleLength);
+    }
+    return desc;
+  }
+
+  public void testGetMatchingDescs() {
+    NumberTypeClassifier classifier = NumberTypeClassifier.create(createMetadata());
+    assertEquals(NumberTypeClassifier.GENERAL_DESC | NumberTypeClassifier.FIXED_LINE,
+        classifier.getMatchingDescs("234567"));
+    assertEquals(NumberTypeClassifier.GENERAL_DESC | NumberTypeClassifier.FIXED_LINE
+        | NumberTypeClassifier.MOBILE, classifier.getMatchingDescs("5345678"));
+    assertEquals(NumberTypeClassifier.GENERAL_DESC | NumberTypeClassifier.TOLL_FREE,
+        classifier.getMatchingDescs("800123"));
+    // The mobile pattern matches, but 6 isn't a possible length for mobile numbers.
+    assertEquals(NumberTypeClassifier.GENERAL_DESC, classifier.getMatchingDescs("634567"));
+    assertEquals(0, classifier.getMatchingDescs("12345"));
+    assertEquals(NumberTypeClassifier.UNDECIDED, classifier.getMatchingDescs("23456a"));
+  }
+
+  public void testGetMatchingDescsForLong() {
+    NumberTypeClassifier classifier = NumberTypeClassifier.create(createMetadata());
+    for (String number : new String[] { "234567", "5345678", "800123", "634567", "12345" }) {
+      assertEquals(classifier.getMatchingDescs(number),
+          classifier.getMatchingDescs(Long.parseLong(number), 0));
+    }
+    // Leading zeros are a part of the national significant number.
+    assertEquals(classifier.getMatchingDescs("0234567"),
+        classifier.getMatchingDescs(234567L, 1));
+    assertEquals(NumberTypeClassifier.UNDECIDED, classifier.getMatchingDescs(-234567L, 0));
+  }
+
+  public void testGetNumberType() {
+    NumberTypeClassifier classifier = NumberTypeClassifier.create(createMetadata());
+    assertEquals(PhoneNumberType.FIXED_LINE, getNumberType(classifier, "234567"));
+    assertEquals(PhoneNumberType.FIXED_LINE_OR_MOBILE, getNumberType(classifier, "5345678"));
+    assertEquals(PhoneNumberType.MOBILE, getNumberType(classifier, "6345678"));
+    assertEquals(PhoneNumberType.TOLL_FREE, getNumberType(classifier, "800123"));
+    assertEquals(PhoneNumberType.PREMIUM_RATE, getNumberType(classifier, "9123456"));
+    assertEquals(PhoneNumberType.UNKNOWN, getNumberType(classifier, "634567"));
+    assertEquals(PhoneNumberType.UNKNOWN, getNumberType(classifier, "12345678"));
+  }
+
+  public void testSameMobileAndFixedLinePattern() {
+    PhoneMetadata metadata = createMetadata();
+    metadata.setSameMobileAndFixedLinePattern(true);
+    NumberTypeClassifier classifier = NumberTypeClassifier.create(metadata);
+    assertEquals(PhoneNumberType.FIXED_LINE_OR_MOBILE, getNumberType(classifier, "234567"));
+    assertEquals(PhoneNumberType.UNKNOWN, getNumberType(classifier, "6345678"));
+  }
+
+  public void testIncompleteMetadataIsUndecided() {
+    PhoneMetadata metadata = PhoneMetadata.newBuilder();
+    metadata.setGeneralDesc(createDesc("\\d{6}"));
+    NumberTypeClassifier classifier = NumberTypeClassifier.create(metadata);
+    assertEquals(NumberTypeClassifier.UNDECIDED, classifier.getMatchingDescs("234567"));
+  }
+
+  private static PhoneNumberType getNumberType(NumberTypeClassifier classifier, String number) {
+    return classifier.getNumberType(classifier.getMatchingDescs(number));
+  }
+}
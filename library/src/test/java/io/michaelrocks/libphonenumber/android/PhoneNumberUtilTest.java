@@ -21,9 +21,17 @@ import org.junit.function.ThrowingRunnable;
 import org.mockito.Mockito;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.ParseStatus;
 import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.PhoneNumberFormat;
 import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.PhoneNumberType;
 import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.ValidationResult;
@@ -494,6 +502,20 @@ public class PhoneNumberUtilTest extends TestMetadataTestCase {
                  PhoneNumberUtil.normalizeDiallableCharsOnly(inputNumber));
   }
 
+  public void testNormaliseIntoProvidedOutput() {
+    StringBuilder output = new StringBuilder("left over");
+    PhoneNumberUtil.normalizeDigitsOnly("\uFF125\u0665-a", output);
+    assertEquals("255", output.toString());
+    PhoneNumberUtil.normalizeDiallableCharsOnly("03*4-56&+1a#234", output);
+    assertEquals("03*456+1#234", output.toString());
+    PhoneNumberUtil.convertAlphaCharactersInNumber("1800-ABC-DIS", output);
+    assertEquals("1800-222-347", output.toString());
+
+    char[] digits = new char[6];
+    assertEquals(3, PhoneNumberUtil.normalizeDigitsOnly("\uFF125\u0665-a", digits, 2));
+    assertEquals("255", new String(digits, 2, 3));
+  }
+
   public void testFormatUSNumber() {
     assertEquals("650 253 0000", phoneUtil.format(US_NUMBER, PhoneNumberFormat.NATIONAL));
     assertEquals("+1 650 253 0000", phoneUtil.format(US_NUMBER, PhoneNumberFormat.INTERNATIONAL));
@@ -1014,6 +1036,42 @@ public class PhoneNumberUtilTest extends TestMetadataTestCase {
                                                              PhoneNumberFormat.NATIONAL));
   }
 
+  public void testFormatWithFormattingCache() {
+    assertEquals(0, phoneUtil.getFormattingCacheStats().getCapacity());
+    phoneUtil.format(US_NUMBER, PhoneNumberFormat.NATIONAL);
+    assertEquals(0, phoneUtil.getFormattingCacheStats().getMissCount());
+
+    phoneUtil.setFormattingCacheCapacity(100);
+    PhoneNumber usNumberWithExtension = new PhoneNumber().mergeFrom(US_NUMBER).setExtension("4567");
+    for (int i = 0; i < 2; i++) {
+      assertEquals("650 253 0000", phoneUtil.format(US_NUMBER, PhoneNumberFormat.NATIONAL));
+      assertEquals("+1 650 253 0000",
+          phoneUtil.format(US_NUMBER, PhoneNumberFormat.INTERNATIONAL));
+      assertEquals("650 253 0000 extn. 4567",
+          phoneUtil.format(usNumberWithExtension, PhoneNumberFormat.NATIONAL));
+      assertEquals("02 3661 8300", phoneUtil.format(IT_NUMBER, PhoneNumberFormat.NATIONAL));
+      // Numbers formatted as their raw input aren't cached.
+      assertEquals("000-000-0000",
+          phoneUtil.format(US_SPOOF_WITH_RAW_INPUT, PhoneNumberFormat.NATIONAL));
+    }
+    CacheStats stats = phoneUtil.getFormattingCacheStats();
+    assertEquals(100, stats.getCapacity());
+    assertEquals(4, stats.getSize());
+    assertEquals(4, stats.getHitCount());
+    assertEquals(4, stats.getMissCount());
+    assertEquals(0.5, stats.getHitRate());
+
+    phoneUtil.setFormattingCacheCapacity(0);
+    assertEquals(0, phoneUtil.getFormattingCacheStats().getCapacity());
+    assertEquals("650 253 0000", phoneUtil.format(US_NUMBER, PhoneNumberFormat.NATIONAL));
+    try {
+      phoneUtil.setFormattingCacheCapacity(-1);
+      fail("Expected an exception for a negative capacity");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
   public void testFormatInOriginalFormat() throws Exception {
     PhoneNumber number1 = phoneUtil.parseAndKeepRawInput("+442087654321", RegionCode.GB);
     assertEquals("+44 20 8765 4321", phoneUtil.formatInOriginalFormat(number1, RegionCode.GB));
@@ -2568,6 +2626,110 @@ public class PhoneNumberUtilTest extends TestMetadataTestCase {
     }
   }
 
+  public void testTryParse() throws Exception {
+    PhoneNumber number = new PhoneNumber();
+    assertEquals(ParseStatus.SUCCESS, phoneUtil.tryParse("03-331 6005", RegionCode.NZ, number));
+    assertEquals(NZ_NUMBER, number);
+    // The number is cleared before being filled, so it can be reused.
+    number.setExtension("1234");
+    assertEquals(ParseStatus.SUCCESS, phoneUtil.tryParse("+64 3 331 6005", RegionCode.ZZ, number));
+    assertEquals(NZ_NUMBER, number);
+
+    assertEquals(ParseStatus.SUCCESS,
+        phoneUtil.tryParseAndKeepRawInput("+64 3 331 6005", RegionCode.ZZ, number));
+    assertEquals(phoneUtil.parseAndKeepRawInput("+64 3 331 6005", RegionCode.ZZ), number);
+  }
+
+  public void testTryParseReportsSameErrorsAsParse() {
+    String[][] inputs = {
+        { null, RegionCode.NZ },
+        { "This is not a phone number", RegionCode.NZ },
+        { "+---", RegionCode.DE },
+        { "123 456 7890", RegionCode.ZZ },
+        { "+210 3456 56789", RegionCode.NZ },
+        { "+ 00 210 3 331 6005", RegionCode.NZ },
+        { "123 456 7890", "CS" },
+        { "0044-----", RegionCode.GB },
+        { "0044", RegionCode.GB },
+        { "011", RegionCode.US },
+        { "0119", RegionCode.US },
+        { "01495 72553301873 810104", RegionCode.GB },
+        { "tel:555-1234;phone-context=1-331", RegionCode.ZZ },
+        { "+64 3 331 6005", RegionCode.ZZ },
+    };
+    PhoneNumber number = new PhoneNumber();
+    for (String[] input : inputs) {
+      NumberParseException.ErrorType expectedErrorType = null;
+      try {
+        phoneUtil.parse(input[0], input[1]);
+      } catch (NumberParseException e) {
+        expectedErrorType = e.getErrorType();
+      }
+      assertEquals("Wrong status for " + input[0], expectedErrorType,
+          phoneUtil.tryParse(input[0], input[1], number).getErrorType());
+      assertEquals("Wrong status for " + input[0], expectedErrorType,
+          phoneUtil.tryParseAndKeepRawInput(input[0], input[1], number).getErrorType());
+    }
+    assertEquals(ParseStatus.TOO_SHORT_AFTER_IDD,
+        phoneUtil.tryParse("0044", RegionCode.GB, number));
+    assertEquals(ParseStatus.INVALID_COUNTRY_CODE,
+        phoneUtil.tryParse("+210 3456 56789", RegionCode.NZ, number));
+  }
+
+  public void testParseWithParsingCache() throws Exception {
+    String[][] inputs = {
+        { "03-331 6005", RegionCode.NZ },
+        { "+64 3 331 6005", null },
+        { "tel:03-331-6005;phone-context=+64", RegionCode.ZZ },
+        { "(650) 253-0000 ext. 123", RegionCode.US },
+        { "This is not a phone number", RegionCode.NZ },
+        { "123 456 7890", RegionCode.ZZ },
+        { "0044", RegionCode.GB },
+    };
+    List<PhoneNumber> expectedNumbers = new ArrayList<>();
+    List<ParseStatus> expectedStatuses = new ArrayList<>();
+    for (String[] input : inputs) {
+      PhoneNumber number = new PhoneNumber();
+      expectedStatuses.add(phoneUtil.tryParseAndKeepRawInput(input[0], input[1], number));
+      expectedNumbers.add(number);
+    }
+
+    phoneUtil.setParsingCacheCapacity(100);
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < inputs.length; j++) {
+        PhoneNumber number = new PhoneNumber();
+        assertEquals(expectedStatuses.get(j),
+            phoneUtil.tryParseAndKeepRawInput(inputs[j][0], inputs[j][1], number));
+        if (expectedStatuses.get(j) == ParseStatus.SUCCESS) {
+          assertEquals(expectedNumbers.get(j), number);
+        }
+        try {
+          phoneUtil.parseAndKeepRawInput(inputs[j][0], inputs[j][1]);
+          assertEquals(ParseStatus.SUCCESS, expectedStatuses.get(j));
+        } catch (NumberParseException e) {
+          assertEquals(expectedStatuses.get(j).getErrorType(), e.getErrorType());
+        }
+      }
+    }
+    CacheStats stats = phoneUtil.getParsingCacheStats();
+    assertEquals(inputs.length, stats.getSize());
+    assertEquals(inputs.length, stats.getMissCount());
+    assertEquals(inputs.length * 3, stats.getHitCount());
+
+    // Parsed numbers are copies of the cached ones.
+    PhoneNumber number = phoneUtil.parse("03-331 6005", RegionCode.NZ);
+    assertEquals(NZ_NUMBER, number);
+    number.setExtension("1234");
+    assertEquals(NZ_NUMBER, phoneUtil.parse("03-331 6005", RegionCode.NZ));
+    // Keeping the raw input is a part of the key.
+    assertFalse(phoneUtil.parse("03-331 6005", RegionCode.NZ).hasRawInput());
+    assertEquals(inputs.length + 1, phoneUtil.getParsingCacheStats().getSize());
+
+    phoneUtil.setParsingCacheCapacity(0);
+    assertEquals(0, phoneUtil.getParsingCacheStats().getCapacity());
+    assertEquals(NZ_NUMBER, phoneUtil.parse("03-331 6005", RegionCode.NZ));
+  }
+
   public void testParseNumbersWithPlusWithNoRegion() throws Exception {
     // RegionCode.ZZ is allowed only if the number starts with a '+' - then the country calling code
     // can be calculated.
@@ -3281,4 +3443,174 @@ public class PhoneNumberUtilTest extends TestMetadataTestCase {
           }
         });
   }
+
+  public void testLoadMetadataForRegionAsync() throws Exception {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    Executor executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        tasks.add(command);
+      }
+    };
+
+    Future<?> future = phoneUtil.loadMetadataForRegionAsync(RegionCode.US, executor);
+    assertFalse(future.isDone());
+    // The read of the metadata file and the preparation of the metadata.
+    assertEquals(2, tasks.size());
+    // The preparation doesn't wait for the queued read, it reads the file itself.
+    tasks.get(1).run();
+    assertTrue(future.isDone());
+    assertNull(future.get());
+    tasks.get(0).run();
+
+    // Nothing is loaded for unknown regions, but the future still completes.
+    future = phoneUtil.loadMetadataForRegionAsync(RegionCode.ZZ, executor);
+    assertEquals(3, tasks.size());
+    tasks.get(2).run();
+    assertNull(future.get());
+  }
+
+  public void testLoadMetadataForRegionAsyncForMissingMetadata() throws Exception {
+    Executor executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+    };
+    Future<?> future =
+        phoneNumberUtilWithMissingMetadata.loadMetadataForRegionAsync(RegionCode.US, executor);
+    try {
+      future.get();
+      fail("The future should have failed.");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof MissingMetadataException);
+    }
+  }
+
+  public void testPreloadMetadata() throws Exception {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    Executor executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        tasks.add(command);
+        command.run();
+      }
+    };
+
+    phoneUtil.preloadMetadata(Arrays.asList(RegionCode.DE, RegionCode.ZZ), Arrays.asList(1, 800),
+        true, executor);
+    // A read and a preparation for DE, the NANPA regions of the test metadata and the
+    // non-geographical entity 800, and only a preparation for ZZ, which loads nothing.
+    int nanpaRegionCount = phoneUtil.getRegionCodesForCountryCode(1).size();
+    assertEquals(2 * (2 + nanpaRegionCount) + 1, tasks.size());
+  }
+
+  public void testGetRegionCodeForNumberLoadsOnlyCheckedRegions() throws Exception {
+    final MetadataSource testMetadataSource = phoneUtil.getMetadataSource();
+    final List<String> loadedRegions = new ArrayList<String>();
+    PhoneNumberUtil util = new PhoneNumberUtil(new MetadataSource() {
+      @Override
+      public PhoneMetadata getMetadataForRegion(String regionCode) {
+        loadedRegions.add(regionCode);
+        return testMetadataSource.getMetadataForRegion(regionCode);
+      }
+
+      @Override
+      public PhoneMetadata getMetadataForNonGeographicalRegion(int countryCallingCode) {
+        return testMetadataSource.getMetadataForNonGeographicalRegion(countryCallingCode);
+      }
+    }, new DefaultMetadataDependenciesProvider(),
+        CountryCodeToRegionCodeMapForTesting.getCountryCodeToRegionCodeMap());
+
+    assertEquals(RegionCode.US, util.getRegionCodeForNumber(US_NUMBER));
+    assertEquals(Arrays.asList(RegionCode.US), loadedRegions);
+
+    Executor executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+    };
+    util.preloadMetadata(Collections.<String>emptyList(), Arrays.asList(1), false, executor);
+    assertEquals(RegionCode.BS, util.getRegionCodeForNumber(BS_NUMBER));
+    assertEquals(RegionCode.US, util.getRegionCodeForNumber(US_NUMBER));
+    assertEquals(util.getRegionCodesForCountryCode(1).size(), loadedRegions.size());
+  }
+
+  public void testPreloadAllMetadata() throws Exception {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    Executor executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        tasks.add(command);
+        command.run();
+      }
+    };
+
+    phoneUtil.preloadAllMetadata(false, executor);
+    assertEquals(2 * (phoneUtil.getSupportedRegions().size()
+        + phoneUtil.getSupportedGlobalNetworkCallingCodes().size()), tasks.size());
+  }
+
+  public void testParseAndValidateAll() throws Exception {
+    List<String> numbers = new ArrayList<String>();
+    List<String> defaultRegions = new ArrayList<String>();
+    // Enough numbers for several chunks.
+    for (int i = 0; i < 1000; i++) {
+      Collections.addAll(numbers, "+1 650 253 0000", "02 3661 8300", "03-331 6005", "1 MICROSOFT",
+          "+44 7912 345 678", "123");
+      Collections.addAll(defaultRegions, RegionCode.ZZ, RegionCode.IT, RegionCode.NZ,
+          RegionCode.NZ, RegionCode.US, RegionCode.US);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    BulkParseResult result;
+    try {
+      result = phoneUtil.parseAndValidateAll(numbers, defaultRegions, executor);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(numbers.size(), result.size());
+    PhoneNumber number = new PhoneNumber();
+    for (int i = 0; i < numbers.size(); i++) {
+      ParseStatus status = phoneUtil.tryParse(numbers.get(i), defaultRegions.get(i), number);
+      assertEquals(status, result.getParseStatus(i));
+      if (status == ParseStatus.SUCCESS) {
+        assertEquals("+" + result.getE164(i), phoneUtil.format(number, PhoneNumberFormat.E164));
+        assertEquals(phoneUtil.getNumberType(number), result.getNumberType(i));
+        assertEquals(phoneUtil.isValidNumber(number), result.isValid(i));
+      } else {
+        assertEquals(BulkParseResult.NO_E164, result.getE164(i));
+        assertFalse(result.isValid(i));
+      }
+    }
+    assertEquals(PhoneNumberType.MOBILE, result.getNumberType(4));
+    assertEquals(ParseStatus.NOT_A_NUMBER, result.getParseStatus(3));
+  }
+
+  public void testParseAndValidateAllOnCallingThread() throws Exception {
+    BulkParseResult result = phoneUtil.parseAndValidateAll(
+        Arrays.asList("650 253 0000", "800 253 0000", "+64 3 331 6005"), RegionCode.US, null);
+
+    assertEquals(16502530000L, result.getE164(0));
+    assertEquals(PhoneNumberType.TOLL_FREE, result.getNumberType(1));
+    assertEquals(6433316005L, result.getE164(2));
+    assertTrue(result.isValid(2));
+  }
+
+  public void testPreloadMetadataForMissingMetadata() throws Exception {
+    Executor executor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+    };
+    try {
+      phoneNumberUtilWithMissingMetadata.preloadMetadata(Arrays.asList(RegionCode.US),
+          Collections.<Integer>emptyList(), false, executor);
+      fail("Preloading missing metadata should have failed.");
+    } catch (MissingMetadataException e) {
+      // Expected.
+    }
+  }
 }
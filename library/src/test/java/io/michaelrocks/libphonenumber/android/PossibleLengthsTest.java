@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.PhoneNumberType;
+import io.michaelrocks.libphonenumber.android.PhoneNumberUtil.ValidationResult;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+
+public final class PossibleLengthsTest extends TestCase {
+
+  public void testGeneralDescLengths() {
+    PhoneMetadata metadata = createMetadata();
+    metadata.getGeneralDescBuilder().addPossibleLength(7).addPossibleLength(10)
+        .addPossibleLengthLocalOnly(5);
+    PossibleLengths lengths = PossibleLengths.create(metadata);
+
+    assertEquals(ValidationResult.TOO_SHORT, lengths.testLength(4, PhoneNumberType.UNKNOWN));
+    assertEquals(ValidationResult.IS_POSSIBLE_LOCAL_ONLY,
+        lengths.testLength(5, PhoneNumberType.UNKNOWN));
+    assertEquals(ValidationResult.IS_POSSIBLE, lengths.testLength(7, PhoneNumberType.UNKNOWN));
+    assertEquals(ValidationResult.INVALID_LENGTH, lengths.testLength(8, PhoneNumberType.UNKNOWN));
+    assertEquals(ValidationResult.IS_POSSIBLE, lengths.testLength(10, PhoneNumberType.UNKNOWN));
+    assertEquals(ValidationResult.TOO_LONG, lengths.testLength(11, PhoneNumberType.UNKNOWN));
+    assertEquals(ValidationResult.TOO_LONG, lengths.testLength(100, PhoneNumberType.UNKNOWN));
+  }
+
+  public void testMissingTypeLengthsAreInherited() {
+    PhoneMetadata metadata = createMetadata();
+    metadata.getGeneralDescBuilder().addPossibleLength(7).addPossibleLength(10);
+    metadata.getTollFree().addPossibleLength(-1);
+    metadata.getPremiumRate().addPossibleLength(8);
+    PossibleLengths lengths = PossibleLengths.create(metadata);
+
+    assertEquals(ValidationResult.IS_POSSIBLE, lengths.testLength(7, PhoneNumberType.FIXED_LINE));
+    assertEquals(ValidationResult.INVALID_LENGTH,
+        lengths.testLength(7, PhoneNumberType.TOLL_FREE));
+    assertEquals(ValidationResult.IS_POSSIBLE, lengths.testLength(8, PhoneNumberType.PREMIUM_RATE));
+    assertEquals(ValidationResult.TOO_SHORT, lengths.testLength(7, PhoneNumberType.PREMIUM_RATE));
+  }
+
+  public void testFixedLineOrMobileLengthsAreMerged() {
+    PhoneMetadata metadata = createMetadata();
+    metadata.getGeneralDescBuilder().addPossibleLength(7).addPossibleLength(8)
+        .addPossibleLength(10);
+    metadata.getFixedLine().addPossibleLength(7).addPossibleLengthLocalOnly(5);
+    metadata.getMobile().addPossibleLength(10).addPossibleLengthLocalOnly(6);
+    PossibleLengths lengths = PossibleLengths.create(metadata);
+
+    PhoneNumberType type = PhoneNumberType.FIXED_LINE_OR_MOBILE;
+    assertEquals(ValidationResult.IS_POSSIBLE_LOCAL_ONLY, lengths.testLength(5, type));
+    assertEquals(ValidationResult.IS_POSSIBLE_LOCAL_ONLY, lengths.testLength(6, type));
+    assertEquals(ValidationResult.IS_POSSIBLE, lengths.testLength(7, type));
+    assertEquals(ValidationResult.INVALID_LENGTH, lengths.testLength(8, type));
+    assertEquals(ValidationResult.IS_POSSIBLE, lengths.testLength(10, type));
+    assertEquals(ValidationResult.TOO_LONG, lengths.testLength(11, type));
+  }
+
+  public void testFixedLineOrMobileWithoutFixedLine() {
+    PhoneMetadata metadata = createMetadata();
+    metadata.getGeneralDescBuilder().addPossibleLength(9);
+    metadata.getFixedLine().addPossibleLength(-1);
+    PossibleLengths lengths = PossibleLengths.create(metadata);
+
+    assertEquals(ValidationResult.INVALID_LENGTH,
+        lengths.testLength(9, PhoneNumberType.FIXED_LINE));
+    assertEquals(ValidationResult.IS_POSSIBLE,
+        lengths.testLength(9, PhoneNumberType.FIXED_LINE_OR_MOBILE));
+  }
+
+  public void testUnsupportedLengthsAreUndecided() {
+    PhoneMetadata metadata = createMetadata();
+    metadata.getGeneralDescBuilder().addPossibleLength(7).addPossibleLength(40);
+    metadata.getFixedLine().addPossibleLength(8).addPossibleLength(7);
+    metadata.getMobile().addPossibleLength(8);
+    PossibleLengths lengths = PossibleLengths.create(metadata);
+
+    // Lengths which don't fit into the masks.
+    assertNull(lengths.testLength(7, PhoneNumberType.UNKNOWN));
+    // Lengths which aren't sorted.
+    assertNull(lengths.testLength(7, PhoneNumberType.FIXED_LINE));
+    assertNull(lengths.testLength(7, PhoneNumberType.FIXED_LINE_OR_MOBILE));
+    assertEquals(ValidationResult.IS_POSSIBLE, lengths.testLength(8, PhoneNumberType.MOBILE));
+
+    // Missing descriptions.
+    metadata = PhoneMetadata.newBuilder().setId("XX");
+    metadata.getGeneralDescBuilder().addPossibleLength(7);
+    lengths = PossibleLengths.create(metadata);
+    assertEquals(ValidationResult.IS_POSSIBLE, lengths.testLength(7, PhoneNumberType.UNKNOWN));
+    assertNull(lengths.testLength(7, PhoneNumberType.VOIP));
+    assertNull(lengths.testLength(7, PhoneNumberType.FIXED_LINE_OR_MOBILE));
+  }
+
+  private static PhoneMetadata createMetadata() {
+    PhoneMetadata metadata = PhoneMetadata.newBuilder().setId("XX");
+    metadata.getGeneralDescBuilder();
+    metadata.setFixedLine(new PhoneNumberDesc());
+    metadata.setMobile(new PhoneNumberDesc());
+    metadata.setTollFree(new PhoneNumberDesc());
+    metadata.setPremiumRate(new PhoneNumberDesc());
+    metadata.setSharedCost(new PhoneNumberDesc());
+    metadata.setPersonalNumber(new PhoneNumberDesc());
+    metadata.setVoip(new PhoneNumberDesc());
+    metadata.setPager(new PhoneNumberDesc());
+    metadata.setUan(new PhoneNumberDesc());
+    metadata.setVoicemail(new PhoneNumberDesc());
+    return metadata;
+  }
+}
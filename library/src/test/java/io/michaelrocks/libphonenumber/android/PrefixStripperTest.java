@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import java.util.regex.Pattern;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.internal.MatcherApi;
+import io.michaelrocks.libphonenumber.android.internal.RegexBasedMatcher;
+
+public final class PrefixStripperTest extends TestCase {
+
+  private static final MatcherApi matcherApi = RegexBasedMatcher.create();
+
+  public void testStripInternationalPrefixDigits() {
+    PrefixStripper stripper = PrefixStripper.create(createMetadata("011", "1"));
+
+    assertStrippedInternationalPrefix(stripper, "011441234", "441234");
+    // Country calling codes cannot begin with 0.
+    assertNotStrippedInternationalPrefix(stripper, "0110441234");
+    assertNotStrippedInternationalPrefix(stripper, "01");
+    assertNotStrippedInternationalPrefix(stripper, "0021234");
+  }
+
+  public void testStripInternationalPrefixPattern() {
+    PrefixStripper stripper = PrefixStripper.create(createMetadata("00[39]", "0"));
+
+    assertStrippedInternationalPrefix(stripper, "0034567700", "4567700");
+    assertStrippedInternationalPrefix(stripper, "0094567700", "4567700");
+    assertNotStrippedInternationalPrefix(stripper, "0014567700");
+    assertNotStrippedInternationalPrefix(stripper, "0030567700");
+    // A number consisting of the prefix only is stripped, as there's no 0 following it.
+    assertStrippedInternationalPrefix(stripper, "003", "");
+  }
+
+  public void testStripNationalPrefixDigits() {
+    PrefixStripper stripper = PrefixStripper.create(createMetadata("00", "34"));
+
+    assertStrippedNationalPrefix(stripper, "34356778", "356778", "");
+    assertNotStrippedNationalPrefix(stripper, "356778");
+    // The number isn't stripped if it stops matching the national number pattern.
+    assertNotStrippedNationalPrefix(stripper, "34312");
+  }
+
+  public void testStripNationalPrefixAndCarrierCode() {
+    PrefixStripper stripper = PrefixStripper.create(createMetadata("00", "0(81)?"));
+
+    assertStrippedNationalPrefix(stripper, "08122123456", "22123456", "81");
+    assertStrippedNationalPrefix(stripper, "022123456", "22123456", "");
+  }
+
+  public void testStripNationalPrefixWithTransformRule() {
+    PhoneMetadata metadata = createMetadata("00", "0(?:(11|343|3715)15)?");
+    metadata.setNationalPrefixTransformRule("9$1");
+    PrefixStripper stripper = PrefixStripper.create(metadata);
+
+    assertStrippedNationalPrefix(stripper, "0111523456789", "91123456789", "");
+    // Without the captured group, the prefix is just removed.
+    assertStrippedNationalPrefix(stripper, "01123456789", "1123456789", "");
+  }
+
+  public void testTransformRulesAreReplacedAsByMatcher() {
+    // Group references take as many digits as there are groups.
+    assertTransformed("0(\\d{2})", "5$15", "031123", "5315123");
+    assertTransformed("0(\\d)(\\d)(\\d)(\\d)(\\d)(\\d)(\\d)(\\d)(\\d)(\\d)(\\d)", "$11$1$2",
+        "0123456789012345", "1122345");
+    // Escaped characters are literals.
+    assertTransformed("0(\\d{2})", "\\$$1\\\\", "031123", "$31\\123");
+    // Groups which didn't capture anything are replaced with nothing.
+    assertTransformed("0(8)?(\\d{2})", "$1$2", "031123", "31123");
+  }
+
+  public void testInvalidTransformRuleIsReportedWhenUsed() {
+    PhoneMetadata metadata = createMetadata("00", "0(\\d{2})");
+    metadata.setNationalPrefixTransformRule("$2");
+    PrefixStripper stripper = PrefixStripper.create(metadata);
+
+    try {
+      stripper.stripNationalPrefixAndCarrierCode(new StringBuilder("031123"), matcherApi, null);
+      fail("Expected an exception for a missing group");
+    } catch (IndexOutOfBoundsException e) {
+      // Expected, as thrown by Matcher.replaceFirst().
+    }
+  }
+
+  private static PhoneMetadata createMetadata(String internationalPrefix,
+      String nationalPrefixForParsing) {
+    PhoneMetadata metadata = PhoneMetadata.newBuilder()
+        .setId("XX")
+        .setInternationalPrefix(internationalPrefix)
+        .setNationalPrefixForParsing(nationalPrefixForParsing);
+    metadata.getGeneralDescBuilder().setNationalNumberPattern("\\d{4,11}");
+    return metadata;
+  }
+
+  private static void assertTransformed(String nationalPrefixForParsing, String transformRule,
+      String number, String expected) {
+    PhoneMetadata metadata = createMetadata("00", nationalPrefixForParsing);
+    metadata.setNationalPrefixTransformRule(transformRule);
+    metadata.getGeneralDescBuilder().setNationalNumberPattern(".*");
+    StringBuilder numberToStrip = new StringBuilder(number);
+
+    assertTrue(PrefixStripper.create(metadata)
+        .stripNationalPrefixAndCarrierCode(numberToStrip, matcherApi, null));
+    assertEquals(expected, numberToStrip.toString());
+    assertEquals(expected,
+        Pattern.compile(nationalPrefixForParsing).matcher(number).replaceFirst(transformRule));
+  }
+
+  private static void assertStrippedInternationalPrefix(PrefixStripper stripper, String number,
+      String expected) {
+    StringBuilder numberToStrip = new StringBuilder(number);
+    assertTrue(stripper.stripInternationalPrefix(numberToStrip));
+    assertEquals(expected, numberToStrip.toString());
+  }
+
+  private static void assertNotStrippedInternationalPrefix(PrefixStripper stripper,
+      String number) {
+    StringBuilder numberToStrip = new StringBuilder(number);
+    assertFalse(stripper.stripInternationalPrefix(numberToStrip));
+    assertEquals(number, numberToStrip.toString());
+  }
+
+  private static void assertStrippedNationalPrefix(PrefixStripper stripper, String number,
+      String expected, String expectedCarrierCode) {
+    StringBuilder numberToStrip = new StringBuilder(number);
+    StringBuilder carrierCode = new StringBuilder();
+    assertTrue(stripper.stripNationalPrefixAndCarrierCode(numberToStrip, matcherApi, carrierCode));
+    assertEquals(expected, numberToStrip.toString());
+    assertEquals(expectedCarrierCode, carrierCode.toString());
+  }
+
+  private static void assertNotStrippedNationalPrefix(PrefixStripper stripper, String number) {
+    StringBuilder numberToStrip = new StringBuilder(number);
+    assertFalse(stripper.stripNationalPrefixAndCarrierCode(numberToStrip, matcherApi, null));
+    assertEquals(number, numberToStrip.toString());
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+
+public final class RegionResolverTest extends TestCase {
+
+  public void testLeadingDigitsAreMatchedExactly() {
+    RegionResolver resolver = RegionResolver.create(Arrays.asList("AA", "BB", "CC"),
+        new PhoneMetadata[] {
+            createMetadata("AA", "[2-9]\\d{9}", null),
+            createMetadata("BB", "\\d{10}", "242|246"),
+            createMetadata("CC", "\\d{10}", "345"),
+        });
+
+    assertEquals(3, resolver.getRegionCount());
+    assertEquals("BB", resolver.getRegionCode(1));
+    assertFalse(resolver.isMatchedByLeadingDigits(0));
+    assertTrue(resolver.isMatchedByLeadingDigits(1));
+    assertTrue(resolver.isMatchedByLeadingDigits(2));
+
+    assertEquals(0x1 | 0x2, resolver.getCandidateRegions(2423570000L, 0));
+    assertEquals(0x1 | 0x4, resolver.getCandidateRegions(3456400000L, 0));
+    assertEquals(0x1, resolver.getCandidateRegions(6502530000L, 0));
+    // Leading digits are matched at the start of the number, whatever its length.
+    assertEquals(0x2, resolver.getCandidateRegions(2461L, 0));
+  }
+
+  public void testGeneralDescRulesOutRegions() {
+    RegionResolver resolver = RegionResolver.create(Arrays.asList("AA", "BB"),
+        new PhoneMetadata[] {
+            createMetadata("AA", "[1-5]\\d{5}", null),
+            createMetadata("BB", "0?[6-9]\\d{5}", null),
+        });
+
+    assertEquals(0x1, resolver.getCandidateRegions(123456L, 0));
+    assertEquals(0x2, resolver.getCandidateRegions(654321L, 0));
+    assertEquals(0x2, resolver.getCandidateRegions(654321L, 1));
+    assertEquals(0, resolver.getCandidateRegions(12345L, 0));
+    assertEquals(0, resolver.getCandidateRegions(123456L, 1));
+  }
+
+  public void testUnsupportedPatternsKeepRegionsCandidates() {
+    RegionResolver resolver = RegionResolver.create(Arrays.asList("AA", "BB", "CC"),
+        new PhoneMetadata[] {
+            createMetadata("AA", "[1-5]\\d{5}", null),
+            createMetadata("BB", "\\d{6}", "(?=7)"),
+            createMetadata("CC", "", null),
+        });
+
+    assertFalse(resolver.isMatchedByLeadingDigits(1));
+    assertEquals(0x2 | 0x4, resolver.getCandidateRegions(987654L, 0));
+    assertEquals(0x1 | 0x2 | 0x4, resolver.getCandidateRegions(123456L, 0));
+  }
+
+  public void testTooManyRegions() {
+    PhoneMetadata[] metadata = new PhoneMetadata[RegionResolver.MAX_REGIONS + 1];
+    Arrays.fill(metadata, createMetadata("AA", "\\d{6}", null));
+    try {
+      RegionResolver.create(Collections.nCopies(metadata.length, "AA"), metadata);
+      fail("Expected an exception for too many regions");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
+  private static PhoneMetadata createMetadata(String regionCode, String nationalNumberPattern,
+      String leadingDigits) {
+    PhoneMetadata metadata = PhoneMetadata.newBuilder().setId(regionCode);
+    metadata.getGeneralDescBuilder().setNationalNumberPattern(nationalNumberPattern);
+    if (leadingDigits != null) {
+      metadata.setLeadingDigits(leadingDigits);
+    }
+    return metadata;
+  }
+}
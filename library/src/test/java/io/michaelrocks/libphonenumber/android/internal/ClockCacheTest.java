@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import junit.framework.TestCase;
+
+public final class ClockCacheTest extends TestCase {
+
+  public void testGetAndPut() {
+    ClockCache<String, Integer> cache = new ClockCache<>(2);
+
+    assertNull(cache.get("one"));
+    assertEquals(Integer.valueOf(1), cache.put("one", 1));
+    assertEquals(Integer.valueOf(1), cache.get("one"));
+    // A value cached by a racing thread is kept.
+    assertEquals(Integer.valueOf(1), cache.put("one", 11));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  public void testRecentlyUsedEntriesAreKept() {
+    ClockCache<String, Integer> cache = new ClockCache<>(2);
+    cache.put("one", 1);
+    cache.put("two", 2);
+    cache.get("one");
+    cache.put("three", 3);
+
+    assertTrue(cache.containsKey("one"));
+    assertFalse(cache.containsKey("two"));
+    assertTrue(cache.containsKey("three"));
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  public void testSetCapacity() {
+    ClockCache<Integer, Integer> cache = new ClockCache<>(64);
+    for (int i = 0; i < 64; i++) {
+      cache.put(i, i);
+    }
+    cache.setCapacity(32);
+
+    assertEquals(32, cache.getCapacity());
+    assertTrue(cache.size() <= 32);
+    assertEquals(64, cache.size() + cache.getEvictionCount());
+  }
+
+  public void testZeroCapacity() {
+    ClockCache<String, Integer> cache = new ClockCache<>(0);
+    assertEquals(Integer.valueOf(1), cache.put("one", 1));
+    assertFalse(cache.containsKey("one"));
+    assertEquals(0, cache.size());
+
+    cache.setCapacity(1);
+    cache.put("one", 1);
+    assertTrue(cache.containsKey("one"));
+    cache.setCapacity(0);
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  public void testInvalidCapacity() {
+    try {
+      new ClockCache<String, String>(-1);
+      fail("Expected an exception for a negative size");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import junit.framework.TestCase;
+
+import org.junit.function.ThrowingRunnable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.michaelrocks.libphonenumber.android.CountryCodeToRegionCodeMap;
+
+import static org.junit.Assert.assertThrows;
+
+public class CountryCallingCodeTableTest extends TestCase {
+
+  public void testDefaultTableMatchesMap() {
+    Map<Integer, List<String>> map = CountryCodeToRegionCodeMap.getCountryCodeToRegionCodeMap();
+    CountryCallingCodeTable table = CountryCallingCodeTable.getDefault();
+
+    assertEquals(map.keySet(), table.getCountryCallingCodes());
+    for (int countryCallingCode = -1;
+        countryCallingCode <= CountryCallingCodeTable.MAX_COUNTRY_CALLING_CODE + 1;
+        countryCallingCode++) {
+      List<String> regionCodes = map.get(countryCallingCode);
+      assertEquals(regionCodes, table.getRegionCodes(countryCallingCode));
+      assertEquals(regionCodes != null, table.contains(countryCallingCode));
+      assertEquals(regionCodes == null ? null : regionCodes.get(0),
+          table.getMainRegionCode(countryCallingCode));
+    }
+    assertSame(table, CountryCallingCodeTable.getDefault());
+  }
+
+  public void testCreate() {
+    Map<Integer, List<String>> map = new HashMap<Integer, List<String>>();
+    map.put(1, Arrays.asList("US", "CA"));
+    map.put(800, Arrays.asList("001"));
+
+    final CountryCallingCodeTable table = CountryCallingCodeTable.create(map);
+
+    assertEquals(Arrays.asList(1, 800), Arrays.asList(table.getCountryCallingCodes().toArray()));
+    assertEquals("US", table.getMainRegionCode(1));
+    assertEquals(Arrays.asList("001"), table.getRegionCodes(800));
+    assertNull(table.getRegionCodes(7));
+    assertFalse(table.contains(111111111));
+    assertThrows(UnsupportedOperationException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        table.getRegionCodes(1).add("AG");
+      }
+    });
+  }
+
+  public void testCreateRejectsInvalidCountryCallingCodes() {
+    final Map<Integer, List<String>> map = new HashMap<Integer, List<String>>();
+    map.put(1000, Arrays.asList("US"));
+
+    assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        CountryCallingCodeTable.create(map);
+      }
+    });
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for DigitAutomaton.java
+ */
+public class DigitAutomatonTest extends TestCase {
+  public void testCompileUnsupportedPatterns() {
+    assertNull(DigitAutomaton.compile("12$"));
+    assertNull(DigitAutomaton.compile("^12"));
+    assertNull(DigitAutomaton.compile("1.2"));
+    assertNull(DigitAutomaton.compile("(1)\\1"));
+    assertNull(DigitAutomaton.compile("\\s1"));
+    assertNull(DigitAutomaton.compile("(?=1)1"));
+    assertNull(DigitAutomaton.compile("1?+2"));
+    assertNull(DigitAutomaton.compile("[1-"));
+  }
+
+  public void testSinglePattern() {
+    DigitAutomaton automaton = DigitAutomaton.compile("(?:2[0-4]|9)\\d{2,3}");
+    assertEquals(1, acceptMask(automaton, "2012"));
+    assertEquals(1, acceptMask(automaton, "9012"));
+    assertEquals(0, acceptMask(automaton, "90"));
+    assertEquals(0, acceptMask(automaton, "2"));
+    assertEquals(-1, acceptMask(automaton, "2512"));
+    assertEquals(-1, acceptMask(automaton, "90123"));
+  }
+
+  public void testMultiplePatterns() {
+    DigitAutomaton automaton = DigitAutomaton.compile("1\\d{2}", "[12]\\d{2}", "", "3+");
+    assertEquals(4, acceptMask(automaton, ""));
+    assertEquals(3, acceptMask(automaton, "123"));
+    assertEquals(2, acceptMask(automaton, "234"));
+    assertEquals(8, acceptMask(automaton, "333"));
+    assertEquals(-1, acceptMask(automaton, "4"));
+  }
+
+  public void testNegatedCharacterClass() {
+    DigitAutomaton automaton = DigitAutomaton.compile("[^0-8a]");
+    assertEquals(1, acceptMask(automaton, "9"));
+    assertEquals(-1, acceptMask(automaton, "0"));
+  }
+
+  // Returns the accept mask of the state reached after consuming the number, or -1 if the
+  // automaton reached the dead state.
+  private static int acceptMask(DigitAutomaton automaton, String number) {
+    int state = automaton.getStartState();
+    for (int i = 0; i < number.length(); i++) {
+      state = automaton.nextState(state, number.charAt(i) - '0');
+      if (state == DigitAutomaton.DEAD_STATE) {
+        return -1;
+      }
+    }
+    return automaton.getAcceptMask(state);
+  }
+}
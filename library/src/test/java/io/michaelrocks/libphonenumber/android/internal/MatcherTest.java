@@ -29,6 +29,44 @@ public class MatcherTest extends TestCase {
     checkMatcherBehavesAsExpected(RegexBasedMatcher.create());
   }
 
+  public void testDfaBasedMatcher() {
+    checkMatcherBehavesAsExpected(DfaBasedMatcher.create());
+  }
+
+  public void testDfaBasedMatcherFallsBackForNonDigits() {
+    MatcherApi matcher = DfaBasedMatcher.create();
+    PhoneNumberDesc desc = createDesc("\\+?1\\d{2}");
+    assertMatched(matcher, "+123", desc);
+    assertMatched(matcher, "123", desc);
+    assertTooLong(matcher, "1234", desc);
+    assertInvalid(matcher, "+1", desc);
+
+    // Anchors aren't supported by the automaton compiler.
+    desc = createDesc("12$");
+    assertMatched(matcher, "12", desc);
+    assertInvalid(matcher, "123", desc);
+  }
+
+  public void testRegexBasedMatcherWithLeadingZeros() {
+    checkLeadingZerosAreMatched(RegexBasedMatcher.create());
+  }
+
+  public void testDfaBasedMatcherWithLeadingZeros() {
+    checkLeadingZerosAreMatched(DfaBasedMatcher.create());
+  }
+
+  private void checkLeadingZerosAreMatched(MatcherApi matcher) {
+    PhoneNumberDesc desc = createDesc("0\\d{3}");
+    assertTrue(matcher.matchNationalNumber(123L, 1, desc, false));
+    assertFalse(matcher.matchNationalNumber(123L, 0, desc, true));
+    assertFalse(matcher.matchNationalNumber(1234L, 1, desc, false));
+    assertTrue(matcher.matchNationalNumber(1234L, 1, desc, true));
+
+    desc = createDesc("00\\d");
+    assertTrue(matcher.matchNationalNumber(0L, 2, desc, false));
+    assertFalse(matcher.matchNationalNumber(0L, 1, desc, true));
+  }
+
   private void checkMatcherBehavesAsExpected(MatcherApi matcher) {
     PhoneNumberDesc desc = createDesc("");
     // Test if there is no matcher data.
@@ -66,25 +104,41 @@ public class MatcherTest extends TestCase {
     return desc.build();
   }
 
+  // Matches the number both as a string and, if it's a national significant number, as a long with
+  // the number of leading zeros, which must give the same result.
+  private static boolean match(MatcherApi matcher, String number, PhoneNumberDesc desc,
+      boolean allowPrefixMatch) {
+    boolean matched = matcher.matchNationalNumber(number, desc, allowPrefixMatch);
+    if (number.matches("\\d{1,18}")) {
+      int leadingZeros = 0;
+      while (leadingZeros < number.length() - 1 && number.charAt(leadingZeros) == '0') {
+        leadingZeros++;
+      }
+      assertEquals(matched, matcher.matchNationalNumber(
+          Long.parseLong(number), leadingZeros, desc, allowPrefixMatch));
+    }
+    return matched;
+  }
+
   private void assertMatched(MatcherApi matcher, String number, PhoneNumberDesc desc) {
     assertTrue(String.format("%s should have matched %s.", number, toString(desc)),
-        matcher.matchNationalNumber(number, desc, false));
+        match(matcher, number, desc, false));
     assertTrue(String.format("%s should have matched %s.", number, toString(desc)),
-        matcher.matchNationalNumber(number, desc, true));
+        match(matcher, number, desc, true));
   }
 
   private void assertInvalid(MatcherApi matcher, String number, PhoneNumberDesc desc) {
     assertFalse(String.format("%s should not have matched %s.", number, toString(desc)),
-        matcher.matchNationalNumber(number, desc, false));
+        match(matcher, number, desc, false));
     assertFalse(String.format("%s should not have matched %s.", number, toString(desc)),
-        matcher.matchNationalNumber(number, desc, true));
+        match(matcher, number, desc, true));
   }
 
   private void assertTooLong(MatcherApi matcher, String number, PhoneNumberDesc desc) {
     assertFalse(String.format("%s should have been too long for %s.", number, toString(desc)),
-        matcher.matchNationalNumber(number, desc, false));
+        match(matcher, number, desc, false));
     assertTrue(String.format("%s should have been too long for %s.", number, toString(desc)),
-        matcher.matchNationalNumber(number, desc, true));
+        match(matcher, number, desc, true));
   }
 
   private String toString(PhoneNumberDesc desc) {
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import junit.framework.TestCase;
+
+import org.junit.function.ThrowingRunnable;
+
+import static org.junit.Assert.assertThrows;
+
+public class NationalNumberDigitsTest extends TestCase {
+
+  public void testGetLength() {
+    assertEquals(1, NationalNumberDigits.getLength(0L, 0));
+    assertEquals(3, NationalNumberDigits.getLength(0L, 2));
+    assertEquals(9, NationalNumberDigits.getLength(123456789L, 0));
+    assertEquals(10, NationalNumberDigits.getLength(1000000000L, 0));
+    assertEquals(11, NationalNumberDigits.getLength(999999999L, 2));
+    assertEquals(19, NationalNumberDigits.getLength(Long.MAX_VALUE, 0));
+  }
+
+  public void testDigitsMatchString() {
+    long[] nationalNumbers = { 0L, 7L, 10L, 236618300L, 1000000000000L, Long.MAX_VALUE };
+    for (long nationalNumber : nationalNumbers) {
+      StringBuilder digits = new StringBuilder();
+      for (long divisor = NationalNumberDigits.getLeadingDivisor(nationalNumber); divisor > 0;
+          divisor /= 10) {
+        digits.append(nationalNumber / divisor % 10);
+      }
+      assertEquals(Long.toString(nationalNumber), digits.toString());
+    }
+  }
+
+  public void testToString() {
+    assertEquals("0", NationalNumberDigits.toString(0L, 0));
+    assertEquals("00", NationalNumberDigits.toString(0L, 1));
+    assertEquals("0236618300", NationalNumberDigits.toString(236618300L, 1));
+    assertEquals("650253", NationalNumberDigits.toString(650253L, 0));
+  }
+
+  public void testNegativeNationalNumberIsRejected() {
+    assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        NationalNumberDigits.getLength(-1L, 0);
+      }
+    });
+  }
+}
@@ -53,4 +53,52 @@ public class RegexCacheTest extends TestCase {
     assertFalse(regexCache.containsRegex(regex2));
     assertTrue(regexCache.containsRegex(regex1));
   }
+
+  public void testStatistics() {
+    RegexCache regexCache = new RegexCache(2);
+    final String regex1 = "[1-5]";
+    final String regex2 = "(?:12|34)";
+    final String regex3 = "[1-3][58]";
+
+    regexCache.getPatternForRegex(regex1);
+    regexCache.getPatternForRegex(regex1);
+    regexCache.getPatternForRegex(regex2);
+    regexCache.getPatternForRegex(regex3);
+    regexCache.getPatternForRegex(regex1);
+
+    assertEquals(2, regexCache.getHitCount());
+    assertEquals(3, regexCache.getMissCount());
+    assertEquals(1, regexCache.getEvictionCount());
+    assertEquals(2, regexCache.size());
+  }
+
+  public void testSetCapacity() {
+    // Large caches are sharded, so the eviction order and the number of patterns held before the
+    // first eviction are only approximate.
+    RegexCache cache = new RegexCache(100);
+    for (int i = 0; i < 100; i++) {
+      cache.getPatternForRegex("\\d{" + i + "}");
+    }
+    assertEquals(100, cache.size() + cache.getEvictionCount());
+
+    cache.setCapacity(40);
+    assertEquals(40, cache.getCapacity());
+    assertTrue(cache.size() <= 40);
+    assertEquals(100, cache.size() + cache.getEvictionCount());
+
+    cache.setCapacity(60);
+    for (int i = 100; i < 200; i++) {
+      cache.getPatternForRegex("\\d{" + i + "}");
+    }
+    assertTrue(cache.size() <= 60);
+    assertEquals(200, cache.size() + cache.getEvictionCount());
+    assertTrue(cache.containsRegex("\\d{199}"));
+  }
+
+  public void testZeroCapacity() {
+    RegexCache cache = new RegexCache(0);
+    assertEquals("[1-5]", cache.getPatternForRegex("[1-5]").pattern());
+    assertFalse(cache.containsRegex("[1-5]"));
+    assertEquals(0, cache.size());
+  }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+public class RegionCodeSetTest extends TestCase {
+
+  public void testContains() {
+    RegionCodeSet set = new RegionCodeSet(Arrays.asList("US", "ZZ", "AA", "001"));
+
+    assertTrue(set.contains("US"));
+    assertTrue(set.contains("ZZ"));
+    assertTrue(set.contains("AA"));
+    assertTrue(set.contains("001"));
+    assertTrue(set.contains(RegionCodes.getId("US")));
+    assertFalse(set.contains("CA"));
+    assertFalse(set.contains("us"));
+    assertFalse(set.contains("002"));
+    assertFalse(set.contains(null));
+    assertFalse(set.contains(RegionCodes.getId("CA")));
+    assertFalse(set.contains(RegionCodes.INVALID_ID));
+    assertFalse(set.contains(RegionCodes.ID_COUNT));
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.internal;
+
+import junit.framework.TestCase;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class RegionCodesTest extends TestCase {
+
+  public void testGetId() {
+    assertEquals(0, RegionCodes.getId("AA"));
+    assertEquals(RegionCodes.ID_COUNT - 1, RegionCodes.getId("ZZ"));
+    assertEquals(RegionCodes.INVALID_ID, RegionCodes.getId(null));
+    assertEquals(RegionCodes.INVALID_ID, RegionCodes.getId(""));
+    assertEquals(RegionCodes.INVALID_ID, RegionCodes.getId("001"));
+    assertEquals(RegionCodes.INVALID_ID, RegionCodes.getId("us"));
+    assertEquals(RegionCodes.INVALID_ID, RegionCodes.getId("U@"));
+    assertEquals(RegionCodes.INVALID_ID, RegionCodes.getId("U["));
+  }
+
+  public void testIdsAreDistinctAndReversible() {
+    Set<Integer> ids = new HashSet<Integer>();
+    for (char first = 'A'; first <= 'Z'; first++) {
+      for (char second = 'A'; second <= 'Z'; second++) {
+        String regionCode = new String(new char[] { first, second });
+        int id = RegionCodes.getId(regionCode);
+        assertTrue(id >= 0 && id < RegionCodes.ID_COUNT);
+        assertTrue(ids.add(id));
+        assertEquals(regionCode, RegionCodes.getRegionCode(id));
+      }
+    }
+  }
+}
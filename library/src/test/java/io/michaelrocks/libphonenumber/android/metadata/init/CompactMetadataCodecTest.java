@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.metadata.init;
+
+import junit.framework.TestCase;
+
+import org.junit.function.ThrowingRunnable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import io.michaelrocks.libphonenumber.android.Phonemetadata.NumberFormat;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadataCollection;
+import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneNumberDesc;
+
+import static org.junit.Assert.assertThrows;
+
+public final class CompactMetadataCodecTest extends TestCase {
+
+  private static final String METADATA_FILE_PREFIX =
+      "/io/michaelrocks/libphonenumber/android/data/PhoneNumberMetadataProtoForTesting_";
+
+  private static final MetadataParser metadataParser = MetadataParser.newStrictParser();
+
+  public void testRoundTrip() throws IOException {
+    List<PhoneMetadata> metadataList = new ArrayList<PhoneMetadata>();
+    metadataList.add(createMetadata());
+    for (String regionCode : Arrays.asList("US", "GB", "AR", "MX", "800")) {
+      metadataList.addAll(metadataParser.parse(CompactMetadataCodecTest.class.getResourceAsStream(
+          METADATA_FILE_PREFIX + regionCode)));
+    }
+
+    assertSameMetadata(metadataList,
+        CompactMetadataCodec.decode(CompactMetadataCodec.encode(metadataList, false)));
+    assertSameMetadata(metadataList,
+        CompactMetadataCodec.decode(CompactMetadataCodec.encode(metadataList, true)));
+  }
+
+  public void testStringTableSharesRepeatedStrings() {
+    List<PhoneMetadata> metadataList = Arrays.asList(createMetadata(), createMetadata());
+
+    byte[] withoutStringTable = CompactMetadataCodec.encode(metadataList, false);
+    byte[] withStringTable = CompactMetadataCodec.encode(metadataList, true);
+    List<PhoneMetadata> decoded = CompactMetadataCodec.decode(withStringTable);
+
+    assertTrue(withStringTable.length < withoutStringTable.length);
+    assertSame(decoded.get(0).getGeneralDesc().getNationalNumberPattern(),
+        decoded.get(1).getGeneralDesc().getNationalNumberPattern());
+  }
+
+  public void testDecodeFromDirectBuffer() throws IOException {
+    List<PhoneMetadata> metadataList = Arrays.asList(createMetadata());
+    byte[] bytes = CompactMetadataCodec.encode(metadataList, false);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 1);
+    buffer.put(bytes).put((byte) 42).flip();
+
+    assertSameMetadata(metadataList, CompactMetadataCodec.decode(buffer));
+    assertEquals(1, buffer.remaining());
+  }
+
+  public void testDecodeRejectsInvalidInput() {
+    final byte[] bytes = CompactMetadataCodec.encode(Arrays.asList(createMetadata()), true);
+
+    assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        CompactMetadataCodec.decode(Arrays.copyOf(bytes, bytes.length - 1));
+      }
+    });
+    assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        byte[] unsupportedVersion = bytes.clone();
+        unsupportedVersion[CompactMetadataCodec.MAGIC.length] = 2;
+        CompactMetadataCodec.decode(unsupportedVersion);
+      }
+    });
+    assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        CompactMetadataCodec.decode(new byte[] { 1, 2, 3, 4, 5, 6 });
+      }
+    });
+  }
+
+  public void testParserAcceptsBothFormats() throws IOException {
+    List<PhoneMetadata> metadataList = Arrays.asList(createMetadata());
+    PhoneMetadataCollection collection = new PhoneMetadataCollection();
+    collection.addMetadata(metadataList.get(0));
+
+    Collection<PhoneMetadata> fromCompact = metadataParser.parse(
+        new ByteArrayInputStream(CompactMetadataCodec.encode(collection, true)));
+    Collection<PhoneMetadata> fromExternalizable = metadataParser.parse(
+        new ByteArrayInputStream(toExternalizableBytes(metadataList)));
+
+    assertSameMetadata(metadataList, fromCompact);
+    assertSameMetadata(metadataList, fromExternalizable);
+  }
+
+  public void testParserRejectsTruncatedCompactInput() {
+    byte[] bytes = CompactMetadataCodec.encode(Arrays.asList(createMetadata()), false);
+    final byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+    assertThrows(IllegalStateException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        metadataParser.parse(new ByteArrayInputStream(truncated));
+      }
+    });
+  }
+
+  private static PhoneMetadata createMetadata() {
+    PhoneMetadata metadata = new PhoneMetadata()
+        .setId("XX")
+        .setCountryCode(999)
+        .setInternationalPrefix("00")
+        .setNationalPrefix("0")
+        .setNationalPrefixForParsing("0(\\d{3})?")
+        .setNationalPrefixTransformRule("$1")
+        .setMainCountryForCode(true)
+        .setLeadingDigits("9")
+        .setGeneralDesc(new PhoneNumberDesc()
+            .setNationalNumberPattern("[1-9]\\d{5,8}")
+            .addPossibleLength(-1)
+            .addPossibleLength(9)
+            .addPossibleLengthLocalOnly(6))
+        .setMobile(new PhoneNumberDesc()
+            .setNationalNumberPattern("9\\d{8}")
+            .setExampleNumber("912345678"));
+    metadata.addNumberFormat(new NumberFormat()
+        .setPattern("(\\d{3})(\\d{3})(\\d{3})")
+        .setFormat("$1 $2 $3")
+        .addLeadingDigitsPattern("9")
+        .setNationalPrefixFormattingRule("0$1")
+        .setNationalPrefixOptionalWhenFormatting(true));
+    metadata.addIntlNumberFormat(new NumberFormat()
+        .setPattern("(\\d{3})(\\d{3})(\\d{3})")
+        .setFormat("$1-$2-$3")
+        .setDomesticCarrierCodeFormattingRule("0 $CC $FG"));
+    return metadata;
+  }
+
+  // Metadata has no equals(), so it is compared through its Externalizable form.
+  private static void assertSameMetadata(Collection<PhoneMetadata> expected,
+      Collection<PhoneMetadata> actual) throws IOException {
+    assertEquals(expected.size(), actual.size());
+    assertTrue(Arrays.equals(toExternalizableBytes(expected), toExternalizableBytes(actual)));
+  }
+
+  private static byte[] toExternalizableBytes(Collection<PhoneMetadata> metadataList)
+      throws IOException {
+    PhoneMetadataCollection collection = new PhoneMetadataCollection();
+    for (PhoneMetadata metadata : metadataList) {
+      collection.addMetadata(metadata);
+    }
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+    collection.writeExternal(objectOutputStream);
+    objectOutputStream.close();
+    return outputStream.toByteArray();
+  }
+}
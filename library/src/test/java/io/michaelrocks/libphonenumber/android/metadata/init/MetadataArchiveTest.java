@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.libphonenumber.android.metadata.init;
+
+import junit.framework.TestCase;
+
+import org.junit.function.ThrowingRunnable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.michaelrocks.libphonenumber.android.metadata.source.MetadataSource;
+import io.michaelrocks.libphonenumber.android.metadata.source.MetadataSourceImpl;
+import io.michaelrocks.libphonenumber.android.metadata.source.MultiFileModeFileNameProvider;
+
+import static org.junit.Assert.assertThrows;
+
+public final class MetadataArchiveTest extends TestCase {
+
+  private static final String METADATA_FILE_DIRECTORY =
+      "/io/michaelrocks/libphonenumber/android/data/";
+  private static final String METADATA_FILE_BASE = "PhoneNumberMetadataProtoForTesting";
+
+  private static final MetadataParser metadataParser = MetadataParser.newStrictParser();
+
+  public void testLoadsEntriesFromMappedFile() throws IOException {
+    Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+    byte[] usMetadata = readResource(METADATA_FILE_BASE + "_US");
+    entries.put(METADATA_FILE_BASE + "_US", CompactMetadataCodec.encode(
+        metadataParser.parse(new ByteArrayInputStream(usMetadata)), true));
+    // Entries in the Externalizable format are supported too.
+    entries.put(METADATA_FILE_BASE + "_GB", readResource(METADATA_FILE_BASE + "_GB"));
+    File file = File.createTempFile("metadata", ".archive");
+    try {
+      FileOutputStream output = new FileOutputStream(file);
+      output.write(MetadataArchive.create(entries));
+      output.close();
+
+      MetadataArchive archive = MetadataArchive.map(file);
+      MetadataSource metadataSource = new MetadataSourceImpl(
+          new MultiFileModeFileNameProvider(METADATA_FILE_DIRECTORY + METADATA_FILE_BASE),
+          new MetadataArchiveLoader(archive),
+          MetadataParser.newLenientParser());
+
+      assertEquals(entries.keySet(), archive.getEntryNames());
+      assertEquals(1, metadataSource.getMetadataForRegion("US").getCountryCode());
+      assertEquals(44, metadataSource.getMetadataForRegion("GB").getCountryCode());
+      assertNull(metadataSource.getMetadataForRegion("DE"));
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testGetEntry() {
+    Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+    entries.put("first", new byte[] { 1, 2, 3 });
+    entries.put("empty", new byte[0]);
+    entries.put("second", new byte[] { 4, 5 });
+    byte[] bytes = MetadataArchive.create(entries);
+    // The archive doesn't need to start at the beginning of the buffer.
+    ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 2);
+    buffer.put((byte) 0).put(bytes).put((byte) 0).position(1);
+
+    MetadataArchive archive = MetadataArchive.wrap(buffer);
+
+    assertEquals(new HashSet<String>(Arrays.asList("first", "empty", "second")),
+        archive.getEntryNames());
+    assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), archive.getEntry("first"));
+    assertEquals(0, archive.getEntry("empty").remaining());
+    assertEquals(ByteBuffer.wrap(new byte[] { 4, 5 }), archive.getEntry("second"));
+    assertTrue(archive.getEntry("second").isReadOnly());
+    assertNull(archive.getEntry("third"));
+  }
+
+  public void testLoaderIgnoresDirectory() throws IOException {
+    Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+    entries.put("PhoneNumberMetadataProto_US", new byte[] { 1, 2, 3 });
+    MetadataArchive archive =
+        MetadataArchive.wrap(ByteBuffer.wrap(MetadataArchive.create(entries)));
+    MetadataArchiveLoader loader = new MetadataArchiveLoader(archive);
+
+    InputStream input = loader.loadMetadata("/some/directory/PhoneNumberMetadataProto_US");
+
+    assertEquals(3, input.available());
+    assertEquals(1, input.read());
+    assertNull(loader.loadMetadata("/some/directory/PhoneNumberMetadataProto_GB"));
+  }
+
+  public void testWrapRejectsInvalidInput() {
+    Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+    entries.put("first", new byte[] { 1, 2, 3 });
+    final byte[] bytes = MetadataArchive.create(entries);
+
+    assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        MetadataArchive.wrap(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1)));
+      }
+    });
+    assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        MetadataArchive.wrap(ByteBuffer.wrap(Arrays.copyOf(bytes, 8)));
+      }
+    });
+    assertThrows(IllegalArgumentException.class, new ThrowingRunnable() {
+      @Override
+      public void run() {
+        MetadataArchive.wrap(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6 }));
+      }
+    });
+  }
+
+  private static byte[] readResource(String name) throws IOException {
+    InputStream input = MetadataArchiveTest.class.getResourceAsStream(
+        METADATA_FILE_DIRECTORY + name);
+    try {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int count;
+      while ((count = input.read(buffer)) >= 0) {
+        output.write(buffer, 0, count);
+      }
+      return output.toByteArray();
+    } finally {
+      input.close();
+    }
+  }
+}
@@ -24,11 +24,17 @@ import org.junit.function.ThrowingRunnable;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import io.michaelrocks.libphonenumber.android.MetadataLoader;
 import io.michaelrocks.libphonenumber.android.Phonemetadata.PhoneMetadata;
@@ -96,6 +102,111 @@ public class BlockingMetadataBootstrappingGuardTest extends TestCase {
     verify(metadataLoader, times(1)).loadMetadata(PHONE_METADATA_FILE);
   }
 
+  public void test_getOrBootstrap_shouldLoadDifferentFilesConcurrently() throws Exception {
+    final String otherFile = "other metadata file";
+    final CountDownLatch otherFileLoaded = new CountDownLatch(1);
+    MetadataLoader blockingLoader =
+        new MetadataLoader() {
+          @Override
+          public InputStream loadMetadata(String phoneMetadataFile) {
+            if (phoneMetadataFile.equals(PHONE_METADATA_FILE)) {
+              // Blocks until the other file is loaded, which would never happen if loads of
+              // different files were serialized.
+              try {
+                if (!otherFileLoaded.await(10, TimeUnit.SECONDS)) {
+                  return null;
+                }
+              } catch (InterruptedException e) {
+                return null;
+              }
+            }
+            try {
+              return PhoneMetadataCollectionUtil.toInputStream(PHONE_METADATA);
+            } catch (IOException e) {
+              throw new IllegalStateException(e);
+            }
+          }
+        };
+    final BlockingMetadataBootstrappingGuard<MetadataContainer> guard =
+        new BlockingMetadataBootstrappingGuard<>(
+            blockingLoader, MetadataParser.newStrictParser(), metadataContainer);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(1);
+    try {
+      Future<MetadataContainer> blockedLoad =
+          executorService.submit(
+              new Callable<MetadataContainer>() {
+                @Override
+                public MetadataContainer call() {
+                  return guard.getOrBootstrap(PHONE_METADATA_FILE);
+                }
+              });
+      guard.getOrBootstrap(otherFile);
+      otherFileLoaded.countDown();
+      assertSame(metadataContainer, blockedLoad.get(10, TimeUnit.SECONDS));
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  public void test_getOrBootstrapAsync_shouldShareLoadWithBlockingCalls() throws Exception {
+    final List<Runnable> tasks = new ArrayList<>();
+    Executor executor =
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            tasks.add(command);
+          }
+        };
+
+    Future<MetadataContainer> future =
+        bootstrappingGuard.getOrBootstrapAsync(PHONE_METADATA_FILE, executor);
+    assertFalse(future.isDone());
+    // The blocking call doesn't wait for the executor, it loads the file itself.
+    bootstrappingGuard.getOrBootstrap(PHONE_METADATA_FILE);
+    assertTrue(future.isDone());
+    assertSame(metadataContainer, future.get());
+    for (Runnable task : tasks) {
+      task.run();
+    }
+
+    verify(metadataLoader, times(1)).loadMetadata(PHONE_METADATA_FILE);
+  }
+
+  public void test_getOrBootstrapAsync_shouldKeepLoadOfOtherCallerOnRejection() throws Exception {
+    final List<Runnable> tasks = new ArrayList<>();
+    Executor executor =
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            tasks.add(command);
+          }
+        };
+    Executor rejectingExecutor =
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            throw new RejectedExecutionException();
+          }
+        };
+
+    Future<MetadataContainer> future =
+        bootstrappingGuard.getOrBootstrapAsync(PHONE_METADATA_FILE, executor);
+    try {
+      bootstrappingGuard.getOrBootstrapAsync(PHONE_METADATA_FILE, rejectingExecutor);
+      fail("Expected the executor to reject the load");
+    } catch (RejectedExecutionException e) {
+      // Expected.
+    }
+    bootstrappingGuard.getOrBootstrap(PHONE_METADATA_FILE);
+    assertTrue(future.isDone());
+    for (Runnable task : tasks) {
+      task.run();
+    }
+
+    verify(metadataLoader, times(1)).loadMetadata(PHONE_METADATA_FILE);
+  }
+
   private class BootstrappingRunnable implements Callable<MetadataContainer> {
 
     @Override
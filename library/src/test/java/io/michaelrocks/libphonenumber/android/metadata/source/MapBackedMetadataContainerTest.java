@@ -61,4 +61,27 @@ public class MapBackedMetadataContainerTest extends TestCase {
 
     assertSame(PHONE_METADATA, metadataContainer.getMetadataBy(COUNTRY_CODE));
   }
+
+  public void test_getMetadataBy_shouldReturnMetadataForRegionCodeWithoutIdentifier() {
+    MapBackedMetadataContainer<String> metadataContainer =
+        MapBackedMetadataContainer.byRegionCode();
+    PhoneMetadata phoneMetadata = PhoneMetadata.newBuilder().setId("001").setCountryCode(800);
+
+    metadataContainer.accept(phoneMetadata);
+    metadataContainer.accept(PHONE_METADATA);
+
+    assertSame(phoneMetadata, metadataContainer.getMetadataBy("001"));
+    assertSame(PHONE_METADATA, metadataContainer.getMetadataBy(REGION_CODE));
+  }
+
+  public void test_getMetadataBy_shouldReturnMetadataForCountryCodeWithoutIndex() {
+    MapBackedMetadataContainer<Integer> metadataContainer =
+        MapBackedMetadataContainer.byCountryCallingCode();
+    PhoneMetadata phoneMetadata = PhoneMetadata.newBuilder().setId("001").setCountryCode(1000);
+
+    metadataContainer.accept(phoneMetadata);
+
+    assertSame(phoneMetadata, metadataContainer.getMetadataBy(1000));
+    assertNull(metadataContainer.getMetadataBy(-1));
+  }
 }